@@ -22,6 +22,7 @@ import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import com.ctre.phoenix6.signals.SensorDirectionValue;
+import com.pathplanner.lib.path.PathConstraints;
 import com.pathplanner.lib.util.HolonomicPathFollowerConfig;
 import com.pathplanner.lib.util.PIDConstants;
 import com.pathplanner.lib.util.ReplanningConfig;
@@ -29,10 +30,13 @@ import edu.wpi.first.math.util.Units;
 import edu.wpi.first.apriltag.AprilTag;
 import edu.wpi.first.apriltag.AprilTagFieldLayout;
 import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.units.Angle;
 import edu.wpi.first.units.Distance;
 import edu.wpi.first.units.Measure;
@@ -59,6 +63,8 @@ public class Constants {
 
     public static final class DriveK {
         public static final double kDutyCycleOpenLoopRamp = 0.05; // seconds
+        public static final double kOdometryFrequency = 250; // Hz, CAN FD can keep up with it
+        public static final double kStateHistory = 1.5; // seconds of odometry kept for latency compensation
     }
 
     public class FieldK {
@@ -119,7 +125,8 @@ public class Constants {
             kFieldLength.minus(kXToAmp), kFieldWidth.minus(kYToAmp), kZToAmp);
 
         /* stage constants */
-        public static final double kBlueStageClearanceDs = Units.inchesToMeters(188.5);
+        // mirror of the red line, this used to be 188.5 which is past the podium leg
+        public static final double kBlueStageClearanceDs = Units.inchesToMeters(109);
         public static final double kBlueStageClearanceRight = Units.inchesToMeters(88.3);
         public static final double kBlueStageClearanceCenter = Units.inchesToMeters(243.2);
         public static final double kBlueStageClearanceLeft = Units.inchesToMeters(234.9);
@@ -128,6 +135,18 @@ public class Constants {
         public static final double kRedStageClearanceRight = Units.inchesToMeters(88.3);
         public static final double kRedStageClearanceCenter = Units.inchesToMeters(407.9);
         public static final double kRedStageClearanceLeft = Units.inchesToMeters(234.9);
+
+        /* targets for on the fly paths, blue origin. The shooter fires out the back, so the back faces the goal */
+        public static final Pose2d kBlueAmpScoringPose = new Pose2d(
+            kXToAmp.in(Meters), kFieldWidth.in(Meters) - 0.5, Rotation2d.fromDegrees(-90));
+        // same spot the close autons start from
+        public static final Pose2d kBlueSubwooferScoringPose = new Pose2d(1.371, 5.47, Rotation2d.fromDegrees(0));
+        // intake first into the source chute
+        public static final Pose2d kBlueSourcePose = new Pose2d(15.2, 1.0, Rotation2d.fromDegrees(-60));
+        // in front of each chain, backed up to it. Rough, from the stage leg positions
+        public static final Pose2d kBlueStageCenterTrapPose = new Pose2d(6.2, 4.11, Rotation2d.fromDegrees(0));
+        public static final Pose2d kBlueStageAmpTrapPose = new Pose2d(4.09, 5.26, Rotation2d.fromDegrees(122));
+        public static final Pose2d kBlueStageSourceTrapPose = new Pose2d(4.09, 2.96, Rotation2d.fromDegrees(-122));
     }
 
     public class AutoK {
@@ -141,6 +160,29 @@ public class Constants {
             TunerConstants.kDriveRadius,
             new ReplanningConfig()
         );
+
+        /* drive to pose, see DriveToPoseController */
+        public static final TrapezoidProfile.Constraints kDriveToPoseDriveConstraints =
+            new TrapezoidProfile.Constraints(4, 3.5); // m/s, m/s^2
+        public static final TrapezoidProfile.Constraints kDriveToPoseTurnConstraints =
+            new TrapezoidProfile.Constraints(2 * Math.PI, 4 * Math.PI); // rad/s, rad/s^2
+        // the profiles carry most of the effort, so these only clean up tracking error
+        public static final double kPDriveToPoseTranslation = 3;
+        public static final double kPDriveToPoseTheta = 5;
+        /* on the fly paths, see PathGenerator */
+        public static final PathConstraints kPathGenConstraints =
+            new PathConstraints(4, 3.5, 2 * Math.PI, 4 * Math.PI); // m/s, m/s^2, rad/s, rad/s^2
+        public static final double kPathGenMargin = 0.25; // meters the path keeps from the stage clearance lines
+
+        public static final double kDriveToPoseTranslationTolerance = 0.03; // meters
+        public static final Measure<Angle> kDriveToPoseRotationTolerance = Degrees.of(2);
+
+        /* auton branching, see AutonDecisionEngine */
+        public static final double kAutonLengthSecs = 15.3; // 15 s plus the FMS's slack
+        public static final double kAutonShotSecs = 0.5; // request to note out, roughly
+        /* how far before the end of a path these get requested, see TrajectoryEvents */
+        public static final double kIntakeLeadDistance = 2.0; // meters, short of the note
+        public static final double kAimLeadDistance = 1.0; // meters
     }
 
     public class IntakeK {
@@ -256,6 +298,8 @@ public class Constants {
         public static final int kLeftId = 14;
 
         public static final double kSpinAmt = 0.7;
+        /** Right side speed as a fraction of the left for speaker shots */
+        public static final double kSpeakerSpinAmt = 0.6;
 
         public static final double kSubwooferRpm = 7300;
         public static final double kLobRpm = 4500;
@@ -266,12 +310,63 @@ public class Constants {
         public static final double kGearRatio = 18.0 / 36.0;
 
         public static final class FlywheelSimK {
-            public static final double kMoi = 0.056699046875; // kg m^2
+            /**
+             * From the left side's speaker kA, kA / 2pi * gearing * Kt / R for a Falcon. The old 0.0567 was about 100x
+             * that and made the sim take over 10 s to spin up, nothing like the real shooter
+             */
+            public static final double kMoi = 0.000597; // kg m^2
 
             // basically just how much faster the wheels have to spin for 1 meter more of
             // distance idk how this will work
             public static final double kRpmFactor = 100; // TODO fix this i just chose a random value
         }
+
+        public enum FlywheelControlMode {
+            /** VelocityVoltage with the Slot0/Slot1 gains on the TalonFX */
+            ONBOARD_PID,
+            /** LQR + Kalman filter on the FlywheelSim model, commanding voltage */
+            LQR,
+            /** Full voltage until close to the target, then LQR */
+            LQR_BANG_BANG
+        }
+
+        public static final class FlywheelControlK {
+            // FlywheelControlTest fails if another mode spins up or recovers faster than this one in the sim
+            public static final FlywheelControlMode kControlMode = FlywheelControlMode.ONBOARD_PID;
+            public static final double kLoopPeriod = 0.005; // seconds
+
+            /* all in flywheel rad/s */
+            public static final double kLqrVelocityTolerance = 8.0;
+            public static final double kKalmanModelStdDev = 3.0;
+            public static final double kKalmanMeasurementStdDev = 0.01;
+
+            public static final double kMaxVoltage = 12.0;
+            /** The model has no friction, so kS gets added on top */
+            public static final double kS = 0.26; // volts
+            /** CAN latency of the velocity measurement */
+            public static final double kMeasurementDelay = 0.01; // seconds
+            /** Bang-bang hands over to the LQR once within this fraction of the target */
+            public static final double kBangBangThreshold = 0.1;
+
+            /** Step and horizon for integrating the model when predicting spin-up time */
+            public static final double kPredictionStep = 0.001; // seconds
+            public static final double kMaxPrediction = 3.0; // seconds
+        }
+
+        public static final class ShotRecoveryK {
+            /** Stator current rise within one fast loop tick that counts as a note hitting the wheels */
+            public static final double kCurrentJump = 20; // amps
+            /** Extra voltage on top of the controller output right after a shot */
+            public static final double kBoostVolts = 2.0;
+            public static final double kBoostDuration = 0.1; // seconds
+            /** A second detection (e.g. the current spike after the beam break) within this is the same shot */
+            public static final double kShotLockout = 0.3; // seconds
+            /** How many shots the recovery time stats are over */
+            public static final int kRecoveryWindow = 10;
+        }
+
+        /** How many shots the ShotCoordinator's predicted vs actual ready time stats are over */
+        public static final int kReadyReportWindow = 10;
     }
 
     public static class AimK {
@@ -308,8 +403,8 @@ public class Constants {
                 motorConfig.Feedback = motorConfig.Feedback
                     .withFeedbackSensorSource(FeedbackSensorSourceValue.FusedCANcoder)
                     .withFeedbackRemoteSensorID(15)
-                    .withRotorToSensorRatio(kGearRatio / 1.69) // ?
-                    .withSensorToMechanismRatio(1.69 / 1.0);
+                    .withRotorToSensorRatio(kGearRatio / kCancoderToMechanism) // ?
+                    .withSensorToMechanismRatio(kCancoderToMechanism);
 
                 motorConfig.MotorOutput = motorConfig.MotorOutput
                     .withNeutralMode(NeutralModeValue.Brake)
@@ -350,6 +445,11 @@ public class Constants {
         // 5 * 5 * 4 : 1 gearbox, 24:61 belt drive, 254.167 : 1 total
         // omg! poofs number!
         public static final double kGearRatio = ((5.0 * 5.0 * 4.0) * (61.0 / 24.0));
+        public static final double kCancoderToMechanism = 1.69;
+        public static final double kMoi = 0.761; // kg m^2
+        public static final Measure<Distance> kSimArmLength = Inches.of(19.75);
+        /** Angle of the shooter above horizontal when the arm is on the hard stop */
+        public static final Measure<Angle> kHomeOffset = Degrees.of(28);
 
         public static final Measure<Distance> kLength = Inches.of(18);
         // asin((22 - kHeightTilShooter) / kLength)
@@ -366,7 +466,38 @@ public class Constants {
         public static final Measure<Angle> kClimbingAngle = Degrees.of(50);
 
         public static final Measure<Angle> kTolerance = Degrees.of(2);
+        /** Aim only resends its Motion Magic request when the gravity feedforward moved more than this */
+        public static final double kFeedforwardResendThreshold = 0.01; // volts
         public static final double kPreloadTolerance = 0.25;
+
+        /* AimStateEstimator, std devs in radians, rad/s and volts */
+        public static final double kEstimatorAngleStdDev = 0.005;
+        public static final double kEstimatorVelocityStdDev = 0.5;
+        public static final double kEstimatorLoadStdDev = 0.5;
+        public static final double kCancoderStdDev = 0.002;
+        public static final double kRotorStdDev = 0.004; // finer than the CANcoder but sees the belt stretch
+        /** CANcoder and rotor disagreeing by more than this for kSlipDebounce means the belt skipped */
+        public static final Measure<Angle> kSlipThreshold = Degrees.of(1.5);
+        public static final double kSlipDebounce = 0.1;
+
+        /* settle time test */
+        public static final Measure<Angle> kSettleTolerance = Degrees.of(0.5);
+        /** Has to stay within kSettleTolerance this long to count as settled */
+        public static final double kSettleHoldTime = 0.25; // seconds
+        public static final double kSettleTimeout = 3.0; // seconds
+
+        public static final class AimSimK {
+            public static final double kSimPeriod = 0.001; // seconds
+            /** Rotor, gearbox and drive pulley, seen from the arm side of the belt */
+            public static final double kDriveMoi = 0.5; // kg m^2
+            public static final double kBeltStiffness = 2000; // Nm/rad
+            public static final double kBeltDamping = 20; // Nm/(rad/s)
+            public static final Measure<Angle> kBacklash = Degrees.of(0.5);
+            public static final double kCoulombFriction = 1.5; // Nm, at the pivot
+            public static final double kViscousFriction = 0.5; // Nm/(rad/s), at the pivot
+            /** Arm velocity below which static friction can hold it */
+            public static final double kStictionVelocity = 0.01; // rad/s
+        }
     }
 
     public class ClimberK {
@@ -385,6 +516,25 @@ public class Constants {
         public static final boolean kTestMode = false;
         public static final double kSimInterval = 0.020;
 
+        /* LoopScheduler rates */
+        public static final double kFastLoopPeriod = 0.00125;
+        public static final double kVisionPeriod = 0.02;
+        public static final double kTelemetryPeriod = 0.02;
+        public static final double kSchedulerStatsPeriod = 0.1;
+        /** How late a base tick can start before LOW priority (logging) tasks get deferred */
+        public static final double kSchedulerLateThreshold = 0.0005;
+        /**
+         * Sample the superstructure sensors on their own Notifier thread at RT priority instead of on the main loop,
+         * the state machine itself still runs on the main thread
+         */
+        public static final boolean kSensorsOnOwnThread = true;
+        public static final int kSensorThreadPriority = 40;
+        /** The vision thread stays non-RT so it can never hold off the control loops */
+        public static final int kVisionThreadPriority = 0;
+        public static final double kCanLoadLogPeriod = 0.5;
+        /** How often the hoot/wpilog sync marker is written, see TelemetryRouter */
+        public static final double kLogSyncPeriod = 1.0;
+
         public static final boolean kStopCoast = false;
     }
 }
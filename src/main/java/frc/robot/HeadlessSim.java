@@ -0,0 +1,183 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import frc.robot.auton.AutonChooser;
+import frc.robot.auton.AutonChooser.AutonOption;
+
+/**
+ * Runs the robot in simulation without the GUI or driver station, on stepped instead of wall-clock time.
+ * <p>
+ * HAL time is paused and stepped one robot loop at a time, every Notifier due in that step (the LoopScheduler tasks,
+ * AimSim, the swerve sim thread) runs before the next step, so a run goes as fast as the CPU allows and always sees the
+ * same timeline. The robot is driven through a script of modes instead of a driver station. {@code drive} is teleop
+ * with the driver's sticks scripted, see {@link #setDriverSticks}, everything else leaves the controllers centered.
+ * <p>
+ * The Phoenix devices still run their firmware loops on wall-clock time, so the faster this goes the coarser their
+ * closed loop control gets compared to the sim. Fine for checking command logic and timing of autons, not for tuning.
+ * <p>
+ * Configured through environment variables, which {@code ./gradlew simulateJava -Pheadless} sets:
+ * <ul>
+ * <li>{@value #kEnvVar}: the script, e.g. {@code disabled:0.5,auto:15,drive:5}. Empty runs {@value #kDefaultScript}</li>
+ * <li>{@value #kAutonEnvVar}: the {@link AutonOption} to run, otherwise whatever the chooser defaults to</li>
+ * <li>{@value #kAllianceEnvVar}: the {@link AllianceStationID}, e.g. Red1. Defaults to Blue1</li>
+ * </ul>
+ * The result line includes the bytes robotPeriodic allocated per loop over its last few seconds, and the most any
+ * single LoopScheduler task run allocated, so {@code disabled:0.5,drive:10} doubles as the check that teleop driving
+ * makes no garbage. The per task numbers are in the scheduler report printed when the robot disables at the end.
+ */
+public final class HeadlessSim {
+    private HeadlessSim() {}
+
+    public static final String kEnvVar = "HEADLESS_SIM";
+    public static final String kAutonEnvVar = "HEADLESS_AUTON";
+    public static final String kAllianceEnvVar = "HEADLESS_ALLIANCE";
+    public static final String kDefaultScript = "disabled:0.5,auto:15";
+    /** Starts the line with the run's results, {@code key=value} pairs separated by spaces */
+    public static final String kResultPrefix = "[HEADLESS-RESULT] ";
+
+    private static final double kStep = 0.02; // seconds, one robot loop
+    // seconds per lap of the scripted driving circle, and per sweep of the turning stick
+    private static final double kDriveLapPeriod = 4;
+    private static final double kTurnPeriod = 3;
+
+    public enum Mode {
+        DISABLED, AUTO, TELEOP, DRIVE
+    }
+
+    public record Phase(Mode mode, double seconds) {}
+
+    /** @return Whether Main should start the robot through {@link #run} */
+    public static boolean isRequested() {
+        return System.getenv(kEnvVar) != null;
+    }
+
+    /** @param script - Comma separated mode:seconds, e.g. {@code auto:15,teleop:5} */
+    public static List<Phase> parseScript(String script) {
+        var phases = new ArrayList<Phase>();
+        for (var part : script.split(",")) {
+            var fields = part.trim().split(":");
+            if (fields.length != 2) {
+                throw new IllegalArgumentException("[HEADLESS] bad script step '" + part + "', want mode:seconds");
+            }
+            phases.add(new Phase(Mode.valueOf(fields[0].trim().toUpperCase()), Double.parseDouble(fields[1].trim())));
+        }
+        return phases;
+    }
+
+    /**
+     * Drives in a circle while sweeping the turn stick, and holds left trigger (face the amp) for the second half of
+     * the phase, so both the plain field centric request and the heading controlled one get run
+     * @param t - Seconds into the phase
+     */
+    private static void setDriverSticks(XboxControllerSim driver, double t, double phaseSeconds) {
+        double lap = 2 * Math.PI * t / kDriveLapPeriod;
+        driver.setLeftX(0.8 * Math.cos(lap));
+        driver.setLeftY(0.8 * Math.sin(lap));
+        driver.setRightX(0.5 * Math.sin(2 * Math.PI * t / kTurnPeriod));
+        driver.setLeftTriggerAxis(t >= phaseSeconds / 2 ? 1 : 0);
+        driver.notifyNewData();
+    }
+
+    private static void centerDriverSticks(XboxControllerSim driver) {
+        driver.setLeftX(0);
+        driver.setLeftY(0);
+        driver.setRightX(0);
+        driver.setLeftTriggerAxis(0);
+        driver.notifyNewData();
+    }
+
+    /** @return The process exit code */
+    public static int run() {
+        var script = System.getenv(kEnvVar);
+        var phases = parseScript(script == null || script.isBlank() ? kDefaultScript : script);
+        var auton = System.getenv(kAutonEnvVar);
+        var alliance = System.getenv(kAllianceEnvVar);
+
+        if (!HAL.initialize(500, 0)) {
+            System.err.println("[HEADLESS] Failed to initialize the HAL");
+            return 1;
+        }
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAllianceStationId(
+            alliance == null ? AllianceStationID.Blue1 : AllianceStationID.valueOf(alliance));
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+        // same port as Robot's driver controller
+        var driver = new XboxControllerSim(0);
+        centerDriverSticks(driver);
+
+        if (auton != null) {
+            AutonChooser.setOverride(AutonOption.valueOf(auton));
+        }
+
+        var robot = new Robot();
+        var robotThread = new Thread(robot::startCompetition, "HeadlessRobot");
+        robotThread.setDaemon(true);
+        robotThread.start();
+        SimHooks.waitForProgramStart();
+
+        long wallStart = System.nanoTime();
+        double simTime = 0;
+        double stepWallSum = 0;
+        double stepWallMax = 0;
+        int stepCount = 0;
+        for (var phase : phases) {
+            DriverStationSim.setAutonomous(phase.mode() == Mode.AUTO);
+            DriverStationSim.setEnabled(phase.mode() != Mode.DISABLED);
+            DriverStationSim.notifyNewData();
+
+            int steps = (int) Math.round(phase.seconds() / kStep);
+            for (int i = 0; i < steps; i++) {
+                DriverStationSim.setMatchTime(phase.seconds() - i * kStep);
+                if (phase.mode() == Mode.DRIVE) {
+                    setDriverSticks(driver, i * kStep, phase.seconds());
+                }
+                long stepStart = System.nanoTime();
+                SimHooks.stepTiming(kStep);
+                // HAL time stands still while a step runs, so loop costs can only be seen on the wall clock
+                double stepWall = (System.nanoTime() - stepStart) / 1e6;
+                stepWallSum += stepWall;
+                stepWallMax = Math.max(stepWallMax, stepWall);
+                stepCount++;
+            }
+            simTime += steps * kStep;
+            centerDriverSticks(driver);
+        }
+
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+        SimHooks.stepTiming(kStep);
+        double wallTime = (System.nanoTime() - wallStart) / 1e9;
+        System.out.println("[HEADLESS] Simulated " + simTime + " s in " + wallTime + " s ("
+            + Math.round(simTime / wallTime * 10) / 10.0 + "x)");
+        System.out.println(kResultPrefix
+            + "auton=" + AutonChooser.getSelected().name()
+            + " alliance=" + (alliance == null ? AllianceStationID.Blue1.name() : alliance)
+            + " " + robot.getAutonRecorder().toResultString()
+            + " stepMsMean=" + (stepCount == 0 ? 0 : stepWallSum / stepCount)
+            + " stepMsMax=" + stepWallMax
+            + " allocBytesMean=" + robot.getLoopAllocProbe().getStats().getMean()
+            + " allocBytesMax=" + robot.getLoopAllocProbe().getStats().getMax()
+            + " taskAllocBytesMax=" + maxTaskAllocBytes(robot)
+            + " wallTime=" + wallTime);
+
+        robot.endCompetition();
+        return 0;
+    }
+
+    private static double maxTaskAllocBytes(Robot robot) {
+        double max = 0;
+        for (var task : robot.getScheduler().getTasks()) {
+            max = Math.max(max, task.alloc.getStats().getMax());
+        }
+        return max;
+    }
+}
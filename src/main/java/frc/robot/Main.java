@@ -5,12 +5,19 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.auton.AutonSweep;
 
 public final class Main {
 	private Main() {
 	}
 
 	public static void main(String... args) {
+		if (AutonSweep.isRequested()) {
+			System.exit(AutonSweep.run());
+		}
+		if (HeadlessSim.isRequested()) {
+			System.exit(HeadlessSim.run());
+		}
 		RobotBase.startRobot(Robot::new);
 	}
 }
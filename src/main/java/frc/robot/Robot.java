@@ -9,11 +9,9 @@ import static edu.wpi.first.units.Units.Inches;
 
 import org.photonvision.PhotonCamera;
 
-import com.choreo.lib.ChoreoTrajectory;
 import com.ctre.phoenix6.SignalLogger;
 import com.ctre.phoenix6.Utils;
 import com.ctre.phoenix6.mechanisms.swerve.SwerveModule.DriveRequestType;
-import com.pathplanner.lib.commands.FollowPathCommand;
 import com.ctre.phoenix6.mechanisms.swerve.SwerveRequest;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -24,7 +22,6 @@ import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.PowerDistribution;
 import edu.wpi.first.wpilibj.TimedRobot;
-import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
@@ -32,23 +29,40 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import edu.wpi.first.wpilibj2.command.button.RobotModeTriggers;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
 import frc.robot.Constants.AimK;
 import frc.robot.Constants.FieldK;
 import frc.robot.Constants.FieldK.SpeakerK;
+import frc.robot.Constants.ShooterK.FlywheelControlK;
 import frc.robot.auton.AutonChooser;
 import frc.robot.auton.AutonFactory;
+import frc.robot.auton.AutonInterpreter;
+import frc.robot.auton.AutonRecorder;
+import frc.robot.auton.AutonWarmup;
+import frc.robot.auton.PathGenerator;
+import frc.robot.auton.PathGenerator.FieldTarget;
 import frc.robot.auton.AutonChooser.AutonOption;
+import frc.robot.Vision.VisMeas3dEx;
 import frc.robot.auton.Trajectories;
+import frc.robot.auton.TrajectoryCache;
 import frc.robot.generated.TunerConstants;
 import frc.robot.subsystems.Swerve;
 import frc.robot.subsystems.shooter.Aim;
 import frc.robot.subsystems.shooter.Conveyor;
 import frc.robot.subsystems.shooter.Shooter;
+import frc.robot.subsystems.shooter.ShotCoordinator;
 import frc.robot.subsystems.shooter.Trap;
 import frc.util.AllianceFlipUtil;
+import frc.util.AllocationProbe;
+import frc.util.CanRateManager;
+import frc.util.CanRateProfile.Mode;
+import frc.util.LoopScheduler;
+import frc.util.LoopScheduler.Priority;
+import frc.util.SignalRegistry;
 import frc.util.WaltRangeChecker;
+import frc.util.logging.TelemetryRouter;
 import frc.util.logging.WaltLogger;
 import frc.util.logging.WaltLogger.BooleanLogger;
 import frc.util.logging.WaltLogger.DoubleLogger;
@@ -59,13 +73,24 @@ import frc.robot.subsystems.Superstructure;
 import static frc.robot.Constants.AimK.kAmpAngle;
 import static frc.robot.Constants.AimK.kClimbAngle;
 import static frc.robot.Constants.AimK.kClimbingAngle;
+import static frc.robot.Constants.AimK.kPodiumAngle;
 import static frc.robot.Constants.AimK.kSubwooferAngle;
 import static frc.robot.Constants.AimK.kTrapAngle;
 import static frc.robot.Constants.RobotK.*;
+import static frc.robot.Constants.RotationsPerMinute;
+import static frc.robot.Constants.ShooterK.kPodiumRpm;
+import static frc.robot.Constants.ShooterK.kSpeakerSpinAmt;
+import static frc.robot.Constants.ShooterK.kSubwooferRpm;
 
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 public class Robot extends TimedRobot {
+	static {
+		// parse the autons on other threads while the subsystems get constructed
+		TrajectoryCache.preload();
+	}
+
 	/** 5.21 meters per second desired top speed */
 	public static final double kMaxSpeed = 5;
 	/** 1.5 of a rotation per second max angular velocity */
@@ -95,8 +120,11 @@ public class Robot extends TimedRobot {
 		aim, intake, conveyor, shooter, vision,
 		manipulator.leftTrigger(), driver.rightTrigger(), manipulator.leftBumper().and(driver.rightTrigger()), trapTrg.or(manipulator.a()),
 		(intensity) -> driverRumble(intensity), (intensity) -> manipulatorRumble(intensity));
+	private final ShotCoordinator shotCoordinator = superstructure.getShotCoordinator();
 
 	public static final Field2d field2d = new Field2d();
+	private AutonOption shownTrajAuton = null;
+	private boolean shownTrajRed = false;
 
 	private final SwerveRequest.FieldCentric drive = new SwerveRequest.FieldCentric()
 		.withDeadband(kMaxSpeed * 0.1) // Add a 5% deadband
@@ -107,8 +135,15 @@ public class Robot extends TimedRobot {
 	private final Telemetry logger = new Telemetry(kMaxSpeed);
 
 	private final BooleanLogger log_frontCamEstPresent = WaltLogger.logBoolean("Swerve", "frontCamEstPresent");
+	// written by the vision thread, taken by the main loop
+	private final AtomicReference<VisMeas3dEx> frontCamEstMailbox = new AtomicReference<>();
 
 	private Command m_autonomousCommand;
+	private final AutonRecorder autonRecorder = new AutonRecorder(shooter::getShotCount, swerve::getPose);
+	// a steady loop should allocate nothing, see HeadlessSim for running it without the GUI in the way
+	private final AllocationProbe loopAllocProbe = new AllocationProbe("RobotLoop", 250);
+
+	private final LoopScheduler scheduler = new LoopScheduler(kFastLoopPeriod, kSchedulerLateThreshold);
 
 	public Robot() {
 		DriverStation.silenceJoystickConnectionWarning(true);
@@ -117,22 +152,76 @@ public class Robot extends TimedRobot {
 		if (Robot.isSimulation()) {
 			DriverStation.silenceJoystickConnectionWarning(true);
 		}
-		addPeriodic(() -> {
-			var frontCamEstOpt = vision.getFrontCamPoseEst();
-			boolean frontCamTagsPresent = frontCamEstOpt.hasTarget();
-			boolean frontCamEstPresent = frontCamEstOpt.measOpt().isPresent();
-			log_frontCamEstPresent.accept(frontCamEstPresent);
-			swerve.calculateYawErr(frontCamEstOpt.measOpt(), frontCamTagsPresent);
-			if (frontCamEstPresent) {
-				var frontEst = frontCamEstOpt.measOpt().get();
-				aim.calculatePitchToSpeaker(frontEst);
-				// swerve.addVisionMeasurement(frontEst.estimate().estimatedPose.toPose2d(), frontEst.estimate().timestampSeconds);
-			};
-		}, 0.02);
 		miniPcPower = pdp.getCurrent(17) * pdp.getVoltage();
 		WaltRangeChecker.addDoubleChecker("MiniPc", () -> miniPcPower, 10, 70, 1, false);
 	}
 
+	/** Vision thread half, the PhotonVision fetch and pose estimate. Hands the result to {@link #visionPeriodic()} */
+	private void visionSample() {
+		frontCamEstMailbox.set(vision.getFrontCamPoseEst());
+	}
+
+	/** Main thread half, feeds the latest estimate (if there's a new one) to the swerve and aim */
+	private void visionPeriodic() {
+		var frontCamEstOpt = frontCamEstMailbox.getAndSet(null);
+		if (frontCamEstOpt == null) return;
+		boolean frontCamTagsPresent = frontCamEstOpt.hasTarget();
+		boolean frontCamEstPresent = frontCamEstOpt.measOpt().isPresent();
+		log_frontCamEstPresent.accept(frontCamEstPresent);
+		swerve.calculateYawErr(frontCamEstOpt.measOpt(), frontCamTagsPresent);
+		if (frontCamEstPresent) {
+			var frontEst = frontCamEstOpt.measOpt().get();
+			aim.calculatePitchToSpeaker(
+				swerve.compensateLatency(frontEst.estimate().estimatedPose, frontEst.estimate().timestampSeconds));
+			// swerve.addVisionMeasurement(frontEst.estimate().estimatedPose.toPose2d(), frontEst.estimate().timestampSeconds);
+		};
+	}
+
+	private void telemetryPeriodic() {
+		swerve.logModulePositions();
+		miniPcPower = pdp.getCurrent(17) * pdp.getVoltage();
+		log_miniPcPower.accept(miniPcPower);
+		log_powerAbove10.accept(miniPcPower > 10);
+	}
+
+	/**
+	 * Everything that isn't the CommandScheduler goes through the LoopScheduler instead of its own addPeriodic(),
+	 * so it gets timing stats and the logging can be deferred when the loop runs late.
+	 */
+	private void configureLoops() {
+		if (kSensorsOnOwnThread) {
+			superstructure.runSensorsOnOwnThread();
+			scheduler.addThreadedTask("SuperstructureSensors", superstructure::sampleSensors,
+				kFastLoopPeriod, kSensorThreadPriority);
+		}
+		scheduler.addTask("SuperstructureFast", superstructure::fastPeriodic, kFastLoopPeriod, Priority.CRITICAL);
+		scheduler.addTask("ShooterFlywheel", shooter::fastPeriodic, FlywheelControlK.kLoopPeriod, Priority.CRITICAL);
+		// the estimate is too slow to share a thread with the CRITICAL tasks, only the cheap consumer stays here
+		scheduler.addThreadedTask("VisionSample", this::visionSample, kVisionPeriod, kVisionThreadPriority);
+		scheduler.addTask("Vision", this::visionPeriodic, kVisionPeriod, Priority.NORMAL);
+		scheduler.addTask("Telemetry", this::telemetryPeriodic, kTelemetryPeriod, Priority.LOW);
+		scheduler.addTask("SchedulerStats", scheduler::logStats, kSchedulerStatsPeriod, Priority.LOW);
+		scheduler.addTask("CanBusLoad", CanRateManager::logBusLoad, kCanLoadLogPeriod, Priority.LOW);
+		scheduler.addTask("LogSync", TelemetryRouter::writeSyncMarker, kLogSyncPeriod, Priority.LOW);
+		addPeriodic(scheduler::run, scheduler.getBasePeriod());
+	}
+
+	/**
+	 * Every subsystem registers its CAN signal rates in its constructor, this applies them and
+	 * switches them whenever the robot mode changes.
+	 */
+	private void configureCanRates() {
+		CanRateManager.apply(Mode.DISABLED);
+		System.out.print(CanRateManager.report());
+
+		RobotModeTriggers.disabled().onTrue(
+			Commands.runOnce(() -> CanRateManager.apply(Mode.DISABLED)).ignoringDisable(true));
+		RobotModeTriggers.autonomous().onTrue(
+			Commands.runOnce(() -> CanRateManager.apply(Mode.AUTO)).ignoringDisable(true));
+		RobotModeTriggers.teleop().or(RobotModeTriggers.test()).onTrue(
+			Commands.runOnce(() -> CanRateManager.apply(Mode.TELEOP)).ignoringDisable(true));
+	}
+
 	private void mapAutonCommands() {
 		AutonChooser.setDefaultAuton(AutonOption.DO_NOTHING);
 		AutonChooser.assignAutonCommand(AutonOption.DO_NOTHING, Commands.none());
@@ -145,8 +234,6 @@ public class Robot extends TimedRobot {
 			Trajectories.ampSide.getInitialPose());
 		AutonChooser.assignAutonCommand(AutonOption.AMP_FIVE, AutonFactory.ampFive(superstructure, shooter, swerve, aim), 
 			Trajectories.ampSide.getInitialPose());
-		AutonChooser.assignAutonCommand(AutonOption.SOURCE_TWO, AutonFactory.sourceTwo(superstructure, shooter, swerve, aim),
-			Trajectories.sourceSide.getInitialPose());
 		AutonChooser.assignAutonCommand(AutonOption.SOURCE_THREE, AutonFactory.sourceThree(superstructure, shooter, swerve, aim),
 			Trajectories.sourceSide.getInitialPose());
 		AutonChooser.assignAutonCommand(AutonOption.SOURCE_THREE_POINT_FIVE, AutonFactory.sourceThreePointFive(superstructure, shooter, swerve, aim),
@@ -155,12 +242,13 @@ public class Robot extends TimedRobot {
 			Trajectories.sourceSide.getInitialPose());
 		AutonChooser.assignAutonCommand(AutonOption.VERY_AMP_THREE_POINT_FIVE, AutonFactory.veryAmpThreePointFive(superstructure, shooter, swerve, aim),
 			Trajectories.sourceSide.getInitialPose());
-		AutonChooser.assignAutonCommand(AutonOption.G28_COUNTER, AutonFactory.g28Counter(superstructure, shooter, swerve, aim),
-			Trajectories.g28Counter.getInitialPose());
 		AutonChooser.assignAutonCommand(AutonOption.SILLY_AMP_FIVE, AutonFactory.sillyFive(superstructure, shooter, swerve, aim),
 			Trajectories.ampSide.getInitialPose());
-		AutonChooser.assignAutonCommand(AutonOption.MADTOWN, AutonFactory.madtown(superstructure, shooter, swerve, aim),
-			Trajectories.sourceSide.getInitialPose());
+		// the ones in the deploy directory win over the Java versions, source two, g28 counter and madtown are only there
+		for (var loaded : AutonInterpreter.loadAll(superstructure, shooter, swerve, aim)) {
+			AutonChooser.assignAutonCommand(loaded.option(), loaded.command(),
+				AutonChooser.getAutonInitPose(loaded.option()).orElseGet(() -> loaded.option().m_traj.getInitialPose()));
+		}
 	}
 
 	private void driverRumble(double intensity) {
@@ -213,14 +301,23 @@ public class Robot extends TimedRobot {
 		driver.leftTrigger().whileTrue(swerve.faceAmp(() -> -driver.getLeftY(), () -> -driver.getLeftX(), kMaxSpeed));
 		driver.start().whileTrue(swerve.faceAmpUnderDefence(() -> -driver.getLeftY(), () -> -driver.getLeftX(), kMaxSpeed));
 
+		// drive to the amp/subwoofer around the stage, hold to keep going
+		driver.povRight().whileTrue(PathGenerator.goTo(swerve, FieldTarget.AMP));
+		driver.povLeft().whileTrue(PathGenerator.goTo(swerve, FieldTarget.SUBWOOFER));
+
 		/* manipulator controls */
 		// eject note
 		manipulator.rightTrigger().whileTrue(intake.outtake());
 
 		manipulator.x().and((manipulator.rightBumper().or(manipulator.povUp())).negate()).onTrue(aim.hardStop());
 
-		// subwoofer shot prep
-		manipulator.rightBumper().whileTrue(shooter.subwoofer());
+		// subwoofer shot prep, aim and spin up together
+		manipulator.rightBumper()
+			.whileTrue(shotCoordinator.prepare(kSubwooferAngle, RotationsPerMinute.of(kSubwooferRpm), kSpeakerSpinAmt));
+
+		// podium shot prep, aim and spin up together
+		manipulator.povRight().and(manipulator.a().negate())
+			.whileTrue(shotCoordinator.prepare(kPodiumAngle, RotationsPerMinute.of(kPodiumRpm), kSpeakerSpinAmt));
 
 		// amp shot prep
 		manipulator.leftBumper().and(manipulator.a().negate()).whileTrue(superstructure.ampShot(kAmpAngle));
@@ -235,9 +332,6 @@ public class Robot extends TimedRobot {
 		// aim safe angle
 		// manipulator.x().and(manipulator.rightBumper().negate()).and(manipulator.a().negate()).onTrue(aim.hardStop());
 
-		// subwoofer if vision breaky
-		manipulator.x().and(manipulator.rightBumper()).onTrue(aim.toAngleUntilAt(kSubwooferAngle));
-
 		// aim rezero
 		manipulator.b().and(manipulator.povDown()).and(manipulator.x()).onTrue(aim.rezero());
 
@@ -306,9 +400,8 @@ public class Robot extends TimedRobot {
 
 	@Override
 	public void robotInit() {
-		addPeriodic(() -> {
-			superstructure.fastPeriodic();
-		}, 0.00125);
+		configureLoops();
+		configureCanRates();
 		SmartDashboard.putData(field2d);
 		WaltLogger.logPose3d("FieldPoses", "shotLocation").accept(
 			Vision.getMiddleSpeakerTagPose().transformBy(AimK.kTagToSpeaker));
@@ -325,21 +418,40 @@ public class Robot extends TimedRobot {
 		if (kTestMode) {
 			swerve.setTestMode();
 		}
-		FollowPathCommand.warmupCommand();
+		// the trigger only sees the next time the robot is disabled, and it's disabled already
+		var autonWarmup = new AutonWarmup(AutonChooser::getSelected);
+		RobotModeTriggers.disabled().whileTrue(autonWarmup);
+		autonWarmup.schedule();
 	}
 
 	@Override
 	public void robotPeriodic() {
+		// only this method's work, the scheduler tasks on this thread have their own probes
+		loopAllocProbe.begin();
+		// one batched refresh per CAN bus, everything after this reads cached values
+		SignalRegistry.refreshAll();
 		CommandScheduler.getInstance().run();
-		swerve.logModulePositions();
-		miniPcPower = pdp.getCurrent(17) * pdp.getVoltage();
-		log_miniPcPower.accept(miniPcPower);
-		log_powerAbove10.accept(miniPcPower > 10);
+		autonRecorder.update();
+		loopAllocProbe.end();
+		loopAllocProbe.log();
+	}
+
+	public AutonRecorder getAutonRecorder() {
+		return autonRecorder;
+	}
+
+	public AllocationProbe getLoopAllocProbe() {
+		return loopAllocProbe;
+	}
+
+	public LoopScheduler getScheduler() {
+		return scheduler;
 	}
 
 	@Override
 	public void disabledInit() {
 		SignalLogger.stop();
+		System.out.print(scheduler.report());
 	}
 
 	@Override
@@ -353,9 +465,11 @@ public class Robot extends TimedRobot {
 	@Override
 	public void autonomousInit() {
 		SignalLogger.start();
+		scheduler.resetMaxes();
 		m_autonomousCommand = getAutonomousCommand();
 		if (m_autonomousCommand != null) {
 			m_autonomousCommand.schedule();
+			autonRecorder.start(m_autonomousCommand);
 		}
 		superstructure.m_autonTimer.restart();
 		superstructure.shotNumber = 0;
@@ -372,6 +486,8 @@ public class Robot extends TimedRobot {
 	@Override
 	public void teleopInit() {
 		SignalLogger.start();
+		scheduler.resetMaxes();
+		loopAllocProbe.reset();
 
 		if (m_autonomousCommand != null) {
 			m_autonomousCommand.cancel();
@@ -408,19 +524,19 @@ public class Robot extends TimedRobot {
 	}
 
 	private void getTrajLines() {
-		var traj = AutonChooser.getChosenTrajectory();
-		var alliance = DriverStation.getAlliance();
-		ChoreoTrajectory realTraj;
-		if (alliance.isPresent() && alliance.get().equals(Alliance.Red)) {
-			realTraj = traj.flipped();
-		} else {
-			realTraj = traj;
+		var selected = AutonChooser.getSelected();
+		boolean isRed = AllianceFlipUtil.shouldFlip();
+		// only redraw when the pick or the alliance changes, the poses themselves come cached
+		if (selected == null || (selected == shownTrajAuton && isRed == shownTrajRed)) {
+			return;
 		}
-		field2d.getObject("trajectory").setPoses(realTraj.getPoses());
+		shownTrajAuton = selected;
+		shownTrajRed = isRed;
+		field2d.getObject("trajectory").setPoses(TrajectoryCache.getPoses(selected.m_traj, isRed));
 	}
 
 	private void simulateAim() {
-		var drivePose = swerve.getState().Pose;
+		var drivePose = swerve.getPose();
 		var y = Inches.of(Math.sin(drivePose.getRotation().getRadians()));
 		var speakerPose2d = AllianceFlipUtil.apply(SpeakerK.kBlueCenterOpeningPose3d.toPose2d());
 		var endPose = drivePose
@@ -30,7 +30,7 @@ public class AutonChooser {
         VERY_AMP_THREE_POINT_FIVE("3.5 - amp side", Trajectories.veryAmp),
         G28_COUNTER("3 - g28 counter", Trajectories.g28Counter),
         SILLY_AMP_FIVE("5 - five that skips a note maybe", Trajectories.ampSide),
-        MADTOWN("2 - madtown", Trajectories.sourceSide);
+        MADTOWN("2 - madtown", Trajectories.madtown);
 
         public final String m_description;
         public final ChoreoTrajectory m_traj;
@@ -53,6 +53,7 @@ public class AutonChooser {
     private static EnumMap<AutonOption, Command> autonChooserMap = new EnumMap<>(AutonOption.class);
     private static EnumMap<AutonOption, Optional<Pose2d>> autonInitPoseMap = new EnumMap<>(AutonOption.class);
     private static final SendableChooser<AutonOption> autonNTChooser = new SendableChooser<AutonOption>();
+    private static AutonOption autonOverride = null;
 
     static {
         SmartDashboard.putData("AutonChooser", autonNTChooser);
@@ -87,6 +88,21 @@ public class AutonChooser {
         autonNTChooser.setDefaultOption(auton.m_description, auton);
     }
 
+    /**
+     * Makes the chosen auton this one no matter what the dashboard says, for running without a dashboard
+     * @param auton The auton to use, or null to go back to the dashboard
+     */
+    public static void setOverride(AutonOption auton) {
+        autonOverride = auton;
+    }
+
+    /**
+     * @return The overridden auton if there is one, otherwise the one picked on the dashboard
+     */
+    public static AutonOption getSelected() {
+        return autonOverride != null ? autonOverride : autonNTChooser.getSelected();
+    }
+
     /**
      * @param auton The AutonOption that you would like to get the corresponding Command for
      * @return The Command that corresponds to the given AutonOption if one has been mapped - otherwise returns a Command that simply prints <i>"warning: empty auton!"</i>
@@ -117,14 +133,14 @@ public class AutonChooser {
      * @return The Command mapped to the chosen AutonOption
      */
     public static Command getChosenAutonCmd() {
-        return getAuton(autonNTChooser.getSelected());
+        return getAuton(getSelected());
     }
 
     /**
      * @return The starting Pose2d for the chosen auton
      */
     public static Optional<Pose2d> getChosenAutonInitPose() {
-        var selected = AutonChooser.autonNTChooser.getSelected();
+        var selected = getSelected();
 
         if (selected == null) {
             return Optional.empty();
@@ -137,7 +153,7 @@ public class AutonChooser {
      * @return The ChoreoTrajectory for the chosen auton
      */
     public static ChoreoTrajectory getChosenTrajectory() {
-        var selected = AutonChooser.autonNTChooser.getSelected();
+        var selected = getSelected();
         return selected.m_traj;
     }
 }
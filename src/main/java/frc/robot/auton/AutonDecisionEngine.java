@@ -0,0 +1,104 @@
+package frc.robot.auton;
+
+import static frc.robot.Constants.AutoK.kAutonLengthSecs;
+import static frc.robot.Constants.AutoK.kAutonShotSecs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.util.logging.WaltLogger;
+import frc.util.logging.WaltLogger.DoubleLogger;
+import frc.util.logging.WaltLogger.StringLogger;
+
+/**
+ * Picks one of several prebuilt auton branches the moment it's reached, e.g. skipping to the next centerline note when
+ * the intake came up empty.
+ * <p>
+ * Every branch is built, with its paths preloaded, along with the rest of the auton. Deciding is just checking each
+ * branch's condition and whether its time estimate still fits in what's left of auton, in the order they were added,
+ * so the chosen branch starts in the same loop. If none of them pass the fallback runs.
+ */
+public class AutonDecisionEngine {
+    private record Branch(String name, BooleanSupplier condition, double estimateSecs, Command command) {}
+
+    private static final int kFallback = -1;
+
+    private final String m_name;
+    private final Timer m_autonTimer;
+    private final List<Branch> m_branches = new ArrayList<>();
+    private String m_fallbackName = "nothing";
+    private Command m_fallback = Commands.none();
+
+    private final StringLogger log_choice;
+    private final DoubleLogger log_timeLeft;
+
+    /** @param autonTimer - Restarted when auton starts, like the Superstructure's */
+    public AutonDecisionEngine(String name, Timer autonTimer) {
+        m_name = name;
+        m_autonTimer = autonTimer;
+        log_choice = WaltLogger.logString("Auton/Decisions", name);
+        log_timeLeft = WaltLogger.logDouble("Auton/Decisions", name + "TimeLeft");
+    }
+
+    /**
+     * @param condition - Checked when the branch point is reached
+     * @param estimateSecs - How long the branch takes, it's skipped if there isn't that much auton left
+     */
+    public AutonDecisionEngine branch(String name, BooleanSupplier condition, double estimateSecs, Command command) {
+        m_branches.add(new Branch(name, condition, estimateSecs, command));
+        return this;
+    }
+
+    /** What runs when no branch fits, nothing by default */
+    public AutonDecisionEngine fallback(String name, Command command) {
+        m_fallbackName = name;
+        m_fallback = command;
+        return this;
+    }
+
+    public Command build() {
+        var commands = new HashMap<Integer, Command>();
+        for (int i = 0; i < m_branches.size(); i++) {
+            commands.put(i, m_branches.get(i).command());
+        }
+        commands.put(kFallback, m_fallback);
+        return Commands.select(commands, this::decide).withName(m_name);
+    }
+
+    private int decide() {
+        double timeLeft = kAutonLengthSecs - m_autonTimer.get();
+        int choice = kFallback;
+        for (int i = 0; i < m_branches.size(); i++) {
+            var branch = m_branches.get(i);
+            if (branch.estimateSecs() <= timeLeft && branch.condition().getAsBoolean()) {
+                choice = i;
+                break;
+            }
+        }
+
+        var choiceName = choice == kFallback ? m_fallbackName : m_branches.get(choice).name();
+        log_choice.accept(choiceName);
+        log_timeLeft.accept(timeLeft);
+        System.out.println("[AUTON] " + m_name + " took " + choiceName + " with " + timeLeft + " s left");
+        return choice;
+    }
+
+    /** @return Seconds to follow these paths back to back and take {@code shots} shots, from the paths' own timing */
+    public static double estimate(int shots, PathPlannerPath... paths) {
+        double secs = shots * kAutonShotSecs;
+        for (var path : paths) {
+            // Choreo paths hand back the trajectory they were loaded with, this doesn't regenerate it
+            secs += path.getTrajectory(new ChassisSpeeds(), new Rotation2d()).getTotalTimeSeconds();
+        }
+        return secs;
+    }
+}
@@ -18,14 +18,16 @@ import frc.robot.subsystems.Superstructure;
 import static edu.wpi.first.units.Units.*;
 import static frc.robot.Constants.RotationsPerMinute;
 import static frc.robot.Constants.AimK.kSubwooferAngle;
+import static frc.robot.Constants.AutoK.*;
 import static frc.robot.Constants.ShooterK.kSubwooferRpm;
 
 import java.util.Set;
 import java.util.function.Supplier;
 
 import static edu.wpi.first.wpilibj2.command.Commands.*;
+import static frc.robot.auton.AutonProfiler.*;
 
-import com.pathplanner.lib.auto.AutoBuilder;
+import frc.robot.auton.AutonProfiler.Kind;
 
 public final class AutonFactory {
 	private static IntLogger log_autonSeqInt = WaltLogger.logInt("Auton", "SequenceNum", PubSubOption.sendAll(true));
@@ -33,7 +35,7 @@ public final class AutonFactory {
 
 	private static Measure<Velocity<Angle>> m_targetVelo = RotationsPerMinute.of(kSubwooferRpm);
 
-	private static Command logSeqIncr() {
+	static Command logSeqIncr() {
 		return runOnce(() -> {
 			log_autonSeqInt.accept(m_seqVal);
 			m_seqVal++;
@@ -68,10 +70,10 @@ public final class AutonFactory {
 		}, Set.of());
 	}
 
-	private static Command preloadShot(Superstructure superstructure, Aim aim) {
-		var aimCmd = aim.toAngleUntilAt(kSubwooferAngle, kSubwooferAngle.times(0.75)).withTimeout(1).asProxy();
+	static Command preloadShot(Superstructure superstructure, Aim aim) {
+		var aimCmd = track("aimCmd", Kind.AIM, superstructure.getShotCoordinator().prepareAim(kSubwooferAngle, kSubwooferAngle.times(0.75)).withTimeout(1).asProxy());
 		var noteReady = superstructure.forceStateToNoteReady();
-		var shoot = superstructure.preloadShootReq();
+		var shoot = track("shoot", Kind.SHOT, superstructure.preloadShootReq());
 
 		return sequence(
 			runOnce(() -> m_shotTimer.restart()),
@@ -82,10 +84,10 @@ public final class AutonFactory {
 					aimCmd.andThen(print("aim done")),
 					race(
 						sequence(
-							waitSeconds(0.15),
+							idleFor(0.15),
 							superstructure.forceStateToShooting()
 						),
-						waitUntil(superstructure.extStateTrg_shooting.or(superstructure.stateTrg_idle))
+						idleUntil("shooting or idle", superstructure.extStateTrg_shooting.or(superstructure.stateTrg_idle))
 					),
 					shoot.andThen(print("shoot done"))
 				)
@@ -94,7 +96,7 @@ public final class AutonFactory {
 		);
 	}
 
-	private static Command theWrapper(Command auton, Shooter shooter) {
+	static Command theWrapper(Command auton, Shooter shooter) {
 		return sequence(
 			runOnce(() -> m_autonTimer.restart()),
 			race(
@@ -106,72 +108,23 @@ public final class AutonFactory {
 		).withName("TheAutonWrapper");
 	}
 
-	public static Command madtown(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
-		var resetPose = swerve.resetPose(Paths.mad1);
-		var pathFollow = AutoBuilder.followPath(Paths.mad1).withName("PathFollow");
-		var preloadShot = preloadShot(superstructure, aim);
-		var intake = superstructure.autonIntakeReq();
-		var aimCmd = aim.toAngleUntilAt(Degrees.of(0)).asProxy(); // superstructure requires Aim so this brokey stuff
-		var pathFollow2 = AutoBuilder.followPath(Paths.mad2);
-		var secondShotReq = superstructure.autonShootReq();
-
-		var auton = sequence(
-			logSeqIncr(),
-			parallel(
-				resetPose,
-				preloadShot
-			),
-			print("resetPose and preloadShot done"),
-			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
-			logSeqIncr(),
-			parallel(
-				print("should be intaking"),
-				sequence(
-					waitSeconds(1.5),
-					intake
-				),
-				pathFollow.andThen(print("path follow finished")),
-				aimCmd.until(superstructure.trg_atAngle)
-			),
-			waitSeconds(5),
-			pathFollow2,
-			print("aim finished, path follow finished, should be shooting"),
-			logSeqIncr(),
-			secondShotReq,
-			race(
-				sequence(
-					waitSeconds(0.5),
-					superstructure.forceStateToShooting()
-				),
-				waitUntil(superstructure.stateTrg_shooting)
-			),
-			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle)
-		).withName("MadtownSequence");
-
-		return theWrapper(auton, shooter);
-	}
-
 	private static Command closeTwoInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var resetPose = swerve.resetPose(Paths.close1);
-		var pathFollow = AutoBuilder.followPath(Paths.close1).withName("PathFollow");
 		var preloadShot = preloadShot(superstructure, aim);
-		var intake = superstructure.autonIntakeReq();
-		var secondShotReq = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var secondShotReq = track("secondShotReq", Kind.SHOT, superstructure.autonShootReq());
+		var pathFollow = followPath(Paths.close1).withName("PathFollow");
 
 		return sequence(
 			parallel(
 				resetPose,
 				preloadShot
 			),
-			parallel(
-				intake,
-				pathFollow
-			),
+			intake,
+			pathFollow,
 			secondShotReq,
 			logTimer("SecondShot", () -> m_shotTimer),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("CloseTwoPcSequence");
 	}
 
@@ -183,19 +136,17 @@ public final class AutonFactory {
 
 	private static Command closeThreeInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var two = closeTwoInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.close2);
-		var intake = superstructure.autonIntakeReq();
-		var thirdShotReq = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var thirdShotReq = track("thirdShotReq", Kind.SHOT, superstructure.autonShootReq());
+		var pathFollow = followPath(Paths.close2);
 
 		return sequence(
 			two,
-			parallel(
-				pathFollow,
-				intake
-			),
+			intake,
+			pathFollow,
 			thirdShotReq,
 			logTimer("ThirdShot", () -> m_shotTimer),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("CloseThreePcSequence");
 	}
 
@@ -207,19 +158,17 @@ public final class AutonFactory {
 
 	private static Command closeFourInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var three = closeThreeInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.close2);
-		var intake = superstructure.autonIntakeReq();
-		var fourthShotReq = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var fourthShotReq = track("fourthShotReq", Kind.SHOT, superstructure.autonShootReq());
+		var pathFollow = followPath(Paths.close2);
 
 		return sequence(
 			three,
-			parallel(
-				pathFollow,
-				intake
-			),
+			intake,
+			pathFollow,
 			fourthShotReq,
 			logTimer("FourthShot", () -> m_shotTimer),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("CloseFourPcSequence");
 	}
 
@@ -237,8 +186,8 @@ public final class AutonFactory {
 
 	public static Command ampPointFive(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var resetPose = swerve.resetPose(Paths.ampSide1);
-		var pathFollow = AutoBuilder.followPath(Paths.ampSide1).withName("PathFollow");
-		var intake = superstructure.autonIntakeReq();
+		var pathFollow = followPath(Paths.ampSide1).withName("PathFollow");
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
 
 		var auton = sequence(
 			resetPose,
@@ -253,10 +202,10 @@ public final class AutonFactory {
 
 	private static Command ampTwoInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var resetPose = swerve.resetPose(Paths.ampSide1);
-		var pathFollow = AutoBuilder.followPath(Paths.ampSide1).withName("PathFollow");
+		var pathFollow = followPath(Paths.ampSide1).withName("PathFollow");
 		var preloadShot = preloadShot(superstructure, aim);
-		var intake = superstructure.straightThroughReq();
-		var aimCmd = aim.toAngleUntilAt(Degrees.of(1.5)).asProxy(); // superstructure requires Aim so this brokey stuff
+		var intake = track("intake", Kind.INTAKE, superstructure.straightThroughReq());
+		var aimCmd = track("aimCmd", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(1.5)).asProxy()); // superstructure requires Aim so this brokey stuff
 
 		return sequence(
 			logSeqIncr(),
@@ -266,7 +215,7 @@ public final class AutonFactory {
 			),
 			print("resetPose and preloadShot done"),
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
+			idleUntil("idle", superstructure.stateTrg_idle),
 			logSeqIncr(),
 			parallel(
 				print("should be intaking"),
@@ -288,9 +237,9 @@ public final class AutonFactory {
 	private static Command ampThreeInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var two = ampTwoInternal(superstructure, shooter, swerve, aim);
 		/* everything from 3 piece */
-		var pathFollow = AutoBuilder.followPath(Paths.ampSide2);
-		var intake = superstructure.straightThroughReq();
-		var aimCmd = aim.toAngleUntilAt(Degrees.of(0)).asProxy();
+		var pathFollow = followPath(Paths.ampSide2);
+		var intake = track("intake", Kind.INTAKE, superstructure.straightThroughReq());
+		var aimCmd = track("aimCmd", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(0)).asProxy());
 		
 		return sequence(
 			/* 2 piece */
@@ -311,37 +260,29 @@ public final class AutonFactory {
 
 	private static Command ampFourInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var three = ampThreeInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.ampSide3);
-		var intake = superstructure.autonIntakeReq();
-		var redAim = aim.toAngleUntilAt(Degrees.of(0)).withTimeout(1).asProxy();
-		var fourthShotReq = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var redAim = track("redAim", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(0)).withTimeout(1).asProxy());
+		var fourthShotReq = track("fourthShotReq", Kind.SHOT, superstructure.autonShootReq());
 		// var swerveAim = swerve.faceSpeakerTagAuton().withTimeout(0.5);
+		var pathFollow = TrajectoryEvents.along(Paths.ampSide3, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.beforeEnd(kAimLeadDistance, redAim)
+			.follow(followPath(Paths.ampSide3));
 
-		return sequence( // 3pc then (path and (wait then intake))
+		return sequence( // 3pc then path, intaking and aiming on the way in, then shoot
 			print("three"),
 			three,
 			runOnce(() -> {
 				m_targetVelo = RotationsPerMinute.of(6000);
 			}),
 			print("waiting for idle"),
-			waitUntil(superstructure.stateTrg_idle),
-			parallel( // path and (wait then intake) 
-				sequence( // wait then intake
-					waitSeconds(0.8),
-					print("intaking"),
-					intake
-				),
-				print("path following"),
-				pathFollow
-			),
+			idleUntil("idle", superstructure.stateTrg_idle),
+			print("path following"),
+			pathFollow,
 			// swerveAim,
-			parallel(
-				print("aiming and requesting to shoot"),
-				redAim.andThen(print("AIM")),
-				fourthShotReq.andThen(print("foruth sohot request done"))
-			),
+			fourthShotReq,
 			print("waiting for idle"),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		);
 	}
 
@@ -352,35 +293,29 @@ public final class AutonFactory {
 
 	private static Command ampFiveInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var four = ampFourInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.ampSide4);
-		var intake = superstructure.autonIntakeReq();
-		var redAim = aim.toAngleUntilAt(Degrees.of(0)).asProxy();
-		var fifthShotReq = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var redAim = track("redAim", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(0)).asProxy());
+		var fifthShotReq = track("fifthShotReq", Kind.SHOT, superstructure.autonShootReq());
 		var swerveAim = swerve.faceSpeakerTagAuton().withTimeout(0.5);
+		var pathFollow = TrajectoryEvents.along(Paths.ampSide4, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.beforeEnd(kAimLeadDistance, redAim)
+			.follow(followPath(Paths.ampSide4));
 
-		return sequence( // 3pc then (path and (wait then intake))
+		return sequence( // 4pc then path, intaking and aiming on the way in, then face the speaker and shoot
 			four,
-			parallel( // path and (wait then intake) 
-				sequence( // wait then intake
-					waitSeconds(0.8),
-					intake
-				),
-				pathFollow
-			),
+			pathFollow,
 			swerveAim,
-			parallel(
-				redAim,
-				fifthShotReq
-			),
+			fifthShotReq,
 			race(
 				sequence(
-					waitUntil(superstructure.stateTrg_noteReady),
-					waitSeconds(0.5),
+					idleUntil("noteReady", superstructure.stateTrg_noteReady),
+					idleFor(0.5),
 					superstructure.forceStateToShooting()
 				),
-				waitUntil(superstructure.extStateTrg_shooting.or(superstructure.stateTrg_idle))
+				idleUntil("shooting or idle", superstructure.extStateTrg_shooting.or(superstructure.stateTrg_idle))
 			),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		);
 	}
 
@@ -392,36 +327,41 @@ public final class AutonFactory {
 
 	private static Command sillyFiveInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var three = ampThreeInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.ampSideAlt1);
-		var intake = superstructure.autonIntakeReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.ampSideAlt1, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.ampSideAlt1));
 		var resetFlags = runOnce(() -> superstructure.resetAutonFlags());
-		var redAim = aim.toAngleUntilAt(Degrees.of(1)).asProxy();
-		var pathFollow2 = AutoBuilder.followPath(Paths.ampSideAlt5);
-		var intake2 = superstructure.autonIntakeReq();
+		var redAim = track("redAim", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(1)).asProxy());
+		var intake2 = track("intake2", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow2 = TrajectoryEvents.along(Paths.ampSideAlt5, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake2)
+			.follow(followPath(Paths.ampSideAlt5));
+		// every branch is built now so picking one doesn't cost a loop
+		var gotNote = superstructure.irqTrg_frontSensor.or(superstructure::noteReadyOrGreater);
+		var fifthNoteDecision = new AutonDecisionEngine("SillyFiveFifthNote", superstructure.m_autonTimer)
+			.branch("pickUpNext", gotNote,
+				AutonDecisionEngine.estimate(2, Paths.ampSideAlt2, Paths.ampSideAlt3, Paths.ampSideAlt4),
+				dontSkipNote(superstructure, shooter, swerve, aim))
+			.branch("shootHeld", gotNote,
+				AutonDecisionEngine.estimate(1, Paths.ampSideAlt2),
+				shootHeldNote(superstructure))
+			.branch("skip", gotNote.negate(),
+				AutonDecisionEngine.estimate(1, Paths.ampSideSkip1, Paths.ampSideAlt4),
+				skipNote(superstructure, shooter, swerve, aim))
+			// nothing else fits, so at least get back to where ampSideAlt5 starts
+			.fallback("driveBack", followPath(Paths.ampSideAlt2))
+			.build();
 
 		return sequence(
 			three,
 			parallel(
 				redAim,
-				sequence(
-					waitSeconds(0.8),
-					intake
-				),
 				pathFollow
 			),
 			resetFlags,
-			either(
-				skipNote(superstructure, shooter, swerve, aim), 
-				dontSkipNote(superstructure, shooter, swerve, aim), 
-				superstructure.stateTrg_idle
-			),
-			parallel(
-				pathFollow2,
-				sequence(
-					waitSeconds(0.8),
-					intake2
-				)
-			)
+			fifthNoteDecision,
+			pathFollow2
 		);
 	}
 
@@ -431,42 +371,45 @@ public final class AutonFactory {
 	}
 
 	private static Command skipNote(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
-		var pathFollow = AutoBuilder.followPath(Paths.ampSideSkip1);
-		var intake = superstructure.autonIntakeReq();
-		var pathFollow2 = AutoBuilder.followPath(Paths.ampSideAlt4);
-		var shoot = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.ampSideSkip1, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.4, intake)
+			.follow(followPath(Paths.ampSideSkip1));
+		var pathFollow2 = followPath(Paths.ampSideAlt4);
+		var shoot = track("shoot", Kind.SHOT, superstructure.autonShootReq());
 
 		return sequence(
-			parallel(
-				sequence(
-					waitSeconds(0.4),
-					intake
-				),
-				pathFollow
-			),
+			pathFollow,
 			pathFollow2,
 			shoot
 		);
 	}
 
+	/** The start of {@link #dontSkipNote} for when there's only time to shoot the note we have */
+	private static Command shootHeldNote(Superstructure superstructure) {
+		var pathFollow = followPath(Paths.ampSideAlt2);
+		var shoot = track("shoot", Kind.SHOT, superstructure.autonShootReq());
+
+		return sequence(
+			pathFollow,
+			shoot
+		);
+	}
+
 	private static Command dontSkipNote(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
-		var pathFollow = AutoBuilder.followPath(Paths.ampSideAlt2);
-		var shoot = superstructure.autonShootReq();
-		var pathFollow2 = AutoBuilder.followPath(Paths.ampSideAlt3);
-		var intake = superstructure.autonIntakeReq();
-		var pathFollow3 = AutoBuilder.followPath(Paths.ampSideAlt4);
-		var shoot2 = superstructure.autonShootReq();
+		var pathFollow = followPath(Paths.ampSideAlt2);
+		var shoot = track("shoot", Kind.SHOT, superstructure.autonShootReq());
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow2 = TrajectoryEvents.along(Paths.ampSideAlt3, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.ampSideAlt3));
+		var pathFollow3 = followPath(Paths.ampSideAlt4);
+		var shoot2 = track("shoot2", Kind.SHOT, superstructure.autonShootReq());
 
 		return sequence(
 			pathFollow,
 			shoot,
-			parallel(
-				sequence(
-					waitSeconds(0.8),
-					intake
-				),
-				pathFollow2
-			),
+			pathFollow2,
 			pathFollow3,
 			shoot2
 		);
@@ -474,11 +417,14 @@ public final class AutonFactory {
 
 	public static Command sourceTwoInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var resetPose = swerve.resetPose(Paths.sourceSide1);
-		var pathFollow = AutoBuilder.followPath(Paths.sourceSide1).withName("PathFollow");
 		var preloadShot = preloadShot(superstructure, aim);
-		var intake = superstructure.autonIntakeReq();
-		var aimCmd = aim.toAngleUntilAt(Degrees.of(0)).asProxy(); // superstructure requires Aim so this brokey stuff
-		var secondShotReq = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.sourceSide1, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 1.5, intake)
+			.follow(followPath(Paths.sourceSide1))
+			.withName("PathFollow");
+		var aimCmd = track("aimCmd", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(0)).asProxy()); // superstructure requires Aim so this brokey stuff
+		var secondShotReq = track("secondShotReq", Kind.SHOT, superstructure.autonShootReq());
 		var swerveAim = swerve.faceSpeakerTagAuton().withTimeout(0.5);
 
 		return sequence(
@@ -489,14 +435,9 @@ public final class AutonFactory {
 			),
 			print("resetPose and preloadShot done"),
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
+			idleUntil("idle", superstructure.stateTrg_idle),
 			logSeqIncr(),
 			parallel(
-				print("should be intaking"),
-				sequence(
-					waitSeconds(1.5),
-					intake
-				),
 				pathFollow.andThen(print("path follow finished")),
 				aimCmd.until(superstructure.trg_atAngle)
 			),
@@ -506,28 +447,25 @@ public final class AutonFactory {
 			secondShotReq,
 			race(
 				sequence(
-					waitSeconds(0.5),
+					idleFor(0.5),
 					superstructure.forceStateToShooting()
 				),
-				waitUntil(superstructure.stateTrg_shooting)
+				idleUntil("shooting", superstructure.stateTrg_shooting)
 			),
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("SourceTwoPcSequence");
 	}
 
-	public static Command sourceTwo(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
-		var auton = sourceTwoInternal(superstructure, shooter, swerve, aim);
-		return theWrapper(auton, shooter).withName("SourceTwoFullAuton");
-	}
-
 	public static Command sourceThreeInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var two = sourceTwoInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.sourceSide2);
-		var intake = superstructure.autonIntakeReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.sourceSide2, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.sourceSide2));
 		// var swerveAim = swerve.aim(0.4);
-		var aimCmd = aim.toAngleUntilAt(Degrees.of(0)).asProxy();
-		var thirdShotReq = superstructure.autonShootReq();
+		var aimCmd = track("aimCmd", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(0)).asProxy());
+		var thirdShotReq = track("thirdShotReq", Kind.SHOT, superstructure.autonShootReq());
 		var swerveAim = swerve.faceSpeakerTagAuton().withTimeout(0.5);
 		
 		return sequence(
@@ -535,10 +473,6 @@ public final class AutonFactory {
 			two,
 			/* 3 piece */
 			parallel(
-				sequence(
-					waitSeconds(0.8),
-					intake
-				),
 				pathFollow,
 				aimCmd.until(superstructure.trg_atAngle)
 			),
@@ -546,12 +480,12 @@ public final class AutonFactory {
 			thirdShotReq,
 			race(
 				sequence(
-					waitSeconds(0.5),
+					idleFor(0.5),
 					superstructure.forceStateToShooting()
 				),
-				waitUntil(superstructure.stateTrg_shooting)
+				idleUntil("shooting", superstructure.stateTrg_shooting)
 			),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("ThreePcSequence");
 	}
 
@@ -562,19 +496,17 @@ public final class AutonFactory {
 
 	public static Command sourceThreePointFive(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var three = sourceThreeInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.sourceSideAlt1);
-		var intake = superstructure.autonIntakeReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.sourceSideAlt1, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.sourceSideAlt1));
 		var hardStop = aim.hardStop().asProxy();
 		
 		var auton = sequence(
 			three,
 			parallel(
 				hardStop,
-				pathFollow,
-				sequence(
-					waitSeconds(0.8),
-					intake
-				)
+				pathFollow
 			)
 		).withName("SourceThreePointFiveSequence");
 
@@ -583,10 +515,10 @@ public final class AutonFactory {
 
 	public static Command sourceFour(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var three = sourceThreeInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.sourceSide3);
-		var intake = superstructure.autonIntakeReq();
-		var aimCmd = aim.toAngleUntilAt(Degrees.of(20)).asProxy();
-		var fourthShotReq = superstructure.autonShootReq();
+		var pathFollow = followPath(Paths.sourceSide3);
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var aimCmd = track("aimCmd", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(20)).asProxy());
+		var fourthShotReq = track("fourthShotReq", Kind.SHOT, superstructure.autonShootReq());
 		
 		var auton = sequence(
 			three,
@@ -597,10 +529,10 @@ public final class AutonFactory {
 			),
 			race(
 				sequence(
-					waitSeconds(0.5),
+					idleFor(0.5),
 					superstructure.forceStateToShooting()
 				),
-				waitUntil(superstructure.stateTrg_shooting)
+				idleUntil("shooting", superstructure.stateTrg_shooting)
 			),
 			fourthShotReq
 		).withName("SourceFourSequence");
@@ -608,79 +540,14 @@ public final class AutonFactory {
 		return theWrapper(auton, shooter).withName("SourceFourFullAuton"); // what a silly and goofy long name
 	}
 
-	public static Command g28Counter(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
-		var resetPose = swerve.resetPose(Paths.g28Counter1);
-		var pathFollow = AutoBuilder.followPath(Paths.g28Counter1).withName("PathFollow");
-		var preloadShot = preloadShot(superstructure, aim);
-		var intake = superstructure.autonIntakeReq();
-		var aimCmd = aim.toAngleUntilAt(Degrees.of(1)).asProxy(); // superstructure requires Aim so this brokey stuff
-		var secondShotReq = superstructure.autonShootReq();
-		var pathFollow2 = AutoBuilder.followPath(Paths.g28Counter2).withName("PathFollow2");
-		var intake2 = superstructure.autonIntakeReq();
-		var aimCmd2 = aim.toAngleUntilAt(Degrees.of(1)).asProxy(); // superstructure requires Aim so this brokey stuff
-		var thirdShotReq = superstructure.autonShootReq();
-
-		var auton = sequence(
-			logSeqIncr(),
-			parallel(
-				resetPose,
-				preloadShot
-			),
-			print("resetPose and preloadShot done"),
-			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
-			logSeqIncr(),
-			parallel(
-				print("should be intaking"),
-				sequence(
-					waitSeconds(1.5),
-					intake
-				),
-				pathFollow.andThen(print("path follow finished")),
-				aimCmd.until(superstructure.trg_atAngle)
-			),
-			print("aim finished, path follow finished, should be shooting"),
-			logSeqIncr(),
-			secondShotReq,
-			race(
-				sequence(
-					waitSeconds(0.5),
-					superstructure.forceStateToShooting()
-				),
-				waitUntil(superstructure.stateTrg_shooting)
-			),
-			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
-			parallel(
-				sequence(
-					waitSeconds(1.5),
-					intake2
-				),
-				pathFollow2.andThen(print("path follow finished")),
-				aimCmd2.until(superstructure.trg_atAngle)
-			),
-			thirdShotReq,
-			race(
-				sequence(
-					waitSeconds(0.5),
-					superstructure.forceStateToShooting()
-				),
-				waitUntil(superstructure.stateTrg_shooting)
-			),
-			waitUntil(superstructure.stateTrg_idle)
-		).withName("G28Counter");
-
-		return theWrapper(auton, shooter).withName("G28CounterFull");
-	}
-
 	private static Command veryAmpTwoInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var resetPose = swerve.resetPose(Paths.veryAmp1);
-		var pathFollow = AutoBuilder.followPath(Paths.veryAmp1).withName("PathFollow");
 		var preloadShot = preloadShot(superstructure, aim);
-		var straightThrough = superstructure.straightThroughReq();
-		var intake = superstructure.autonIntakeReq();
-		var aimCmd = aim.toAngleUntilAt(Degrees.of(0)).asProxy(); // superstructure requires Aim so this brokey stuff
-		var secondShotReq = superstructure.autonShootReq();
+		var straightThrough = track("straightThrough", Kind.INTAKE, superstructure.straightThroughReq());
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var aimCmd = track("aimCmd", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(0)).asProxy()); // superstructure requires Aim so this brokey stuff
+		var secondShotReq = track("secondShotReq", Kind.SHOT, superstructure.autonShootReq());
+		var pathFollow = followPath(Paths.veryAmp1).withName("PathFollow");
 
 		return sequence(
 			logSeqIncr(),
@@ -690,13 +557,13 @@ public final class AutonFactory {
 			),
 			print("resetPose and preloadShot done"),
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
+			idleUntil("idle", superstructure.stateTrg_idle),
 			logSeqIncr(),
 			parallel(
 				straightThrough,
 				print("should be intaking"),
 				sequence(
-					waitUntil(superstructure.stateTrg_idle), 
+					idleUntil("idle", superstructure.stateTrg_idle), 
 					intake
 				),
 				pathFollow.andThen(print("path follow finished")),
@@ -707,13 +574,13 @@ public final class AutonFactory {
 			secondShotReq,
 			race(
 				sequence(
-					waitSeconds(0.5),
+					idleFor(0.5),
 					superstructure.forceStateToShooting()
 				),
-				waitUntil(superstructure.stateTrg_shooting)
+				idleUntil("shooting", superstructure.stateTrg_shooting)
 			),
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("TwoPcSequence");
 	}
 
@@ -725,33 +592,31 @@ public final class AutonFactory {
 
 	private static Command veryAmpThreeInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var two = veryAmpTwoInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.veryAmp2);
-		var intake = superstructure.autonIntakeReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
 		// var swerveAim = swerve.aim(0.4);
-		var aimCmd = aim.toAngleUntilAt(Degrees.of(1)).asProxy();
-		var thirdShotReq = superstructure.autonShootReq();
+		var aimCmd = track("aimCmd", Kind.AIM, superstructure.getShotCoordinator().prepareAim(Degrees.of(1)).asProxy());
+		var thirdShotReq = track("thirdShotReq", Kind.SHOT, superstructure.autonShootReq());
+		var pathFollow = TrajectoryEvents.along(Paths.veryAmp2, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.veryAmp2));
 		
 		return sequence(
 			/* 2 piece */
 			two,
 			/* 3 piece */
 			parallel(
-				sequence(
-					waitSeconds(0.8),
-					intake
-				),
 				pathFollow,
 				aimCmd.until(superstructure.trg_atAngle)
 			),
 			thirdShotReq,
 			race(
 				sequence(
-					waitSeconds(0.5),
+					idleFor(0.5),
 					superstructure.forceStateToShooting()
 				),
-				waitUntil(superstructure.stateTrg_shooting)
+				idleUntil("shooting", superstructure.stateTrg_shooting)
 			),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("ThreePcSequence");
 	}
 
@@ -763,18 +628,14 @@ public final class AutonFactory {
 
 	public static Command veryAmpThreePointFive(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var three = veryAmpThreeInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.veryAmp3);
-		var intake = superstructure.autonIntakeReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.veryAmp3, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.veryAmp3));
 		
 		var auton = sequence(
 			three,
-			parallel(
-				pathFollow,
-				sequence(
-					waitSeconds(0.8),
-					intake
-				)
-			)
+			pathFollow
 		).withName("VeryAmpThreePointFiveSequence");
 
 		return theWrapper(auton, shooter).withName("VeryAmpThreePointFiveFullAuton"); // what a silly and goofy long name
@@ -782,7 +643,7 @@ public final class AutonFactory {
 
 	public static Command followAmpSide(Swerve swerve) {
 		var resetPose = swerve.resetPose(Paths.veryAmp1);
-		var pathFollow = AutoBuilder.followPath(Paths.veryAmp1);
+		var pathFollow = followPath(Paths.veryAmp1);
 
 		return sequence(
 			resetPose,
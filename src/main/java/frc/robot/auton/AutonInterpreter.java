@@ -0,0 +1,247 @@
+package frc.robot.auton;
+
+import static edu.wpi.first.units.Units.Degrees;
+import static frc.robot.auton.AutonProfiler.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.robot.auton.AutonChooser.AutonOption;
+import frc.robot.auton.AutonProfiler.Kind;
+import frc.robot.subsystems.Superstructure;
+import frc.robot.subsystems.Swerve;
+import frc.robot.subsystems.shooter.Aim;
+import frc.robot.subsystems.shooter.Shooter;
+
+/**
+ * Builds autons from JSON files in {@code deploy/autons}, so changing one is a deploy of that file instead of new code.
+ * Each file is compiled into a command tree once at startup and replaces the Java version of its {@link AutonOption}.
+ * <p>
+ * A file looks like {@code {"option": "SOURCE_TWO", "name": "SourceTwoFullAuton", "auton": [...]}}, and the auton runs
+ * inside the same wrapper as the Java ones, with the shooter spun up. A step is one of:
+ * <ul>
+ * <li>a list, run in sequence</li>
+ * <li>the name of a step that takes no argument, like {@code "intake"}</li>
+ * <li>an object with one step in it, like {@code {"wait": 1.5}}, and optionally {@code "until"} (a trigger name),
+ * {@code "timeout"} (seconds) and {@code "name"}</li>
+ * </ul>
+ * Steps: {@code sequence}, {@code parallel}, {@code race}, {@code deadline} (the first one is the deadline) each take
+ * a list of steps; {@code path} and {@code resetPose} take a Choreo file name like {@code source_side.1};
+ * {@code aim} takes degrees; {@code wait} takes seconds; {@code waitUntil} takes a trigger name; {@code print} takes
+ * text; and {@code preloadShot}, {@code intake}, {@code straightThrough}, {@code shoot}, {@code forceShooting},
+ * {@code faceSpeaker} and {@code logSeq} take nothing. Triggers are {@code idle}, {@code shooting},
+ * {@code shootingOrIdle}, {@code noteReady}, {@code holdingNote}, {@code atAngle} and {@code spunUp}.
+ * <p>
+ * A {@code path} can also have {@code "events"}, a list like {@code {"beforeEnd": 2, "do": "intake"}} run by
+ * {@link TrajectoryEvents} once the robot gets that far along the path, with {@code at} (seconds into the path's
+ * timing), {@code distance} or {@code beforeEnd} (meters). A {@code beforeEnd} can add {@code notBefore} (seconds into
+ * the path's timing) so it never fires earlier than that, e.g. the wait it replaced. A shot on the way in should wait
+ * for {@code holdingNote} first, or it cancels the intake.
+ * <p>
+ * A file that doesn't compile is reported and skipped, and its option keeps the Java auton if it has one. The ones that
+ * only exist here (source two, g28 counter, madtown) drop out of the chooser instead.
+ */
+public class AutonInterpreter {
+    public static final String kDeployDir = "autons";
+    private static final Set<String> kModifiers = Set.of("until", "timeout", "name", "events");
+    private static final ObjectMapper kMapper = new ObjectMapper();
+
+    public record LoadedAuton(AutonOption option, Command command) {}
+
+    private final Superstructure m_superstructure;
+    private final Shooter m_shooter;
+    private final Swerve m_swerve;
+    private final Aim m_aim;
+
+    private AutonInterpreter(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
+        m_superstructure = superstructure;
+        m_shooter = shooter;
+        m_swerve = swerve;
+        m_aim = aim;
+    }
+
+    /** @return Every auton in the deploy directory that compiled */
+    public static List<LoadedAuton> loadAll(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
+        var loaded = new ArrayList<LoadedAuton>();
+        var files = new File(Filesystem.getDeployDirectory(), kDeployDir)
+            .listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return loaded;
+        }
+
+        var interpreter = new AutonInterpreter(superstructure, shooter, swerve, aim);
+        for (var file : files) {
+            try {
+                var auton = interpreter.compileFile(kMapper.readTree(file));
+                loaded.add(auton);
+                System.out.println("[AUTON] Loaded " + auton.option() + " from " + file.getName());
+            } catch (IOException | RuntimeException e) {
+                System.out.println("[AUTON] Couldn't load " + file.getName() + ", keeping the Java auton if there is one: "
+                    + e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    private LoadedAuton compileFile(JsonNode root) {
+        var option = AutonOption.valueOf(required(root, "option", "file").asText());
+        var name = root.path("name").asText(option.name());
+        var auton = compile(required(root, "auton", "file"), name);
+        return new LoadedAuton(option, AutonFactory.theWrapper(auton, m_shooter).withName(name));
+    }
+
+    /** @param where - Where this step is in the file, for error messages */
+    private Command compile(JsonNode node, String where) {
+        if (node.isArray()) {
+            return Commands.sequence(compileAll(node, where));
+        }
+        if (node.isTextual()) {
+            return step(node.asText(), node, where);
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("expected a step at " + where + ", got " + node);
+        }
+
+        String type = null;
+        var fields = node.fieldNames();
+        while (fields.hasNext()) {
+            var field = fields.next();
+            if (kModifiers.contains(field)) {
+                continue;
+            }
+            if (type != null) {
+                throw new IllegalArgumentException("both " + type + " and " + field + " in one step at " + where);
+            }
+            type = field;
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("no step at " + where);
+        }
+
+        Command command;
+        if (node.has("events")) {
+            if (!type.equals("path")) {
+                throw new IllegalArgumentException("events on something other than a path at " + where);
+            }
+            command = pathWithEvents(node.get(type).asText(), node.get("events"), where);
+        } else {
+            command = step(type, node.get(type), where + "." + type);
+        }
+        if (node.has("until")) {
+            command = command.until(trigger(node.get("until").asText(), where));
+        }
+        if (node.has("timeout")) {
+            command = command.withTimeout(number(node.get("timeout"), where + ".timeout"));
+        }
+        if (node.has("name")) {
+            command = command.withName(node.get("name").asText());
+        }
+        return command;
+    }
+
+    private Command[] compileAll(JsonNode list, String where) {
+        if (!list.isArray()) {
+            throw new IllegalArgumentException("expected a list of steps at " + where);
+        }
+        var commands = new Command[list.size()];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = compile(list.get(i), where + "[" + i + "]");
+        }
+        return commands;
+    }
+
+    private Command step(String type, JsonNode arg, String where) {
+        return switch (type) {
+            case "sequence" -> Commands.sequence(compileAll(arg, where));
+            case "parallel" -> Commands.parallel(compileAll(arg, where));
+            case "race" -> Commands.race(compileAll(arg, where));
+            case "deadline" -> {
+                var commands = compileAll(arg, where);
+                if (commands.length == 0) {
+                    throw new IllegalArgumentException("empty deadline at " + where);
+                }
+                var others = new Command[commands.length - 1];
+                System.arraycopy(commands, 1, others, 0, others.length);
+                yield Commands.deadline(commands[0], others);
+            }
+            case "path" -> followPath(TrajectoryCache.getPath(arg.asText()));
+            case "resetPose" -> m_swerve.resetPose(TrajectoryCache.getPath(arg.asText()));
+            case "preloadShot" -> AutonFactory.preloadShot(m_superstructure, m_aim);
+            case "intake" -> track("intake", Kind.INTAKE, m_superstructure.autonIntakeReq());
+            case "straightThrough" -> track("straightThrough", Kind.INTAKE, m_superstructure.straightThroughReq());
+            case "shoot" -> track("shoot", Kind.SHOT, m_superstructure.autonShootReq());
+            case "forceShooting" -> m_superstructure.forceStateToShooting();
+            case "aim" -> track("aim", Kind.AIM,
+                m_superstructure.getShotCoordinator().prepareAim(Degrees.of(number(arg, where))).asProxy()); // superstructure requires Aim
+            case "faceSpeaker" -> m_swerve.faceSpeakerTagAuton();
+            case "wait" -> idleFor(number(arg, where));
+            case "waitUntil" -> idleUntil(arg.asText(), trigger(arg.asText(), where));
+            case "print" -> Commands.print(arg.asText());
+            case "logSeq" -> AutonFactory.logSeqIncr();
+            default -> throw new IllegalArgumentException("unknown step " + type + " at " + where);
+        };
+    }
+
+    private Command pathWithEvents(String pathName, JsonNode events, String where) {
+        if (!events.isArray()) {
+            throw new IllegalArgumentException("expected a list of events at " + where + ".events");
+        }
+        var path = TrajectoryCache.getPath(pathName);
+        var table = TrajectoryEvents.along(path, m_swerve::getPose);
+        for (int i = 0; i < events.size(); i++) {
+            var event = events.get(i);
+            var eventWhere = where + ".events[" + i + "]";
+            var command = compile(required(event, "do", eventWhere), eventWhere + ".do");
+            if (event.has("at")) {
+                table.atTime(number(event.get("at"), eventWhere + ".at"), command);
+            } else if (event.has("distance")) {
+                table.atDistance(number(event.get("distance"), eventWhere + ".distance"), command);
+            } else if (event.has("beforeEnd") && event.has("notBefore")) {
+                table.beforeEnd(number(event.get("beforeEnd"), eventWhere + ".beforeEnd"),
+                    number(event.get("notBefore"), eventWhere + ".notBefore"), command);
+            } else if (event.has("beforeEnd")) {
+                table.beforeEnd(number(event.get("beforeEnd"), eventWhere + ".beforeEnd"), command);
+            } else {
+                throw new IllegalArgumentException("no at, distance or beforeEnd in " + eventWhere);
+            }
+        }
+        return table.follow(followPath(path));
+    }
+
+    private Trigger trigger(String name, String where) {
+        return switch (name) {
+            case "idle" -> m_superstructure.stateTrg_idle;
+            case "shooting" -> m_superstructure.stateTrg_shooting;
+            case "shootingOrIdle" -> m_superstructure.extStateTrg_shooting.or(m_superstructure.stateTrg_idle);
+            case "noteReady" -> m_superstructure.stateTrg_noteReady;
+            case "holdingNote" -> new Trigger(m_superstructure::noteReadyOrGreater);
+            case "atAngle" -> m_superstructure.trg_atAngle;
+            case "spunUp" -> m_superstructure.trg_spunUp;
+            default -> throw new IllegalArgumentException("unknown trigger " + name + " at " + where);
+        };
+    }
+
+    private static double number(JsonNode node, String where) {
+        if (node == null || !node.isNumber()) {
+            throw new IllegalArgumentException("expected a number at " + where);
+        }
+        return node.asDouble();
+    }
+
+    private static JsonNode required(JsonNode node, String field, String where) {
+        if (!node.has(field)) {
+            throw new IllegalArgumentException("missing " + field + " in " + where);
+        }
+        return node.get(field);
+    }
+}
@@ -0,0 +1,210 @@
+package frc.robot.auton;
+
+import java.util.function.BooleanSupplier;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.util.logging.WaltLogger;
+import frc.util.logging.WaltLogger.DoubleLogger;
+
+/**
+ * Times the tracked commands in an auton run and works out which of them the run was actually waiting on.
+ * <p>
+ * Wrap the interesting pieces with {@link #track}, or the {@link #followPath}, {@link #idleUntil} and
+ * {@link #idleFor} shorthands. They only record between {@link #start} and {@link #finish}, into preallocated
+ * arrays, so they cost nothing outside auton. {@link #finish} hands back a report of every interval, the critical
+ * path, and the waits on it, which are the time to go after to fit another note in.
+ * <p>
+ * Command groups don't expose what's inside them, so the critical path is rebuilt from the timing alone. Walking back
+ * from the end, whatever finished last before that point is what the auton was waiting on, and the walk carries on from
+ * when that started. Time that nothing tracked accounts for shows up as untracked.
+ */
+public final class AutonProfiler {
+    private AutonProfiler() {}
+
+    public enum Kind {
+        PATH, SHOT, INTAKE, AIM, WAIT
+    }
+
+    private static final int kMaxIntervals = 256;
+    // an end this close before the current point still counts as what it was waiting on, about a loop and a half
+    private static final double kLoopSlack = 0.03;
+
+    private static final String[] kNames = new String[kMaxIntervals];
+    private static final Kind[] kKinds = new Kind[kMaxIntervals];
+    private static final double[] kStarts = new double[kMaxIntervals];
+    private static final double[] kEnds = new double[kMaxIntervals];
+    private static int count = 0;
+    private static boolean recording = false;
+    private static String runName = "";
+    private static double runStart = 0;
+
+    private static final DoubleLogger log_criticalWait = WaltLogger.logDouble("Auton", "criticalWaitSecs");
+    private static final DoubleLogger log_untracked = WaltLogger.logDouble("Auton", "untrackedSecs");
+
+    /** Records {@code command}'s start and end whenever it runs during a profiled auton */
+    private static class Tracked extends WrapperCommand {
+        private final String m_trackedName;
+        private final Kind m_kind;
+        private int m_index = -1;
+
+        private Tracked(String name, Kind kind, Command command) {
+            super(command);
+            m_trackedName = name;
+            m_kind = kind;
+        }
+
+        @Override
+        public void initialize() {
+            m_index = begin(m_trackedName, m_kind);
+            m_command.initialize();
+        }
+
+        @Override
+        public void end(boolean interrupted) {
+            m_command.end(interrupted);
+            if (m_index >= 0 && recording) {
+                kEnds[m_index] = Timer.getFPGATimestamp();
+            }
+            m_index = -1;
+        }
+    }
+
+    public static Command track(String name, Kind kind, Command command) {
+        return new Tracked(name, kind, command);
+    }
+
+    /** {@link AutoBuilder#followPath}, tracked under the path's file name */
+    public static Command followPath(PathPlannerPath path) {
+        var entry = TrajectoryCache.find(path);
+        var name = entry != null ? entry.name() : "path";
+        return track(name, Kind.PATH, AutoBuilder.followPath(path));
+    }
+
+    /** {@link Commands#waitUntil}, tracked as a wait */
+    public static Command idleUntil(String name, BooleanSupplier condition) {
+        return track("until " + name, Kind.WAIT, Commands.waitUntil(condition));
+    }
+
+    /** {@link Commands#waitSeconds}, tracked as a wait */
+    public static Command idleFor(double seconds) {
+        return track(seconds + " s", Kind.WAIT, Commands.waitSeconds(seconds));
+    }
+
+    private static int begin(String name, Kind kind) {
+        if (!recording || count >= kMaxIntervals) {
+            return -1;
+        }
+        int index = count++;
+        kNames[index] = name;
+        kKinds[index] = kind;
+        kStarts[index] = Timer.getFPGATimestamp();
+        kEnds[index] = Double.NaN;
+        return index;
+    }
+
+    /** Starts recording a run, dropping the last one */
+    public static void start(String autonName) {
+        count = 0;
+        runName = autonName;
+        runStart = Timer.getFPGATimestamp();
+        recording = true;
+    }
+
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    /** @return Whether a command of that kind started during the current or last run */
+    public static boolean ran(Kind kind) {
+        for (int i = 0; i < count; i++) {
+            if (kKinds[i] == kind) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Stops recording. Anything still running is cut off here. */
+    public static String finish() {
+        recording = false;
+        double runEnd = Timer.getFPGATimestamp();
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(kEnds[i])) {
+                kEnds[i] = runEnd;
+            }
+        }
+
+        var critical = new boolean[count];
+        var kindTotals = new double[Kind.values().length];
+        double untracked = 0;
+        double t = runEnd;
+        while (t > runStart + kLoopSlack) {
+            int best = -1;
+            for (int i = 0; i < count; i++) {
+                if (critical[i] || kStarts[i] >= t || kEnds[i] > t + kLoopSlack) {
+                    continue;
+                }
+                // latest end, and of those the longest
+                if (best == -1 || kEnds[i] > kEnds[best] + 1e-9
+                    || (Math.abs(kEnds[i] - kEnds[best]) <= 1e-9 && kStarts[i] < kStarts[best])) {
+                    best = i;
+                }
+            }
+            if (best == -1) {
+                untracked += t - runStart;
+                break;
+            }
+            if (kEnds[best] < t - kLoopSlack) {
+                untracked += t - kEnds[best];
+            }
+            critical[best] = true;
+            kindTotals[kKinds[best].ordinal()] += Math.min(kEnds[best], t) - kStarts[best];
+            t = kStarts[best];
+        }
+
+        double criticalWait = kindTotals[Kind.WAIT.ordinal()];
+        log_criticalWait.accept(criticalWait);
+        log_untracked.accept(untracked);
+        return report(runEnd - runStart, critical, kindTotals, untracked);
+    }
+
+    private static String report(double total, boolean[] critical, double[] kindTotals, double untracked) {
+        var report = new StringBuilder();
+        report.append(String.format("[AUTON] Profile of %s, %.2f s, * is on the critical path%n", runName, total));
+        for (int i = 0; i < count; i++) {
+            report.append(String.format("  %s %6.2f s %6.2f s  %-6s %s%n",
+                critical[i] ? "*" : " ", kStarts[i] - runStart, kEnds[i] - kStarts[i], kKinds[i], kNames[i]));
+        }
+
+        report.append("[AUTON] Critical path:");
+        for (var kind : Kind.values()) {
+            report.append(String.format(" %s %.2f s,", kind.name().toLowerCase(), kindTotals[kind.ordinal()]));
+        }
+        report.append(String.format(" untracked %.2f s%n", untracked));
+
+        report.append("[AUTON] Waits on the critical path, longest first:\n");
+        var listed = new boolean[count];
+        while (true) {
+            int longest = -1;
+            for (int i = 0; i < count; i++) {
+                if (critical[i] && !listed[i] && kKinds[i] == Kind.WAIT
+                    && (longest == -1 || kEnds[i] - kStarts[i] > kEnds[longest] - kStarts[longest])) {
+                    longest = i;
+                }
+            }
+            if (longest == -1) {
+                break;
+            }
+            listed[longest] = true;
+            report.append(String.format("  %6.2f s  %s at %.2f s%n",
+                kEnds[longest] - kStarts[longest], kNames[longest], kStarts[longest] - runStart));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,143 @@
+package frc.robot.auton;
+
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import com.pathplanner.lib.util.PathPlannerLogging;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.auton.AutonProfiler.Kind;
+import frc.util.logging.WaltLogger;
+import frc.util.logging.WaltLogger.DoubleLogger;
+
+/**
+ * Keeps score of one auton run: how long the command took, how many notes went out, and how far the robot was from
+ * where PathPlanner wanted it to be while following paths.
+ * Call {@link #start} when the auton gets scheduled and {@link #update} every loop. The {@link AutonProfiler} report
+ * gets printed when the run ends.
+ * <p>
+ * Only an auton that ends on its own counts as completed. Being cancelled, like when the robot gets disabled or teleop
+ * starts, doesn't.
+ * <p>
+ * Shots are counted from the shooter's beam break and current spike, which only exist on the robot. The headless sim
+ * has no notes, so there every intake and shot waits out its timeout or never happens, and an auton that has any isn't
+ * comparable on time. {@link #toResultString} says which, and leaves the shot count out.
+ */
+public class AutonRecorder {
+    private final IntSupplier m_shotCount;
+    private final Supplier<Pose2d> m_pose;
+
+    private Command m_auton = null;
+    private double m_startTime = 0;
+    private double m_endTime = Double.NaN;
+    private boolean m_ended = false;
+    private boolean m_interrupted = false;
+    private int m_startShots = 0;
+
+    // written from the path following command through the PathPlannerLogging callbacks
+    private Pose2d m_targetPose = null;
+    private boolean m_followingPath = false;
+    private double m_pathErrorSum = 0;
+    private double m_pathErrorMax = 0;
+    private int m_pathErrorSamples = 0;
+
+    private final DoubleLogger log_pathError = WaltLogger.logDouble("Auton", "pathError");
+
+    /**
+     * @param shotCount - Notes shot since boot
+     * @param pose - The robot's estimated pose
+     */
+    public AutonRecorder(IntSupplier shotCount, Supplier<Pose2d> pose) {
+        m_shotCount = shotCount;
+        m_pose = pose;
+        PathPlannerLogging.setLogTargetPoseCallback((target) -> m_targetPose = target);
+        PathPlannerLogging.setLogActivePathCallback((poses) -> m_followingPath = !poses.isEmpty());
+        CommandScheduler.getInstance().onCommandFinish((command) -> onEnd(command, false));
+        CommandScheduler.getInstance().onCommandInterrupt((command) -> onEnd(command, true));
+    }
+
+    private void onEnd(Command command, boolean interrupted) {
+        if (command != m_auton || m_ended) {
+            return;
+        }
+        m_ended = true;
+        m_interrupted = interrupted;
+        m_endTime = Timer.getFPGATimestamp();
+    }
+
+    public void start(Command auton) {
+        m_auton = auton;
+        m_startTime = Timer.getFPGATimestamp();
+        m_endTime = Double.NaN;
+        m_ended = false;
+        m_interrupted = false;
+        m_startShots = m_shotCount.getAsInt();
+        m_pathErrorSum = 0;
+        m_pathErrorMax = 0;
+        m_pathErrorSamples = 0;
+        AutonProfiler.start(auton.getName());
+    }
+
+    public void update() {
+        if (m_auton == null) {
+            return;
+        }
+        if (m_ended) {
+            System.out.println("[AUTON] " + m_auton.getName() + (m_interrupted ? " was cut off after " : " finished in ")
+                + (m_endTime - m_startTime) + " s, " + getShots() + " shots");
+            System.out.print(AutonProfiler.finish());
+            m_auton = null;
+            return;
+        }
+        if (m_followingPath && m_targetPose != null) {
+            double error = m_pose.get().getTranslation().getDistance(m_targetPose.getTranslation());
+            m_pathErrorSum += error;
+            m_pathErrorMax = Math.max(m_pathErrorMax, error);
+            m_pathErrorSamples++;
+            log_pathError.accept(error);
+        }
+    }
+
+    /** @return Whether the auton ended on its own, not by being cancelled */
+    public boolean isFinished() {
+        return m_ended && !m_interrupted;
+    }
+
+    /** @return Seconds from scheduling to the command finishing, NaN if it didn't */
+    public double getCompletionTime() {
+        return isFinished() ? m_endTime - m_startTime : Double.NaN;
+    }
+
+    public int getShots() {
+        return m_shotCount.getAsInt() - m_startShots;
+    }
+
+    /** @return Mean distance from the path target in meters, 0 if no path was followed */
+    public double getMeanPathError() {
+        return m_pathErrorSamples == 0 ? 0 : m_pathErrorSum / m_pathErrorSamples;
+    }
+
+    public double getMaxPathError() {
+        return m_pathErrorMax;
+    }
+
+    /**
+     * @return Whether the run's time means anything without notes, i.e. it had no intake or shot steps.
+     * Only meaningful once the run is over
+     */
+    public boolean isComparableWithoutNotes() {
+        return !AutonProfiler.ran(Kind.INTAKE) && !AutonProfiler.ran(Kind.SHOT);
+    }
+
+    /** @return {@code key=value} pairs separated by spaces, see {@link AutonSweep} */
+    public String toResultString() {
+        return "completed=" + isFinished()
+            + " time=" + getCompletionTime()
+            + " comparable=" + isComparableWithoutNotes()
+            + " pathErrMean=" + getMeanPathError()
+            + " pathErrMax=" + getMaxPathError();
+    }
+}
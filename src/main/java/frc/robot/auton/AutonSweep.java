@@ -0,0 +1,162 @@
+package frc.robot.auton;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import edu.wpi.first.hal.AllianceStationID;
+import frc.robot.HeadlessSim;
+import frc.robot.Main;
+import frc.robot.auton.AutonChooser.AutonOption;
+
+/**
+ * Runs every {@link AutonOption} on both alliances through {@link HeadlessSim}, each in its own JVM, a few at a time,
+ * and writes a comparison report to {@value #kOutDir}.
+ * <p>
+ * The children inherit this JVM's classpath and native library path, so start it the same way as the sim:
+ * {@code ./gradlew simulateJava -Psweep[=jobs]}. Red runs flip through {@link frc.util.AllianceFlipUtil} like on the
+ * field, since the alliance comes from the simulated driver station.
+ * <p>
+ * The sim has no notes, so only rows with {@code comparable=true} (no intake or shot steps) have times worth comparing.
+ * The rest still show whether the paths and command logic run through.
+ */
+public final class AutonSweep {
+    private AutonSweep() {}
+
+    public static final String kEnvVar = "AUTON_SWEEP";
+    public static final String kOutDir = "build/autonSweep";
+
+    private static final String kScript = "disabled:0.5,auto:15";
+    private static final long kTimeoutSeconds = 180;
+    private static final AllianceStationID[] kAlliances = {AllianceStationID.Blue1, AllianceStationID.Red1};
+    private static final String[] kColumns = {
+        "auton", "alliance", "completed", "time", "comparable", "pathErrMean", "pathErrMax", "stepMsMean", "stepMsMax",
+        "wallTime"
+    };
+
+    /** @return Whether Main should run the sweep instead of the robot */
+    public static boolean isRequested() {
+        return System.getenv(kEnvVar) != null;
+    }
+
+    /** @return The process exit code, 1 if any run didn't report a result */
+    public static int run() {
+        var jobsEnv = System.getenv(kEnvVar);
+        int jobs = jobsEnv == null || jobsEnv.isBlank()
+            ? Math.max(1, Runtime.getRuntime().availableProcessors() / 2)
+            : Integer.parseInt(jobsEnv.trim());
+        var outDir = Path.of(kOutDir);
+
+        var pool = Executors.newFixedThreadPool(jobs);
+        var futures = new ArrayList<Future<Map<String, String>>>();
+        try {
+            Files.createDirectories(outDir);
+            for (var auton : AutonOption.values()) {
+                for (var alliance : kAlliances) {
+                    futures.add(pool.submit(() -> runOne(auton, alliance, outDir)));
+                }
+            }
+            System.out.println("[SWEEP] " + futures.size() + " runs, " + jobs + " at a time");
+
+            var results = new ArrayList<Map<String, String>>();
+            for (var future : futures) {
+                results.add(future.get());
+            }
+            writeReport(results, outDir.resolve("report.csv"));
+            printReport(results);
+            return results.stream().allMatch((r) -> r.containsKey("time")) ? 0 : 1;
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            System.err.println("[SWEEP] " + e);
+            return 1;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Map<String, String> runOne(AutonOption auton, AllianceStationID alliance, Path outDir)
+        throws IOException, InterruptedException {
+        var log = outDir.resolve(auton.name() + "-" + alliance.name() + ".log");
+        var builder = new ProcessBuilder(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-Djava.library.path=" + System.getProperty("java.library.path"),
+            "-cp", System.getProperty("java.class.path"),
+            Main.class.getName());
+        var env = builder.environment();
+        env.remove(kEnvVar);
+        env.put(HeadlessSim.kEnvVar, kScript);
+        env.put(HeadlessSim.kAutonEnvVar, auton.name());
+        env.put(HeadlessSim.kAllianceEnvVar, alliance.name());
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(log.toFile());
+
+        var result = new LinkedHashMap<String, String>();
+        result.put("auton", auton.name());
+        result.put("alliance", alliance.name());
+
+        var process = builder.start();
+        if (!process.waitFor(kTimeoutSeconds, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            System.out.println("[SWEEP] " + auton + " " + alliance + " timed out");
+            return result;
+        }
+
+        for (var line : Files.readAllLines(log)) {
+            if (line.startsWith(HeadlessSim.kResultPrefix)) {
+                for (var pair : line.substring(HeadlessSim.kResultPrefix.length()).trim().split(" ")) {
+                    var kv = pair.split("=", 2);
+                    if (kv.length == 2) {
+                        result.put(kv[0], kv[1]);
+                    }
+                }
+            }
+        }
+        System.out.println("[SWEEP] " + auton + " " + alliance + " done, exit " + process.exitValue());
+        return result;
+    }
+
+    private static void writeReport(List<Map<String, String>> results, Path file) throws IOException {
+        try (var out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println(String.join(",", kColumns));
+            for (var result : results) {
+                var row = new ArrayList<String>();
+                for (var column : kColumns) {
+                    row.add(result.getOrDefault(column, ""));
+                }
+                out.println(String.join(",", row));
+            }
+        }
+        System.out.println("[SWEEP] wrote " + file.toAbsolutePath());
+    }
+
+    private static String format(Map<String, String> result, String key) {
+        var value = result.get(key);
+        if (value == null) {
+            return "-";
+        }
+        try {
+            return String.format("%.2f", Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    private static void printReport(List<Map<String, String>> results) {
+        var row = "%-26s %-6s %-9s %7s %10s %11s %10s %10s %9s%n";
+        System.out.printf(row, "auton", "side", "completed", "time", "comparable", "pathErrMean", "pathErrMax",
+            "stepMsMean", "stepMsMax");
+        for (var result : results) {
+            System.out.printf(row, result.get("auton"), result.get("alliance"), result.getOrDefault("completed", "error"),
+                format(result, "time"), result.getOrDefault("comparable", "-"), format(result, "pathErrMean"),
+                format(result, "pathErrMax"), format(result, "stepMsMean"), format(result, "stepMsMax"));
+        }
+    }
+}
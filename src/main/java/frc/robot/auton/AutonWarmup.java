@@ -0,0 +1,228 @@
+package frc.robot.auton;
+
+import static edu.wpi.first.units.Units.Radians;
+import static frc.robot.Constants.AutoK.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.choreo.lib.Choreo;
+import com.choreo.lib.ChoreoTrajectory;
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.auton.AutonChooser.AutonOption;
+import frc.util.AllianceFlipUtil;
+import frc.util.DriveToPoseController;
+
+/**
+ * Dry runs the selected auton's followers while disabled so the JIT has compiled them before the match starts.
+ * <p>
+ * Every follower is built against a fake drivetrain, with no requirements and its output thrown away, and stepped by
+ * hand instead of through the scheduler, so nothing on the robot moves or changes state. The fake pose is wherever the
+ * path says the robot should be, so the controllers run on realistic numbers. Steps are spread over loops with a time
+ * budget so the disabled loop doesn't overrun either.
+ * <p>
+ * PathPlanner paths only warm the trajectory sampling and the controller, not the FollowPathHolonomic command around
+ * them. The command publishes to PathPlannerLogging and PPLibTelemetry every step, which would put a fake path on the
+ * dashboards and into the AutonRecorder.
+ * <p>
+ * The Superstructure triggers and logging don't need this, the scheduler already polls them every disabled loop.
+ */
+public class AutonWarmup extends Command {
+    // enough calls for the JIT's optimizing compiler to kick in on the hot methods
+    private static final int kIterations = 2000;
+    private static final double kBudgetSecs = 0.004;
+    private static final double kFakeDt = 0.02;
+
+    /** One follower against a fake drivetrain */
+    private interface Sandbox {
+        /** @return Whether it wants more steps */
+        boolean step();
+
+        /** Ends whatever is mid run, it's being thrown away */
+        default void stop() {}
+    }
+
+    private final Supplier<AutonOption> m_selected;
+    private final List<Sandbox> m_sandboxes = new ArrayList<>();
+    private AutonOption m_warmedAuton = null;
+    private boolean m_warmedRed = false;
+    private int m_steps = 0;
+    private long m_startNanos = 0;
+
+    public AutonWarmup(Supplier<AutonOption> selected) {
+        m_selected = selected;
+        setName("AutonWarmup");
+    }
+
+    @Override
+    public boolean runsWhenDisabled() {
+        return true;
+    }
+
+    @Override
+    public void initialize() {
+        m_warmedAuton = null;
+        clearSandboxes();
+    }
+
+    @Override
+    public void execute() {
+        var selected = m_selected.get();
+        boolean isRed = AllianceFlipUtil.shouldFlip();
+        if (selected != m_warmedAuton || isRed != m_warmedRed) {
+            if (selected == null) {
+                return;
+            }
+            m_warmedAuton = selected;
+            m_warmedRed = isRed;
+            build(selected, isRed);
+        }
+        if (m_sandboxes.isEmpty()) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + (long) (kBudgetSecs * 1e9);
+        while (!m_sandboxes.isEmpty() && System.nanoTime() < deadline) {
+            if (!m_sandboxes.get(0).step()) {
+                m_sandboxes.remove(0);
+            }
+            m_steps++;
+        }
+        if (m_sandboxes.isEmpty()) {
+            System.out.println("[WARMUP] " + m_warmedAuton.name() + " warmed up, " + m_steps + " steps in "
+                + (System.nanoTime() - m_startNanos) / 1e6 + " ms");
+        }
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        clearSandboxes();
+    }
+
+    private void clearSandboxes() {
+        for (var sandbox : m_sandboxes) {
+            sandbox.stop();
+        }
+        m_sandboxes.clear();
+    }
+
+    private void build(AutonOption auton, boolean isRed) {
+        clearSandboxes();
+        m_steps = 0;
+        m_startNanos = System.nanoTime();
+
+        var entry = TrajectoryCache.find(auton.m_traj);
+        // do nothing and preload don't drive, but the line up at the end of an on the fly path still gets warmed
+        if (entry != null) {
+            for (var path : TrajectoryCache.getSplitPaths(entry.name())) {
+                m_sandboxes.add(pathSandbox(path, isRed));
+            }
+            m_sandboxes.add(choreoSandbox(entry.get(isRed)));
+        }
+        m_sandboxes.add(driveToPoseSandbox());
+    }
+
+    /** What FollowPathHolonomic runs every loop, for the path it would follow on this alliance */
+    private static Sandbox pathSandbox(TrajectoryCache.PathEntry path, boolean isRed) {
+        var traj = path.get(isRed).getTrajectory(new ChassisSpeeds(), new Rotation2d());
+        var controller = new PPHolonomicDriveController(
+            kPathFollowerConfig.translationConstants, kPathFollowerConfig.rotationConstants,
+            kPathFollowerConfig.period, kPathFollowerConfig.maxModuleSpeed, kPathFollowerConfig.driveBaseRadius);
+        int[] iterations = {0};
+
+        return () -> {
+            double time = (iterations[0] * kFakeDt) % traj.getTotalTimeSeconds();
+            if (time < kFakeDt) {
+                controller.reset(traj.getInitialTargetHolonomicPose(), new ChassisSpeeds());
+            }
+            // a loop behind the target, so the feedback has something to do
+            var pose = traj.sample(Math.max(time - kFakeDt, 0)).getTargetHolonomicPose();
+            controller.calculateRobotRelativeSpeeds(pose, traj.sample(time));
+            return ++iterations[0] < kIterations;
+        };
+    }
+
+    private static Sandbox choreoSandbox(ChoreoTrajectory traj) {
+        var pose = new Pose2d[] {traj.getInitialPose()};
+        var thetaController = new PIDController(kPTheta, 0, 0);
+        thetaController.enableContinuousInput(0, 2 * Math.PI);
+        var follower = Choreo.choreoSwerveCommand(
+            traj,
+            () -> pose[0],
+            new PIDController(kPTranslation, 0, 0),
+            new PIDController(kPTranslation, 0, 0),
+            thetaController,
+            (speeds) -> {},
+            () -> false); // already the right alliance's
+
+        return stepper(follower, (time) -> {
+            pose[0] = traj.sample(time % traj.getTotalTime()).getPose();
+        });
+    }
+
+    private static Sandbox driveToPoseSandbox() {
+        var controller = new DriveToPoseController(
+            kDriveToPoseDriveConstraints, kDriveToPoseTurnConstraints,
+            kPDriveToPoseTranslation, kPDriveToPoseTheta,
+            kDriveToPoseTranslationTolerance, kDriveToPoseRotationTolerance.in(Radians));
+        var start = new Pose2d();
+        var goal = new Pose2d(2, 1, Rotation2d.fromDegrees(90));
+        int[] iterations = {0};
+
+        return () -> {
+            if (iterations[0] % 100 == 0) {
+                controller.reset(start, new ChassisSpeeds(), goal);
+            }
+            controller.calculate(start.interpolate(goal, (iterations[0] % 100) / 100.0));
+            controller.atGoal();
+            return ++iterations[0] < kIterations;
+        };
+    }
+
+    private interface FakeDrive {
+        /** Moves the fake pose to where the path is at this time */
+        void moveTo(double time);
+    }
+
+    private static Sandbox stepper(Command follower, FakeDrive fakeDrive) {
+        return new Sandbox() {
+            private int m_iterations = 0;
+            private boolean m_running = false;
+
+            @Override
+            public boolean step() {
+                if (!m_running) {
+                    follower.initialize();
+                    m_running = true;
+                }
+                fakeDrive.moveTo(m_iterations * kFakeDt);
+                follower.execute();
+                // the followers time themselves with real time, so they can finish early or not at all
+                if (follower.isFinished()) {
+                    follower.end(false);
+                    follower.initialize();
+                }
+                if (++m_iterations >= kIterations) {
+                    stop();
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void stop() {
+                if (m_running) {
+                    follower.end(true);
+                    m_running = false;
+                }
+            }
+        };
+    }
+}
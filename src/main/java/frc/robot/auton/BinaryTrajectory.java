@@ -0,0 +1,164 @@
+package frc.robot.auton;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.zip.CRC32;
+
+import com.choreo.lib.ChoreoTrajectory;
+import com.choreo.lib.ChoreoTrajectoryState;
+import com.google.gson.Gson;
+
+/**
+ * Compact binary version of Choreo's .traj files, so the robot doesn't parse tens of thousands of lines of JSON.
+ * <p>
+ * Little-endian: a header of magic, version, flags, sample count and the CRC32 of the .traj it came from, then per
+ * sample timestamp, x, y, heading, velocity x/y and angular velocity as float32, 28 bytes a sample. Float32 is still well under a millimeter anywhere
+ * on the field. Module forces aren't kept since nothing on the robot reads them.
+ * <p>
+ * {@code ./gradlew convertTrajectories} runs {@link #main} on the deploy directory before every build and deploy, and
+ * {@link TrajectoryCache} loads these through a memory map when they're there and their CRC matches the .traj next to
+ * them, so a stale binary never wins over an edited path. Split trajectories ({@code name.1}, {@code name.2}) aren't
+ * converted. The autons follow them as PathPlannerPaths, and PathPlanner only builds a Choreo path from the JSON.
+ * <p>
+ * Usage: {@code BinaryTrajectory <choreo dir> <out dir>}
+ */
+public final class BinaryTrajectory {
+    private BinaryTrajectory() {}
+
+    public static final String kExtension = ".ctrj";
+    /** Next to {@code choreo} in the deploy directory */
+    public static final String kDeployDir = "choreo-bin";
+
+    private static final int kMagic = 0x4a525443; // "CTRJ"
+    private static final short kVersion = 2;
+    private static final int kHeaderBytes = 16;
+    private static final int kSampleBytes = 7 * Float.BYTES;
+    private static final double[] kNoForces = new double[4];
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: BinaryTrajectory <choreo dir> <out dir>");
+            System.exit(1);
+        }
+        var outDir = Path.of(args[1]);
+        Files.createDirectories(outDir);
+        var gson = new Gson();
+
+        var files = new File(args[0]).listFiles((dir, name) -> name.endsWith(".traj"));
+        if (files == null) {
+            System.err.println("[TRAJ] no such directory " + args[0]);
+            System.exit(1);
+        }
+        long jsonBytes = 0;
+        long binBytes = 0;
+        var written = new HashSet<Path>();
+        for (var file : files) {
+            var name = file.getName().substring(0, file.getName().length() - ".traj".length());
+            if (isSplit(name)) {
+                continue;
+            }
+            ChoreoTrajectory traj;
+            try (var reader = new FileReader(file)) {
+                traj = gson.fromJson(reader, ChoreoTrajectory.class);
+            }
+            var out = outDir.resolve(name + kExtension);
+            Files.write(out, encode(traj, sourceHash(file)).array());
+            written.add(out);
+            jsonBytes += file.length();
+            binBytes += Files.size(out);
+        }
+        System.out.println("[TRAJ] converted " + written.size() + " trajectories, " + jsonBytes / 1024 + " KiB -> "
+            + binBytes / 1024 + " KiB");
+
+        // binaries of renamed or deleted trajectories, or from before a trajectory was split, would otherwise get
+        // deployed forever
+        try (var existing = Files.list(outDir)) {
+            for (var old : existing.filter((f) -> f.toString().endsWith(kExtension) && !written.contains(f)).toList()) {
+                Files.delete(old);
+                System.out.println("[TRAJ] removed stale " + old.getFileName());
+            }
+        }
+    }
+
+    /** @return Whether this is one piece of a split trajectory, e.g. {@code amp_side.2} */
+    public static boolean isSplit(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && dot < name.length() - 1 && name.substring(dot + 1).chars().allMatch(Character::isDigit);
+    }
+
+    /** @return CRC32 of the file, what the binary's header records about the .traj it was made from */
+    public static int sourceHash(File traj) throws IOException {
+        var crc = new CRC32();
+        crc.update(Files.readAllBytes(traj.toPath()));
+        return (int) crc.getValue();
+    }
+
+    public static ByteBuffer encode(ChoreoTrajectory traj, int sourceHash) {
+        var samples = traj.getSamples();
+        var buf = ByteBuffer.allocate(kHeaderBytes + samples.size() * kSampleBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(kMagic);
+        buf.putShort(kVersion);
+        buf.putShort((short) 0); // flags, none yet
+        buf.putInt(samples.size());
+        buf.putInt(sourceHash);
+        for (var state : samples) {
+            buf.putFloat((float) state.timestamp);
+            buf.putFloat((float) state.x);
+            buf.putFloat((float) state.y);
+            buf.putFloat((float) state.heading);
+            buf.putFloat((float) state.velocityX);
+            buf.putFloat((float) state.velocityY);
+            buf.putFloat((float) state.angularVelocity);
+        }
+        return buf;
+    }
+
+    /** @param sourceHash - {@link #sourceHash} of the .traj it should have come from */
+    public static ChoreoTrajectory decode(ByteBuffer buf, int sourceHash) throws IOException {
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.getInt() != kMagic) {
+            throw new IOException("not a binary trajectory");
+        }
+        short version = buf.getShort();
+        if (version != kVersion) {
+            throw new IOException("binary trajectory version " + version + ", expected " + kVersion);
+        }
+        buf.getShort(); // flags
+        int count = buf.getInt();
+        if (buf.getInt() != sourceHash) {
+            throw new IOException("made from a different .traj, it changed since the last convertTrajectories");
+        }
+        if (buf.remaining() < count * kSampleBytes) {
+            throw new IOException("binary trajectory truncated, " + count + " samples in " + buf.remaining() + " bytes");
+        }
+
+        var samples = new ArrayList<ChoreoTrajectoryState>(count);
+        for (int i = 0; i < count; i++) {
+            samples.add(new ChoreoTrajectoryState(
+                buf.getFloat(), buf.getFloat(), buf.getFloat(), buf.getFloat(),
+                buf.getFloat(), buf.getFloat(), buf.getFloat(),
+                kNoForces, kNoForces));
+        }
+        return new ChoreoTrajectory(samples);
+    }
+
+    /**
+     * Memory maps the file instead of reading it through a stream.
+     * @param source - The .traj it should have been made from, throws if it's changed since
+     */
+    public static ChoreoTrajectory load(File file, File source) throws IOException {
+        int sourceHash = sourceHash(source);
+        try (var raf = new RandomAccessFile(file, "r"); var channel = raf.getChannel()) {
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), sourceHash);
+        }
+    }
+}
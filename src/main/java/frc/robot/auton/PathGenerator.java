@@ -0,0 +1,111 @@
+package frc.robot.auton;
+
+import static edu.wpi.first.units.Units.Meters;
+import static frc.robot.Constants.AutoK.kPathGenConstraints;
+import static frc.robot.Constants.AutoK.kPathGenMargin;
+import static frc.robot.Constants.FieldK.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.subsystems.Swerve;
+import frc.util.AllianceFlipUtil;
+import frc.util.VisibilityGraphPlanner;
+import frc.util.VisibilityGraphPlanner.Zone;
+import frc.util.logging.WaltLogger;
+import frc.util.logging.WaltLogger.DoubleLogger;
+import frc.util.logging.WaltLogger.IntLogger;
+
+/**
+ * Plans a path from wherever the robot is to a field target when the command starts, around both stages' clearance
+ * zones, and follows it with the PathPlanner follower. A {@link Swerve#driveToPose} on the end lines the robot up
+ * exactly, since the follower only gets close.
+ * <p>
+ * Everything is planned in blue coordinates and PathPlanner flips it for red, the same as the pregenerated paths.
+ */
+public final class PathGenerator {
+    private PathGenerator() {}
+
+    private static final String kDbTabName = "PathGenerator";
+    private static final double kMinPathLength = 0.1; // meters, closer than this just gets lined up
+
+    public enum FieldTarget {
+        AMP(kBlueAmpScoringPose),
+        SUBWOOFER(kBlueSubwooferScoringPose),
+        SOURCE(kBlueSourcePose),
+        STAGE_CENTER(kBlueStageCenterTrapPose),
+        STAGE_AMP(kBlueStageAmpTrapPose),
+        STAGE_SOURCE(kBlueStageSourceTrapPose);
+
+        public final Pose2d m_bluePose;
+
+        private FieldTarget(Pose2d bluePose) {
+            m_bluePose = bluePose;
+        }
+    }
+
+    private static final VisibilityGraphPlanner kPlanner = new VisibilityGraphPlanner(
+        List.of(
+            new Zone(kBlueStageClearanceDs, kBlueStageClearanceRight,
+                kBlueStageClearanceCenter, kBlueStageClearanceLeft),
+            new Zone(kRedStageClearanceCenter, kRedStageClearanceRight,
+                kRedStageClearanceDs, kRedStageClearanceLeft)),
+        kPathGenMargin, kFieldLength.in(Meters), kFieldWidth.in(Meters));
+
+    private static final DoubleLogger log_planMs = WaltLogger.logDouble(kDbTabName, "planMs");
+    private static final IntLogger log_waypoints = WaltLogger.logInt(kDbTabName, "waypoints");
+
+    /** @return The path from {@code bluePose} to the target, null if it's too short to bother following */
+    public static PathPlannerPath plan(Pose2d bluePose, FieldTarget target) {
+        var goal = target.m_bluePose;
+        if (bluePose.getTranslation().getDistance(goal.getTranslation()) < kMinPathLength) {
+            return null;
+        }
+
+        List<Translation2d> waypoints;
+        // the planner reuses its search state
+        synchronized (kPlanner) {
+            waypoints = kPlanner.plan(bluePose.getTranslation(), goal.getTranslation());
+        }
+
+        // each waypoint's rotation is the direction of travel through it, which is what shapes the bezier curve
+        var poses = new ArrayList<Pose2d>(waypoints.size());
+        for (int i = 0; i < waypoints.size(); i++) {
+            var from = waypoints.get(Math.max(i - 1, 0));
+            var to = waypoints.get(Math.min(i + 1, waypoints.size() - 1));
+            var heading = to.minus(from);
+            poses.add(new Pose2d(waypoints.get(i), new Rotation2d(heading.getX(), heading.getY())));
+        }
+        log_waypoints.accept(waypoints.size());
+
+        return new PathPlannerPath(
+            PathPlannerPath.bezierFromPoses(poses),
+            kPathGenConstraints,
+            new GoalEndState(0, goal.getRotation()));
+    }
+
+    public static Command goTo(Swerve swerve, FieldTarget target) {
+        return Commands.defer(() -> {
+            long start = System.nanoTime();
+            var path = plan(AllianceFlipUtil.apply(swerve.getPose()), target);
+            log_planMs.accept((System.nanoTime() - start) / 1e6);
+
+            // held on a button, so it keeps the robot there until it's let go
+            var lineUp = swerve.driveToPose(true, () -> AllianceFlipUtil.apply(target.m_bluePose));
+            if (path == null) {
+                return lineUp;
+            }
+            return AutoBuilder.followPath(path).andThen(lineUp);
+        }, Set.of(swerve)).withName("GoTo" + target.name());
+    }
+}
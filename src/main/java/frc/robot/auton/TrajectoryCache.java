@@ -0,0 +1,245 @@
+package frc.robot.auton;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.choreo.lib.Choreo;
+import com.choreo.lib.ChoreoTrajectory;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Parses every Choreo file in the deploy directory once, on background threads, with both alliances' versions and
+ * starting poses worked out up front.
+ * <p>
+ * {@link #preload} starts the parsing as early as possible so it overlaps the rest of robot init. Every getter after
+ * that is a map lookup, and only blocks if that file isn't done yet. Split trajectories ({@code name.1}, {@code name.2})
+ * are loaded as {@link PathPlannerPath}s and whole ones as {@link ChoreoTrajectory}s, matching how the autons use them.
+ * Whole ones come from their {@link BinaryTrajectory} when the build made one for the current .traj, and from the JSON
+ * otherwise. Split ones are always parsed from the JSON, PathPlanner has no public way to build a Choreo path from
+ * anything else. The preload report splits the load time by which one it came from, so deleting {@code choreo-bin}
+ * gives the JSON-only time.
+ * <p>
+ * Whole trajectories also keep both alliances' poses, so drawing them on the field or following the flipped one doesn't
+ * rebuild anything.
+ */
+public final class TrajectoryCache {
+    private TrajectoryCache() {}
+
+    private static final String kChoreoDir = "choreo";
+    private static final String kExtension = ".traj";
+
+    public record PathEntry(
+        String name, PathPlannerPath blue, PathPlannerPath red, Pose2d blueInitPose, Pose2d redInitPose) {
+        public PathPlannerPath get(boolean isRed) {
+            return isRed ? red : blue;
+        }
+
+        public Pose2d getInitPose(boolean isRed) {
+            return isRed ? redInitPose : blueInitPose;
+        }
+    }
+
+    /** The pose arrays are shared, don't write to them */
+    public record TrajEntry(
+        String name, ChoreoTrajectory blue, ChoreoTrajectory red, Pose2d[] bluePoses, Pose2d[] redPoses) {
+        public ChoreoTrajectory get(boolean isRed) {
+            return isRed ? red : blue;
+        }
+
+        public Pose2d getInitPose(boolean isRed) {
+            return get(isRed).getInitialPose();
+        }
+
+        public Pose2d[] getPoses(boolean isRed) {
+            return isRed ? redPoses : bluePoses;
+        }
+    }
+
+    private static final ExecutorService kPool = Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()),
+        (runnable) -> {
+            var thread = new Thread(runnable, "TrajectoryCache");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private static final Map<String, CompletableFuture<PathEntry>> kPaths = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<TrajEntry>> kTrajs = new ConcurrentHashMap<>();
+    // lets code that's only handed a path or trajectory find its entry, e.g. Swerve.resetPose
+    private static final Map<PathPlannerPath, PathEntry> kPathsByBlue = new IdentityHashMap<>();
+    private static final Map<ChoreoTrajectory, TrajEntry> kTrajsByBlue = new IdentityHashMap<>();
+    private static boolean preloaded = false;
+
+    // summed over the loading threads, so it's CPU time more than wall time
+    private static final AtomicLong kBinaryNanos = new AtomicLong();
+    private static final AtomicLong kJsonNanos = new AtomicLong();
+    private static final AtomicInteger kBinaryCount = new AtomicInteger();
+    private static final AtomicInteger kJsonCount = new AtomicInteger();
+
+    /** Starts parsing every trajectory in the deploy directory in the background. Safe to call more than once */
+    public static synchronized void preload() {
+        if (preloaded) {
+            return;
+        }
+        preloaded = true;
+
+        var files = new File(Filesystem.getDeployDirectory(), kChoreoDir).listFiles();
+        if (files == null) {
+            System.out.println("[TRAJ] No " + kChoreoDir + " deploy directory, nothing to preload");
+            return;
+        }
+        long start = System.nanoTime();
+        var all = new ArrayList<CompletableFuture<?>>();
+        for (var file : files) {
+            var fileName = file.getName();
+            if (!fileName.endsWith(kExtension)) {
+                continue;
+            }
+            var name = fileName.substring(0, fileName.length() - kExtension.length());
+            all.add(BinaryTrajectory.isSplit(name) ? pathFuture(name) : trajFuture(name));
+        }
+        CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).whenComplete((result, error) -> {
+            System.out.println("[TRAJ] Preloaded " + all.size() + " trajectories in "
+                + (System.nanoTime() - start) / 1e6 + " ms" + (error != null ? ", " + error : ""));
+            System.out.println("[TRAJ] " + kBinaryCount.get() + " from binary in " + kBinaryNanos.get() / 1e6
+                + " ms, " + kJsonCount.get() + " from JSON in " + kJsonNanos.get() / 1e6 + " ms");
+        });
+    }
+
+    private static CompletableFuture<PathEntry> pathFuture(String name) {
+        return kPaths.computeIfAbsent(name, (n) -> CompletableFuture.supplyAsync(() -> loadPath(n), kPool));
+    }
+
+    private static CompletableFuture<TrajEntry> trajFuture(String name) {
+        return kTrajs.computeIfAbsent(name, (n) -> CompletableFuture.supplyAsync(() -> loadTraj(n), kPool));
+    }
+
+    private static PathEntry loadPath(String name) {
+        long start = System.nanoTime();
+        var blue = PathPlannerPath.fromChoreoTrajectory(name);
+        countLoad(false, start);
+        var red = blue.flipPath();
+        var entry = new PathEntry(name, blue, red, initPose(blue), initPose(red));
+        synchronized (kPathsByBlue) {
+            kPathsByBlue.put(blue, entry);
+        }
+        return entry;
+    }
+
+    private static Pose2d initPose(PathPlannerPath path) {
+        // Choreo paths hand back the trajectory they were loaded with, this doesn't regenerate it
+        return path.getTrajectory(new ChassisSpeeds(), new Rotation2d()).getInitialTargetHolonomicPose();
+    }
+
+    private static TrajEntry loadTraj(String name) {
+        long start = System.nanoTime();
+        var blue = loadBinary(name);
+        boolean binary = blue != null;
+        if (!binary) {
+            blue = Choreo.getTrajectory(name);
+        }
+        countLoad(binary, start);
+        var red = blue.flipped();
+        var entry = new TrajEntry(name, blue, red, blue.getPoses(), red.getPoses());
+        synchronized (kTrajsByBlue) {
+            kTrajsByBlue.put(blue, entry);
+        }
+        return entry;
+    }
+
+    /** Adds the time since {@code start} to the binary or JSON total, a failed binary load counts as JSON */
+    private static void countLoad(boolean binary, long start) {
+        (binary ? kBinaryNanos : kJsonNanos).addAndGet(System.nanoTime() - start);
+        (binary ? kBinaryCount : kJsonCount).incrementAndGet();
+    }
+
+    /** @return The trajectory from its {@link BinaryTrajectory}, null if there isn't a usable one */
+    private static ChoreoTrajectory loadBinary(String name) {
+        var file = new File(Filesystem.getDeployDirectory(),
+            BinaryTrajectory.kDeployDir + File.separator + name + BinaryTrajectory.kExtension);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return BinaryTrajectory.load(file, new File(Filesystem.getDeployDirectory(),
+                kChoreoDir + File.separator + name + kExtension));
+        } catch (IOException e) {
+            System.out.println("[TRAJ] " + file.getName() + " unusable, parsing the JSON instead: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** @param name - File name without {@value #kExtension}, e.g. {@code amp_side.1} */
+    public static PathEntry getPathEntry(String name) {
+        return pathFuture(name).join();
+    }
+
+    /** @return The blue version of the path, which is what AutoBuilder wants since it flips for red itself */
+    public static PathPlannerPath getPath(String name) {
+        return getPathEntry(name).blue();
+    }
+
+    /** @return The preloaded pieces of a split trajectory in order, e.g. {@code amp_side.1} onwards for {@code amp_side} */
+    public static List<PathEntry> getSplitPaths(String name) {
+        var paths = new ArrayList<PathEntry>();
+        for (int i = 1; kPaths.containsKey(name + "." + i); i++) {
+            paths.add(getPathEntry(name + "." + i));
+        }
+        return paths;
+    }
+
+    public static TrajEntry getTrajEntry(String name) {
+        return trajFuture(name).join();
+    }
+
+    public static ChoreoTrajectory getTrajectory(String name) {
+        return getTrajEntry(name).blue();
+    }
+
+    /** @return The trajectory for this alliance, the cached flip if it came from here */
+    public static ChoreoTrajectory forAlliance(ChoreoTrajectory blueTraj, boolean isRed) {
+        if (!isRed) {
+            return blueTraj;
+        }
+        var entry = find(blueTraj);
+        return entry != null ? entry.red() : blueTraj.flipped();
+    }
+
+    /** @return Every pose along the trajectory for this alliance, without rebuilding them if it came from here */
+    public static Pose2d[] getPoses(ChoreoTrajectory blueTraj, boolean isRed) {
+        var entry = find(blueTraj);
+        if (entry != null) {
+            return entry.getPoses(isRed);
+        }
+        return forAlliance(blueTraj, isRed).getPoses();
+    }
+
+    /** @return The entry for a path this cache handed out, null for any other path */
+    public static PathEntry find(PathPlannerPath bluePath) {
+        synchronized (kPathsByBlue) {
+            return kPathsByBlue.get(bluePath);
+        }
+    }
+
+    /** @return The entry for a trajectory this cache handed out, null for any other trajectory */
+    public static TrajEntry find(ChoreoTrajectory blueTraj) {
+        synchronized (kTrajsByBlue) {
+            return kTrajsByBlue.get(blueTraj);
+        }
+    }
+}
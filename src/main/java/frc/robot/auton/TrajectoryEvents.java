@@ -0,0 +1,267 @@
+package frc.robot.auton;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.PathPlannerTrajectory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.util.AllianceFlipUtil;
+
+/**
+ * Fires commands at set points along a path, by how far along it the robot actually is, instead of a wait tuned by
+ * hand before them. Progress is the distance along the path to the point nearest the robot's pose, so a robot running
+ * behind the path's timing fires its events late too, and one that's ahead fires them early.
+ * <p>
+ * Events run inside the returned command along with the follower, so their requirements are its requirements. Once
+ * the follower finishes the robot is at the end of the path, so anything that hasn't fired yet fires then. It ends
+ * when the follower and every event are done.
+ */
+public class TrajectoryEvents {
+    private record Event(double distance, Command command) {}
+
+    // how many samples ahead of the last nearest one to look, a bit over half a second of a Choreo path
+    private static final int kSearchWindow = 10;
+
+    private final PathPlannerTrajectory m_traj;
+    private final Supplier<Pose2d> m_pose;
+    private final Translation2d[] m_bluePoints;
+    private final Translation2d[] m_redPoints;
+    // meters travelled by each of the trajectory's states
+    private final double[] m_distances;
+    private final List<Event> m_events = new ArrayList<>();
+
+    private TrajectoryEvents(PathPlannerPath path, Supplier<Pose2d> pose) {
+        m_pose = pose;
+        // Choreo paths hand back the trajectory they were loaded with, this doesn't regenerate it
+        m_traj = path.getTrajectory(new ChassisSpeeds(), new Rotation2d());
+        var states = m_traj.getStates();
+        int count = Math.max(states.size(), 1);
+        m_bluePoints = new Translation2d[count];
+        m_redPoints = new Translation2d[count];
+        m_distances = new double[count];
+        for (int i = 0; i < states.size(); i++) {
+            m_bluePoints[i] = states.get(i).positionMeters;
+            // flip(Translation2d) only flips when on red, the x one always does
+            m_redPoints[i] = new Translation2d(AllianceFlipUtil.flip(m_bluePoints[i].getX()), m_bluePoints[i].getY());
+            if (i > 0) {
+                m_distances[i] = m_distances[i - 1] + m_bluePoints[i].getDistance(m_bluePoints[i - 1]);
+            }
+        }
+        if (states.isEmpty()) {
+            m_bluePoints[0] = new Translation2d();
+            m_redPoints[0] = new Translation2d();
+        }
+    }
+
+    /**
+     * @param path - The blue path, AutoBuilder flips it for red and so do the events
+     * @param pose - The robot's pose, to tell how far along the path it is
+     */
+    public static TrajectoryEvents along(PathPlannerPath path, Supplier<Pose2d> pose) {
+        return new TrajectoryEvents(path, pose);
+    }
+
+    /** @param seconds - From the start of the path by its timing, turned into the distance the path is at then */
+    public TrajectoryEvents atTime(double seconds, Command command) {
+        return atDistance(distanceAtTime(seconds), command);
+    }
+
+    /** @param meters - Along the path from its start, clamped to the path */
+    public TrajectoryEvents atDistance(double meters, Command command) {
+        m_events.add(new Event(Math.max(0, Math.min(meters, getLength())), command));
+        return this;
+    }
+
+    /** @param meters - Along the path back from its end, e.g. how far short of a note to start intaking */
+    public TrajectoryEvents beforeEnd(double meters, Command command) {
+        return atDistance(getLength() - meters, command);
+    }
+
+    /**
+     * Like {@link #beforeEnd(double, Command)}, but no sooner than where the path's timing has the robot
+     * {@code notBeforeSeconds} in. On a path shorter than {@code meters} the plain one fires at the start.
+     * @param notBeforeSeconds - e.g. the wait the event replaced, so it never fires earlier than that did
+     */
+    public TrajectoryEvents beforeEnd(double meters, double notBeforeSeconds, Command command) {
+        return atDistance(Math.max(getLength() - meters, distanceAtTime(notBeforeSeconds)), command);
+    }
+
+    /** @return Meters along the whole path */
+    public double getLength() {
+        return m_distances[m_distances.length - 1];
+    }
+
+    private double distanceAtTime(double seconds) {
+        var states = m_traj.getStates();
+        for (int i = 1; i < m_distances.length; i++) {
+            double time = states.get(i).timeSeconds;
+            if (time >= seconds) {
+                double prevTime = states.get(i - 1).timeSeconds;
+                double frac = time > prevTime ? Math.max(0, seconds - prevTime) / (time - prevTime) : 0;
+                return m_distances[i - 1] + frac * (m_distances[i] - m_distances[i - 1]);
+            }
+        }
+        return getLength();
+    }
+
+    /** @return {@code follower}, with the events fired alongside it. Don't use this object after */
+    public Command follow(Command follower) {
+        m_events.sort(Comparator.comparingDouble(Event::distance));
+        return new EventRunner(this, follower);
+    }
+
+    private static class EventRunner extends Command {
+        private final Command m_follower;
+        private final Supplier<Pose2d> m_pose;
+        private final Translation2d[] m_bluePoints;
+        private final Translation2d[] m_redPoints;
+        private final double[] m_distances;
+        private final double[] m_eventDistances;
+        private final Command[] m_commands;
+        private final boolean[] m_running;
+
+        private Translation2d[] m_points;
+        private boolean m_followerDone = false;
+        private int m_nearest = 0;
+        private double m_progress = 0;
+        private int m_next = 0;
+
+        private EventRunner(TrajectoryEvents events, Command follower) {
+            m_follower = follower;
+            m_pose = events.m_pose;
+            m_bluePoints = events.m_bluePoints;
+            m_redPoints = events.m_redPoints;
+            m_distances = events.m_distances;
+            m_points = m_bluePoints;
+
+            int count = events.m_events.size();
+            m_eventDistances = new double[count];
+            m_commands = new Command[count];
+            m_running = new boolean[count];
+            addRequirements(follower.getRequirements());
+            for (int i = 0; i < count; i++) {
+                m_eventDistances[i] = events.m_events.get(i).distance();
+                m_commands[i] = events.m_events.get(i).command();
+                addRequirements(m_commands[i].getRequirements());
+            }
+            CommandScheduler.getInstance().registerComposedCommands(follower);
+            CommandScheduler.getInstance().registerComposedCommands(m_commands);
+            setName(follower.getName());
+        }
+
+        @Override
+        public void initialize() {
+            m_points = AllianceFlipUtil.shouldFlip() ? m_redPoints : m_bluePoints;
+            m_followerDone = false;
+            m_nearest = 0;
+            m_progress = 0;
+            m_next = 0;
+            m_follower.initialize();
+        }
+
+        /** Moves m_progress up to the distance along the path nearest the robot, it never goes back */
+        private void updateProgress() {
+            var position = m_pose.get().getTranslation();
+            int last = Math.min(m_points.length - 1, m_nearest + kSearchWindow);
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = m_nearest; i <= last; i++) {
+                double dist = position.getDistance(m_points[i]);
+                if (dist < best) {
+                    best = dist;
+                    m_nearest = i;
+                }
+            }
+
+            // between the nearest sample and whichever neighbor the robot is towards
+            double progress = m_distances[m_nearest];
+            if (m_nearest + 1 < m_points.length) {
+                progress = Math.max(progress, project(position, m_nearest, m_nearest + 1));
+            }
+            if (m_nearest > 0) {
+                progress = Math.max(progress, project(position, m_nearest - 1, m_nearest));
+            }
+            m_progress = Math.max(m_progress, progress);
+        }
+
+        /** @return Distance along the path of {@code position} projected onto the segment from {@code a} to {@code b} */
+        private double project(Translation2d position, int a, int b) {
+            var segment = m_points[b].minus(m_points[a]);
+            double lengthSq = segment.getX() * segment.getX() + segment.getY() * segment.getY();
+            if (lengthSq == 0) {
+                return m_distances[a];
+            }
+            var offset = position.minus(m_points[a]);
+            double t = (offset.getX() * segment.getX() + offset.getY() * segment.getY()) / lengthSq;
+            t = Math.max(0, Math.min(t, 1));
+            return m_distances[a] + t * (m_distances[b] - m_distances[a]);
+        }
+
+        @Override
+        public void execute() {
+            if (!m_followerDone) {
+                m_follower.execute();
+                if (m_follower.isFinished()) {
+                    m_follower.end(false);
+                    m_followerDone = true;
+                }
+            }
+            if (m_followerDone) {
+                m_progress = m_distances[m_distances.length - 1];
+            } else {
+                updateProgress();
+            }
+
+            while (m_next < m_eventDistances.length && m_eventDistances[m_next] <= m_progress) {
+                m_commands[m_next].initialize();
+                m_running[m_next] = true;
+                m_next++;
+            }
+            for (int i = 0; i < m_next; i++) {
+                if (!m_running[i]) {
+                    continue;
+                }
+                m_commands[i].execute();
+                if (m_commands[i].isFinished()) {
+                    m_commands[i].end(false);
+                    m_running[i] = false;
+                }
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            if (!m_followerDone || m_next < m_eventDistances.length) {
+                return false;
+            }
+            for (var running : m_running) {
+                if (running) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void end(boolean interrupted) {
+            if (!m_followerDone) {
+                m_follower.end(true);
+                m_followerDone = true;
+            }
+            for (int i = 0; i < m_commands.length; i++) {
+                if (m_running[i]) {
+                    m_commands[i].end(true);
+                    m_running[i] = false;
+                }
+            }
+        }
+    }
+}
@@ -15,9 +15,14 @@ import frc.robot.subsystems.Superstructure;
 
 import static edu.wpi.first.units.Units.*;
 import static edu.wpi.first.wpilibj2.command.Commands.*;
+import static frc.robot.Constants.RotationsPerMinute;
+import static frc.robot.Constants.AutoK.kIntakeLeadDistance;
+import static frc.robot.Constants.ShooterK.kSpeakerSpinAmt;
+import static frc.robot.Constants.ShooterK.kSubwooferRpm;
+import static frc.robot.auton.AutonProfiler.*;
 import static frc.util.CommandDoodads.*;
 
-import com.pathplanner.lib.auto.AutoBuilder;
+import frc.robot.auton.AutonProfiler.Kind;
 
 public final class VisionAutonFactory {
 	private static IntLogger log_autonSeqInt = WaltLogger.logInt("Auton", "SequenceNum", PubSubOption.sendAll(true));
@@ -42,7 +47,7 @@ public final class VisionAutonFactory {
 	private static Command preloadShot(Superstructure superstructure, Aim aim) {
 		var noteReady = superstructure.forceStateToNoteReady();
 		var setTarget = aim.setTarget(AimK.kSubwooferAngle);
-		var shoot = superstructure.autonShootReq();
+		var shoot = track("shoot", Kind.SHOT, superstructure.autonShootReq());
 
 		return sequence(
 			noteReady,
@@ -55,12 +60,13 @@ public final class VisionAutonFactory {
 		);
 	}
 
-	private static Command theWrapper(Command auton, Shooter shooter, Aim aim) {
+	private static Command theWrapper(Command auton, Superstructure superstructure) {
+		var prepare = superstructure.getShotCoordinator()
+			.prepareVision(RotationsPerMinute.of(kSubwooferRpm), kSpeakerSpinAmt, notAuton());
 		return sequence(
 			runOnce(() -> m_autonTimer.restart()),
 			race(
-                aim.aim(),
-				shooter.subwoofer(notAuton()),
+				prepare,
 				auton
 			),
 			runOnce(() -> m_autonTimer.stop()),
@@ -70,12 +76,12 @@ public final class VisionAutonFactory {
 
 	private static Command ampTwoInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var resetPose = swerve.resetPose(Paths.ampSide1);
-		var pathFollow = AutoBuilder.followPath(Paths.ampSide1).withName("PathFollow");
+		var pathFollow = followPath(Paths.ampSide1).withName("PathFollow");
 		var preloadShot = preloadShot(superstructure, aim);
-		var intake = superstructure.autonIntakeReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
 		var aimTarget = aim.setTarget(Degrees.of(2.25));
 		var swerveAim = swerve.faceSpeakerTagAuton();
-		var secondShotReq = superstructure.autonShootReq();
+		var secondShotReq = track("secondShotReq", Kind.SHOT, superstructure.autonShootReq());
 
 		return sequence(
 			logSeqIncr(),
@@ -85,7 +91,7 @@ public final class VisionAutonFactory {
 			),
 			print("resetPose and preloadShot done"),
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
+			idleUntil("idle", superstructure.stateTrg_idle),
 			logSeqIncr(),
 			parallel(
 				print("should be intaking"),
@@ -96,23 +102,23 @@ public final class VisionAutonFactory {
 			either(aimTarget, swerveAim, () -> aim.m_measurementTimer.hasElapsed(0.1)),
 			secondShotReq,
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("TwoPcSequence");
 	}
 
 	public static Command ampTwo(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var auton = ampTwoInternal(superstructure, shooter, swerve, aim);
-		return theWrapper(auton, shooter, aim).withName("AmpTwoFullAuton");
+		return theWrapper(auton, superstructure).withName("AmpTwoFullAuton");
 	}
 
 	private static Command ampThreeInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var two = ampTwoInternal(superstructure, shooter, swerve, aim);
 		/* everything from 3 piece */
-		var pathFollow = AutoBuilder.followPath(Paths.ampSide2);
-		var intake = superstructure.autonIntakeReq();
+		var pathFollow = followPath(Paths.ampSide2);
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
 		var aimTarget = aim.setTarget(Degrees.of(0));
 		var swerveAim = swerve.faceSpeakerTagAuton();
-		var thirdShotReq = superstructure.autonShootReq();
+		var thirdShotReq = track("thirdShotReq", Kind.SHOT, superstructure.autonShootReq());
 		
 		return sequence(
 			/* 2 piece */
@@ -120,83 +126,78 @@ public final class VisionAutonFactory {
 			/* 3 piece */
 			parallel(
 				sequence(
-					waitSeconds(0.1),
+					idleFor(0.1),
 					intake
 				),
 				pathFollow
 			),
 			either(aimTarget, swerveAim, () -> aim.m_measurementTimer.hasElapsed(0.1)),
 			thirdShotReq,
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("ThreePcSequence");
 	}
 
 	public static Command ampThree(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var auton = ampThreeInternal(superstructure, shooter, swerve, aim);
-		return theWrapper(auton, shooter, aim).withName("AmpThreeFullAuton");
+		return theWrapper(auton, superstructure).withName("AmpThreeFullAuton");
 	}
 
 	private static Command ampFourInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var three = ampThreeInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.ampSide3);
-		var intake = superstructure.autonIntakeReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.ampSide3, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.ampSide3));
 		var aimTarget = aim.setTarget(Degrees.of(1));
 		var swerveAim = swerve.faceSpeakerTagAuton();
-		var fourthShotReq = superstructure.autonShootReq();
+		var fourthShotReq = track("fourthShotReq", Kind.SHOT, superstructure.autonShootReq());
 
-		return sequence( // 3pc then (path and (wait then intake))
+		return sequence( // 3pc then path, intaking on the way in
 			three,
-			waitUntil(superstructure.stateTrg_idle),
-			parallel( // path and (wait then intake) 
-				sequence( // wait then intake
-					waitSeconds(0.8),
-					intake
-				),
-				pathFollow
-			),
+			idleUntil("idle", superstructure.stateTrg_idle),
+			pathFollow, // intaking on the way in
 			either(aimTarget, swerveAim, () -> aim.m_measurementTimer.hasElapsed(0.1)),
             fourthShotReq,
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		);
 	}
 
 	public static Command ampFour(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var auton = ampFourInternal(superstructure, shooter, swerve, aim);
-		return theWrapper(auton, shooter, aim).withName("AmpFourFullAuton");
+		return theWrapper(auton, superstructure).withName("AmpFourFullAuton");
 	}
 
 	public static Command ampFive(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var four = ampFourInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.ampSide4);
-		var intake = superstructure.autonIntakeReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.ampSide4, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.ampSide4));
 		var aimTarget = aim.setTarget(Degrees.of(1));
 		var swerveAim = swerve.faceSpeakerTagAuton();
-		var fifthShotReq = superstructure.autonShootReq();
+		var fifthShotReq = track("fifthShotReq", Kind.SHOT, superstructure.autonShootReq());
 
-		var auton = sequence( // 3pc then (path and (wait then intake))
+		var auton = sequence( // 3pc then path, intaking on the way in
 			four,
-			waitUntil(superstructure.stateTrg_idle),
-			parallel( // path and (wait then intake) 
-				sequence( // wait then intake
-					waitSeconds(0.8),
-					intake
-				),
-				pathFollow
-			),
+			idleUntil("idle", superstructure.stateTrg_idle),
+			pathFollow, // intaking on the way in
 			either(aimTarget, swerveAim, () -> aim.m_measurementTimer.hasElapsed(0.1)),
             fifthShotReq,
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		);
 
-		return theWrapper(auton, shooter, aim).withName("FivePcFullAuton");
+		return theWrapper(auton, superstructure).withName("FivePcFullAuton");
 	}
 
 	public static Command sourceTwoInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var resetPose = swerve.resetPose(Paths.sourceSide1);
-		var pathFollow = AutoBuilder.followPath(Paths.sourceSide1).withName("PathFollow");
 		var preloadShot = preloadShot(superstructure, aim);
-		var intake = superstructure.autonIntakeReq();
-		var secondShotReq = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.sourceSide1, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 1.5, intake)
+			.follow(followPath(Paths.sourceSide1))
+			.withName("PathFollow");
+		var secondShotReq = track("secondShotReq", Kind.SHOT, superstructure.autonShootReq());
 		var swerveAim = swerve.faceSpeakerTagAuton();
 
 		return sequence(
@@ -207,83 +208,68 @@ public final class VisionAutonFactory {
 			),
 			print("resetPose and preloadShot done"),
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
+			idleUntil("idle", superstructure.stateTrg_idle),
 			logSeqIncr(),
-			parallel(
-				print("should be intaking"),
-				sequence(
-					waitSeconds(1.5),
-					intake
-				),
-				pathFollow.andThen(print("path follow finished"))
-			),
+			pathFollow.andThen(print("path follow finished")),
 			print("aim finished, path follow finished, should be shooting"),
 			logSeqIncr(),
 			swerveAim,
 			secondShotReq,
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("SourceTwoPcSequence");
 	}
 
 	public static Command sourceTwo(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var auton = sourceTwoInternal(superstructure, shooter, swerve, aim);
-		return theWrapper(auton, shooter, aim).withName("SourceTwoFullAuton");
+		return theWrapper(auton, superstructure).withName("SourceTwoFullAuton");
 	}
 
 	public static Command sourceThreeInternal(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var two = sourceTwoInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.sourceSide2);
-		var intake = superstructure.autonIntakeReq();
-		var thirdShotReq = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.sourceSide2, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.sourceSide2));
+		var thirdShotReq = track("thirdShotReq", Kind.SHOT, superstructure.autonShootReq());
 		var swerveAim = swerve.faceSpeakerTagAuton();
 		
 		return sequence(
 			/* 2 piece */
 			two,
 			/* 3 piece */
-			parallel(
-				sequence(
-					waitSeconds(0.8),
-					intake
-				),
-				pathFollow
-			),
+			pathFollow,
 			swerveAim,
 			thirdShotReq,
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("ThreePcSequence");
 	}
 
 	public static Command sourceThree(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var auton = sourceThreeInternal(superstructure, shooter, swerve, aim);
-		return theWrapper(auton, shooter, aim).withName("SourceThreeFullAuton");
+		return theWrapper(auton, superstructure).withName("SourceThreeFullAuton");
 	}
 
 	public static Command sourceThreePointFive(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var three = sourceThreeInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.sourceSideAlt1);
-		var intake = superstructure.autonIntakeReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.sourceSideAlt1, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 0.8, intake)
+			.follow(followPath(Paths.sourceSideAlt1));
 		
 		var auton = sequence(
 			three,
-			parallel(
-				pathFollow,
-				sequence(
-					waitSeconds(0.8),
-					intake
-				)
-			)
+			pathFollow
 		).withName("SourceThreePointFiveSequence");
 
-		return theWrapper(auton, shooter, aim).withName("SourceThreePointFiveFullAuton"); // what a silly and goofy long name
+		return theWrapper(auton, superstructure).withName("SourceThreePointFiveFullAuton"); // what a silly and goofy long name
 	}
 
 	public static Command sourceFour(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var three = sourceThreeInternal(superstructure, shooter, swerve, aim);
-		var pathFollow = AutoBuilder.followPath(Paths.sourceSide3);
-		var intake = superstructure.autonIntakeReq();
-		var fourthShotReq = superstructure.autonShootReq();
+		var pathFollow = followPath(Paths.sourceSide3);
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var fourthShotReq = track("fourthShotReq", Kind.SHOT, superstructure.autonShootReq());
 		
 		var auton = sequence(
 			three,
@@ -294,18 +280,24 @@ public final class VisionAutonFactory {
 			fourthShotReq
 		).withName("SourceFourSequence");
 
-		return theWrapper(auton, shooter, aim).withName("SourceFourFullAuton");
+		return theWrapper(auton, superstructure).withName("SourceFourFullAuton");
 	}
 
 	public static Command g28Counter(Superstructure superstructure, Shooter shooter, Swerve swerve, Aim aim) {
 		var resetPose = swerve.resetPose(Paths.g28Counter1);
-		var pathFollow = AutoBuilder.followPath(Paths.g28Counter1).withName("PathFollow");
 		var preloadShot = preloadShot(superstructure, aim);
-		var intake = superstructure.autonIntakeReq();
-		var secondShotReq = superstructure.autonShootReq();
-		var pathFollow2 = AutoBuilder.followPath(Paths.g28Counter2).withName("PathFollow2");
-		var intake2 = superstructure.autonIntakeReq();
-		var thirdShotReq = superstructure.autonShootReq();
+		var intake = track("intake", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow = TrajectoryEvents.along(Paths.g28Counter1, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 1.5, intake)
+			.follow(followPath(Paths.g28Counter1))
+			.withName("PathFollow");
+		var secondShotReq = track("secondShotReq", Kind.SHOT, superstructure.autonShootReq());
+		var intake2 = track("intake2", Kind.INTAKE, superstructure.autonIntakeReq());
+		var pathFollow2 = TrajectoryEvents.along(Paths.g28Counter2, swerve::getPose)
+			.beforeEnd(kIntakeLeadDistance, 1.5, intake2)
+			.follow(followPath(Paths.g28Counter2))
+			.withName("PathFollow2");
+		var thirdShotReq = track("thirdShotReq", Kind.SHOT, superstructure.autonShootReq());
 
 		var auton = sequence(
 			logSeqIncr(),
@@ -315,32 +307,19 @@ public final class VisionAutonFactory {
 			),
 			print("resetPose and preloadShot done"),
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
+			idleUntil("idle", superstructure.stateTrg_idle),
 			logSeqIncr(),
-			parallel(
-				print("should be intaking"),
-				sequence(
-					waitSeconds(1.5),
-					intake
-				),
-				pathFollow.andThen(print("path follow finished"))
-			),
+			pathFollow.andThen(print("path follow finished")),
 			print("aim finished, path follow finished, should be shooting"),
 			logSeqIncr(),
 			secondShotReq,
 			logSeqIncr(),
-			waitUntil(superstructure.stateTrg_idle),
-			parallel(
-				sequence(
-					waitSeconds(1.5),
-					intake2
-				),
-				pathFollow2.andThen(print("path follow finished"))
-			),
+			idleUntil("idle", superstructure.stateTrg_idle),
+			pathFollow2.andThen(print("path follow finished")),
 			thirdShotReq,
-			waitUntil(superstructure.stateTrg_idle)
+			idleUntil("idle", superstructure.stateTrg_idle)
 		).withName("G28Counter");
 
-		return theWrapper(auton, shooter, aim).withName("G28CounterFull");
+		return theWrapper(auton, superstructure).withName("G28CounterFull");
 	}
 }
@@ -3,9 +3,12 @@ package frc.robot.subsystems;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.CANSparkBase.IdleMode;
 import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.util.CanRateManager;
+import frc.util.CanRateProfile;
 import frc.util.logging.WaltLogger;
 import frc.util.logging.WaltLogger.BooleanLogger;
 import frc.util.logging.WaltLogger.DoubleLogger;
@@ -31,6 +34,15 @@ public class Climber extends SubsystemBase {
 
         m_right.getEncoder().setPosition(0);
         m_left.getEncoder().setPosition(0);
+
+        // only the encoder position (Status2) is read, and only matters once the climb starts in teleop
+        for (var spark : new CANSparkMax[] {m_left, m_right}) {
+            CanRateManager.register(CanRateProfile.of(spark == m_left ? "ClimberLeft" : "ClimberRight", spark)
+                .frame(PeriodicFrame.kStatus0, 100, 100, 20)
+                .frame(PeriodicFrame.kStatus1, 200, 200, 50)
+                .frame(PeriodicFrame.kStatus2, 100, 100, 20)
+                .unusedFrames());
+        }
     }
 
     public Command retractBoth() {
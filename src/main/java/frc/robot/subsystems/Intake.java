@@ -4,12 +4,15 @@ import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.util.CanRateManager;
+import frc.util.CanRateProfile;
 import frc.util.WaltRangeChecker;
-import frc.util.logging.WaltLogger;
+import frc.util.logging.TelemetryRouter;
 import frc.util.logging.WaltLogger.DoubleLogger;
 
 import static frc.robot.Constants.IntakeK.*;
@@ -23,24 +26,30 @@ public class Intake extends SubsystemBase {
 
     public final Trigger trg_middleRollerCurrentSpike = new Trigger(() -> m_feeder.getOutputCurrent() > 20).debounce(0.1);
 
-    private final DoubleLogger log_statorCurrent = WaltLogger.logDouble("Intake", "statorCurrent");
-    private final DoubleLogger log_supplyCurrent = WaltLogger.logDouble("Intake", "supplyCurrent");
-    private final DoubleLogger log_outputVoltage = WaltLogger.logDouble("Intake", "outputVoltage");
-    private final DoubleLogger log_supplyVoltage = WaltLogger.logDouble("Intake", "supplyVoltage");
-
-    private final DoubleLogger log_middleStatorCurrent = WaltLogger.logDouble("Intake/MiddleRoller", "statorCurrent");
-    private final DoubleLogger log_middleOutputVoltage = WaltLogger.logDouble("Intake/MiddleRoller", "outputVoltage");
-    private final DoubleLogger log_middleSupplyVoltage = WaltLogger.logDouble("Intake/MiddleRoller", "supplyVoltage");
+    // the SparkMax isn't in the hoot, so it still goes through WaltLogger
+    private final DoubleLogger log_middleStatorCurrent = TelemetryRouter.wpilog("Intake/MiddleRoller", "statorCurrent");
+    private final DoubleLogger log_middleOutputVoltage = TelemetryRouter.wpilog("Intake/MiddleRoller", "outputVoltage");
+    private final DoubleLogger log_middleSupplyVoltage = TelemetryRouter.wpilog("Intake/MiddleRoller", "supplyVoltage");
 
     public Intake() {
         m_motor.getConfigurator().apply(IntakeConfigs.kConfigs);
         runMainRollers(0);
 
-        m_motor.getStatorCurrent().setUpdateFrequency(50);
-        m_motor.getSupplyCurrent().setUpdateFrequency(50);
-        m_motor.getMotorVoltage().setUpdateFrequency(50);
-        m_motor.getDeviceTemp().setUpdateFrequency(10);
-        m_motor.getSupplyVoltage().setUpdateFrequency(50);
+        CanRateManager.register(CanRateProfile.of("Intake", m_motor)
+            .signal(m_motor.getStatorCurrent(), 10, 50, 50)
+            .signal(m_motor.getSupplyCurrent(), 10, 50, 50)
+            .signal(m_motor.getMotorVoltage(), 10, 50, 50)
+            .signal(m_motor.getDeviceTemp(), 4, 10, 10)
+            .signal(m_motor.getSupplyVoltage(), 10, 50, 50));
+        TelemetryRouter.hoot("Intake", m_motor,
+            new String[] {"statorCurrent", "supplyCurrent", "outputVoltage", "supplyVoltage"},
+            m_motor.getStatorCurrent(), m_motor.getSupplyCurrent(), m_motor.getMotorVoltage(), m_motor.getSupplyVoltage());
+        // Status1 carries the output current the current spike trigger reads
+        CanRateManager.register(CanRateProfile.of("IntakeFeeder", m_feeder)
+            .frame(PeriodicFrame.kStatus0, 100, 20, 20)
+            .frame(PeriodicFrame.kStatus1, 100, 20, 20)
+            .frame(PeriodicFrame.kStatus2, 500)
+            .unusedFrames());
 
         WaltRangeChecker.addDoubleChecker(
             "IntakeStatorCurrent",
@@ -56,8 +65,6 @@ public class Intake extends SubsystemBase {
             "IntakeTemperature",
             () -> m_motor.getDeviceTemp().getValueAsDouble(), 0, 40, 1, true
         );
-
-        m_motor.optimizeBusUtilization();
     }
 
     private void runMainRollers(double volts) {
@@ -121,11 +128,6 @@ public class Intake extends SubsystemBase {
 
     @Override
     public void periodic() {
-        log_statorCurrent.accept(m_motor.getStatorCurrent().getValueAsDouble());
-        log_supplyCurrent.accept(m_motor.getSupplyCurrent().getValueAsDouble());
-        log_outputVoltage.accept(m_motor.getMotorVoltage().getValueAsDouble());
-        log_supplyVoltage.accept(m_motor.getSupplyVoltage().getValueAsDouble());
-
         log_middleStatorCurrent.accept(m_feeder.getOutputCurrent());
         log_middleOutputVoltage.accept(m_feeder.getAppliedOutput());
         log_middleSupplyVoltage.accept(m_feeder.getBusVoltage());
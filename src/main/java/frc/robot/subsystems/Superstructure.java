@@ -5,6 +5,8 @@ import static edu.wpi.first.wpilibj2.command.Commands.print;
 import static frc.robot.Constants.AimK.kAmpAngle;
 import static frc.robot.Constants.AimK.kSubwooferAngle;
 import static frc.robot.Constants.IntakeK.kVisiSightId;
+import static frc.robot.Constants.RotationsPerMinute;
+import static frc.robot.Constants.ShooterK.kAmpRpm;
 import static frc.robot.Constants.RobotK.kDbTabName;
 
 import java.util.function.BooleanSupplier;
@@ -15,6 +17,7 @@ import edu.wpi.first.units.Angle;
 import edu.wpi.first.units.Measure;
 import edu.wpi.first.wpilibj.AsynchronousInterrupt;
 import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.SynchronousInterrupt;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.event.EventLoop;
@@ -27,7 +30,10 @@ import frc.robot.Constants.AimK;
 import frc.robot.subsystems.shooter.Aim;
 import frc.robot.subsystems.shooter.Conveyor;
 import frc.robot.subsystems.shooter.Shooter;
+import frc.robot.subsystems.shooter.ShotCoordinator;
 import frc.util.CommandDoodads;
+import frc.util.CommandMailbox;
+import frc.util.StateMailbox;
 import frc.util.WaltRangeChecker;
 import frc.util.logging.WaltLogger;
 import frc.util.logging.WaltLogger.*;
@@ -39,6 +45,7 @@ public class Superstructure {
     private final Intake m_intake;
     private final Conveyor m_conveyor;
     private final Shooter m_shooter;
+    private final ShotCoordinator m_shotCoordinator;
 
     private final DoubleConsumer m_driverRumbler, m_manipRumbler;
 
@@ -111,7 +118,7 @@ public class Superstructure {
     private final Trigger trg_trap = new Trigger(() -> trapping);
 
     /** true = has note */
-    private final Trigger irqTrg_frontSensor;
+    public final Trigger irqTrg_frontSensor;
 
     public final Trigger trg_spunUp;
     public final Trigger trg_atAngle;
@@ -141,7 +148,7 @@ public class Superstructure {
         
     /** To be set on any edge from the AsyncIrq callback  */
     // TODO: move to SynchronousInterrupt and handle in fastPeriodic()
-    private boolean frontVisiSightSeenNote = false;
+    private volatile boolean frontVisiSightSeenNote = false;
     private final AsynchronousInterrupt ai_frontVisiSight = new AsynchronousInterrupt(frontVisiSight,
     (Boolean rising, Boolean falling) -> {
         if ((rising || falling) && !frontVisiSightSeenNote && stateTrg_intake.getAsBoolean()) {
@@ -152,6 +159,8 @@ public class Superstructure {
     
     /** This goes true when the beam is broken and false when the beam is continuous */
     private boolean conveyorBeamBreakIrq = false;
+    /** Only touched by the sensor sampling thread, the main thread sees it through m_sensorMailbox */
+    private boolean sampledConveyorBeamBreakIrq = false;
     private double conveyorBeamBreakIrqLastRising = 0;
     private double conveyorBeamBreakIrqLastFalling = 0;
     /** This handles the beam break sensor by finding */
@@ -161,6 +170,9 @@ public class Superstructure {
     
     /** This goes true when the beam is broken and false when the beam is continuous */
     private boolean shooterBeamBreakIrq = false;
+    /** Only touched by the sensor sampling thread, the main thread sees it through m_sensorMailbox */
+    private boolean sampledShooterBeamBreakIrq = false;
+    private boolean m_lastShooterBeamBreakIrq = false;
     private double shooterBeamBreakIrqLastRising = 0;
     private double shooterBeamBreakIrqLastFalling = 0;
     private final SynchronousInterrupt irq_shooterBeamBreak = new SynchronousInterrupt(shooterBeamBreak);
@@ -180,6 +192,19 @@ public class Superstructure {
 
     /** Timer used for determining how long between shoot and a shootReq being registered */
     private Timer timer = new Timer();
+
+    /* sensor sampling thread <-> main thread. See sampleSensors() */
+    private static final int kFlagConveyorIrq = 1 << 0;
+    private static final int kFlagShooterIrq = 1 << 1;
+    private static final int kFlagFrontRaw = 1 << 2;
+    private static final int kFlagConveyorRaw = 1 << 3;
+    private static final int kFlagShooterRaw = 1 << 4;
+    private static final int kReqResyncIrqs = 1 << 0;
+
+    private final StateMailbox m_sensorMailbox = new StateMailbox();
+    private final CommandMailbox m_sensorRequests = new CommandMailbox();
+    private boolean m_sensorsOnOwnThread = false;
+    private long m_sensorSnapshot = 0;
         
     public Superstructure(
         Aim aim, Intake intake, Conveyor conveyor, Shooter shooter, Vision vision,
@@ -189,6 +214,7 @@ public class Superstructure {
         m_intake = intake;
         m_conveyor = conveyor;
         m_shooter = shooter;
+        m_shotCoordinator = new ShotCoordinator(aim, shooter);
 
         m_driverRumbler = driverRumbler;
         m_manipRumbler = manipRumbler;
@@ -215,6 +241,7 @@ public class Superstructure {
         
         // initialize (inverted)
         shooterBeamBreakIrq = !shooterBeamBreak.get();
+        sampledShooterBeamBreakIrq = shooterBeamBreakIrq;
 
         irqTrg_conveyorBeamBreak = new Trigger(sensorEventLoop, () -> conveyorBeamBreakIrq);
         irqTrg_conveyorBeamBreak
@@ -238,6 +265,9 @@ public class Superstructure {
         WaltRangeChecker.addIntegerChecker("ShooterBeamBreak", () -> shooterBeamBreakIrq ? 1 : 0, -1, 1, 1, true);
 
         configureShootTimer();
+
+        // make sure there's a snapshot before the first fastPeriodic(), whoever ends up sampling
+        sampleSensors();
     }
 
     /**
@@ -489,6 +519,11 @@ public class Superstructure {
         preload = false;
     }
 
+    /** Every shot gets aimed and spun up through this, see {@link ShotCoordinator} */
+    public ShotCoordinator getShotCoordinator() {
+        return m_shotCoordinator;
+    }
+
     public boolean noteReadyOrGreater() {
         return extStateTrg_noteIn.getAsBoolean();
     }
@@ -538,9 +573,9 @@ public class Superstructure {
         }
 
         if (latestFalling > latestRising && fallingNew) {
-            conveyorBeamBreakIrq = true;
+            sampledConveyorBeamBreakIrq = true;
         } else if (latestRising > latestFalling && risingNew) {
-            conveyorBeamBreakIrq = false;
+            sampledConveyorBeamBreakIrq = false;
         }
     }
 
@@ -558,20 +593,69 @@ public class Superstructure {
         }
 
         if (latestFalling > latestRising && fallingNew) {
-            shooterBeamBreakIrq = true;
+            sampledShooterBeamBreakIrq = true;
         } else if (latestRising > latestFalling && risingNew) {
-            shooterBeamBreakIrq = false;
+            sampledShooterBeamBreakIrq = false;
         }
     }
 
+    /**
+     * Samples the DIO sensors and evaluates the beam break interrupt edges, then publishes the result to m_sensorMailbox.
+     * Touches nothing the main thread uses directly, so it is safe to run on its own (RT) thread via
+     * {@link #runSensorsOnOwnThread()}. Otherwise fastPeriodic() calls it inline.
+     */
+    public void sampleSensors() {
+        int requests = m_sensorRequests.take();
+        if (CommandMailbox.has(requests, kReqResyncIrqs)) {
+            // beam breaks are active low
+            sampledConveyorBeamBreakIrq = !conveyorBeamBreak.get();
+            sampledShooterBeamBreakIrq = !shooterBeamBreak.get();
+        }
+
+        evaluateConveyorIrq();
+        evaluateShooterIrq();
+
+        int flags = 0;
+        if (sampledConveyorBeamBreakIrq) flags |= kFlagConveyorIrq;
+        if (sampledShooterBeamBreakIrq) flags |= kFlagShooterIrq;
+        if (bs_frontVisiSight.getAsBoolean()) flags |= kFlagFrontRaw;
+        if (bs_conveyorBeamBreak.getAsBoolean()) flags |= kFlagConveyorRaw;
+        if (bs_shooterBeamBreak.getAsBoolean()) flags |= kFlagShooterRaw;
+        m_sensorMailbox.publish(flags, RobotController.getFPGATime());
+    }
+
+    /**
+     * Tells fastPeriodic() that sampleSensors() is being run by someone else (the LoopScheduler's control thread),
+     * so it only consumes the latest snapshot instead of sampling itself.
+     */
+    public void runSensorsOnOwnThread() {
+        m_sensorsOnOwnThread = true;
+    }
+
+    /** Re-latches both beam break irqs from the current sensor levels on the next sample */
+    public void resyncSensorIrqs() {
+        m_sensorRequests.post(kReqResyncIrqs);
+    }
+
     /**
      * Designed to run very often and very quickly.
      * Polls triggers and updates a ton of things
      */
     public void fastPeriodic() {
+        // before anything reads the angle
+        m_aim.fastPeriodic();
         // TODO: intake sensor sync eval
-        evaluateConveyorIrq();
-        evaluateShooterIrq();
+        if (!m_sensorsOnOwnThread) {
+            sampleSensors();
+        }
+        m_sensorSnapshot = m_sensorMailbox.read();
+        conveyorBeamBreakIrq = StateMailbox.has(m_sensorSnapshot, kFlagConveyorIrq);
+        shooterBeamBreakIrq = StateMailbox.has(m_sensorSnapshot, kFlagShooterIrq);
+        // straight to the shooter instead of through a command, the recovery boost has to line up with the RPM dip
+        if (shooterBeamBreakIrq && !m_lastShooterBeamBreakIrq && m_state == SHOOTING) {
+            m_shooter.notifyShot();
+        }
+        m_lastShooterBeamBreakIrq = shooterBeamBreakIrq;
 
         log_driverIntakeReq.accept(trg_driverIntakeReq);
         log_driverShootReq.accept(trg_driverShootReq);
@@ -580,9 +664,9 @@ public class Superstructure {
         log_aimReady.accept(trg_atAngle);
         
         sensorEventLoop.poll();
-        log_frontVisiSight.accept(bs_frontVisiSight);
-        log_conveyorBeamBreak.accept(bs_conveyorBeamBreak);
-        log_shooterBeamBreak.accept(bs_shooterBeamBreak);
+        log_frontVisiSight.accept(StateMailbox.has(m_sensorSnapshot, kFlagFrontRaw));
+        log_conveyorBeamBreak.accept(StateMailbox.has(m_sensorSnapshot, kFlagConveyorRaw));
+        log_shooterBeamBreak.accept(StateMailbox.has(m_sensorSnapshot, kFlagShooterRaw));
         log_frontVisiSightIrq.accept(frontVisiSightSeenNote);
         log_conveyorBeamBreakIrq.accept(conveyorBeamBreakIrq);
         log_shooterBeamBreakIrq.accept(irqTrg_shooterBeamBreak.getAsBoolean());
@@ -635,6 +719,7 @@ public class Superstructure {
     public Command forceStateToIntake() {
         return Commands.parallel(
             resetFlags(),
+            Commands.runOnce(() -> resyncSensorIrqs()),
             changeStateCmd(INTAKE)
         );
     }
@@ -661,22 +746,18 @@ public class Superstructure {
         var waitForNoteReady = Commands.waitUntil(() -> m_state.idx > ROLLER_BEAM_RETRACT.idx)
             .andThen(Commands.print("====NOTE READY===="));
         
-        var shoot = m_shooter.ampShot();
-
-        var aimCmd = m_aim.toAngleUntilAt(() -> target.plus(Degrees.of(20)), Degrees.of(0));
+        var beforeAim = Commands.sequence(
+            waitForNoteReady.andThen(Commands.print("AimAndSpinUp_NOTERD_DONE")),
+            Commands.waitUntil(irqTrg_conveyorBeamBreak),
+            Commands.print("going to aim")
+            // Commands.runOnce(() -> { m_aim.m_dynamicRequest.Acceleration = 2; }),
+        );
 
         return Commands.parallel(
             Commands.print("shoot"),
-            shoot,
-            Commands.sequence(
-            waitForNoteReady.andThen(Commands.print("AimAndSpinUp_NOTERD_DONE")),
-                Commands.sequence(
-                    Commands.waitUntil(irqTrg_conveyorBeamBreak),
-                    Commands.print("going to aim"),
-                    // Commands.runOnce(() -> { m_aim.m_dynamicRequest.Acceleration = 2; }),
-                    aimCmd.asProxy().andThen(Commands.print("aim"))
-            )
-        ));
+            m_shotCoordinator.prepareAfter(
+                beforeAim, target.plus(Degrees.of(20)), Degrees.of(0), RotationsPerMinute.of(kAmpRpm), 1)
+        );
     }
 
     public Command runEverything() {
@@ -2,6 +2,7 @@ package frc.robot.subsystems;
 
 import java.util.Optional;
 import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 
@@ -12,6 +13,7 @@ import com.ctre.phoenix6.Utils;
 import com.ctre.phoenix6.configs.OpenLoopRampsConfigs;
 import com.ctre.phoenix6.mechanisms.swerve.SwerveDrivetrain;
 import com.ctre.phoenix6.mechanisms.swerve.SwerveDrivetrainConstants;
+import com.ctre.phoenix6.mechanisms.swerve.SwerveDrivetrain.SwerveDriveState;
 import com.ctre.phoenix6.mechanisms.swerve.SwerveModule.DriveRequestType;
 import com.ctre.phoenix6.mechanisms.swerve.SwerveModuleConstants;
 import com.ctre.phoenix6.mechanisms.swerve.SwerveRequest;
@@ -28,7 +30,9 @@ import edu.wpi.first.math.filter.SlewRateLimiter;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.PubSubOption;
@@ -49,8 +53,12 @@ import frc.robot.Constants.FieldK.SpeakerK;
 import frc.robot.Vision.VisionMeasurement3d;
 import frc.robot.auton.AutonChooser;
 import frc.robot.auton.AutonChooser.AutonOption;
-import frc.util.AdvantageScopeUtil;
+import frc.robot.auton.TrajectoryCache;
 import frc.util.AllianceFlipUtil;
+import frc.util.DriveToPoseController;
+import frc.util.SignalRegistry;
+import frc.util.SwerveStateBuffer;
+import frc.util.SignalRegistry.CachedSignal;
 import frc.util.logging.WaltLogger;
 import frc.util.logging.WaltLogger.BooleanLogger;
 import frc.util.logging.WaltLogger.DoubleArrayLogger;
@@ -75,6 +83,11 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 	private Notifier m_simNotifier = null;
 	private double m_lastSimTime;
 
+	// filled by the odometry thread, so nothing here has to take the state lock
+	private final SwerveStateBuffer m_stateBuffer =
+		new SwerveStateBuffer((int) Math.ceil(DriveK.kOdometryFrequency * DriveK.kStateHistory));
+	private final double[] m_pastPose = new double[3];
+
 	private final ApplyChassisSpeeds m_autoRequest = new ApplyChassisSpeeds()
 		.withDriveRequestType(DriveRequestType.Velocity);
 	private final SwerveRequest.RobotCentric m_characterisationReq = new SwerveRequest.RobotCentric()
@@ -89,6 +102,20 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 
 	private Rotation2d m_desiredRot = new Rotation2d();
 
+	// allocated once, the teleop and drive to pose paths reuse them every loop
+	private static final Rotation2d kAmpHeadingBlue = Rotation2d.fromDegrees(-30);
+	private static final Rotation2d kAmpHeadingRed = Rotation2d.fromDegrees(30);
+	private static final Rotation2d kAmpDefenceHeadingBlue = Rotation2d.fromDegrees(-10);
+	private static final Rotation2d kAmpDefenceHeadingRed = Rotation2d.fromDegrees(10);
+	// nothing writes to it, the requests only read it
+	private static final ChassisSpeeds kStopped = new ChassisSpeeds();
+
+	private final DriveToPoseController m_driveToPose = new DriveToPoseController(
+		kDriveToPoseDriveConstraints, kDriveToPoseTurnConstraints, kPDriveToPoseTranslation, kPDriveToPoseTheta,
+		kDriveToPoseTranslationTolerance, kDriveToPoseRotationTolerance.in(Radians));
+	private final Timer m_driveToPoseTimer = new Timer();
+	private boolean m_driveToPoseReached = false;
+
 	private final double m_characterisationSpeed = 1.5;
 	public final DoubleSupplier m_gyroYawRadsSupplier;
 	private final SlewRateLimiter m_omegaLimiter = new SlewRateLimiter(1);
@@ -97,6 +124,9 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 	private double accumGyroYawRads = 0;
 
 	private double[] startWheelPositions = new double[4];
+
+	private final CachedSignal[] m_drivePositionSigs = new CachedSignal[4];
+	private final String[] m_drivePositionKeys = new String[4];
 	private double currentEffectiveWheelRadius = 0;
 
 	// vision yaw align
@@ -146,6 +176,56 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 	private final DoubleLogger log_pigeonYaw = WaltLogger.logDouble("Swerve", "pigeonYaw");
 
 	private final Pose2dLogger log_desiredPose = WaltLogger.logPose2d("Swerve", "desiredPose");
+	private final Pose2dLogger log_driveToPoseGoal = WaltLogger.logPose2d("Swerve/DriveToPose", "goal");
+	private final DoubleLogger log_driveToPoseDistErr = WaltLogger.logDouble("Swerve/DriveToPose", "distanceError");
+	private final DoubleLogger log_driveToPoseRotErr = WaltLogger.logDouble("Swerve/DriveToPose", "rotationError");
+	private final DoubleLogger log_driveToPoseTime = WaltLogger.logDouble("Swerve/DriveToPose", "timeToGoal");
+
+	private void recordState(SwerveDriveState state) {
+		m_stateBuffer.add(state.Pose, state.speeds, Timer.getFPGATimestamp());
+	}
+
+	/**
+	 * Phoenix only keeps one telemetry function, so this chains it after filling the state buffer
+	 * instead of replacing that.
+	 */
+	@Override
+	public void registerTelemetry(Consumer<SwerveDriveState> telemetryFunction) {
+		super.registerTelemetry((state) -> {
+			recordState(state);
+			telemetryFunction.accept(state);
+		});
+	}
+
+	/** @return The latest odometry pose, without locking or allocating */
+	public Pose2d getPose() {
+		return m_stateBuffer.getLatestPose();
+	}
+
+	/** @return The latest robot relative speeds, without locking or allocating */
+	public ChassisSpeeds getSpeeds() {
+		return m_stateBuffer.getLatestSpeeds();
+	}
+
+	/** @param timestamp - FPGA time in seconds, within {@link DriveK#kStateHistory} of now */
+	public Optional<Pose2d> getPoseAt(double timestamp) {
+		return m_stateBuffer.getPoseAt(timestamp);
+	}
+
+	/**
+	 * Moves a pose measured at {@code timestamp} by however far odometry says the robot went since,
+	 * so a camera frame from a few loops ago lines up with where the robot is now.
+	 * @return The pose unchanged if the buffer doesn't reach back that far
+	 */
+	public Pose3d compensateLatency(Pose3d measured, double timestamp) {
+		if (!m_stateBuffer.samplePose(timestamp, m_pastPose)) {
+			return measured;
+		}
+		var then = new Pose2d(m_pastPose[0], m_pastPose[1], Rotation2d.fromRadians(m_pastPose[2]));
+		var moved = new Transform2d(then, getPose());
+		return measured.transformBy(new Transform3d(moved.getX(), moved.getY(), 0,
+			new Rotation3d(0, 0, moved.getRotation().getRadians())));
+	}
 
 	public void addVisionMeasurement3d(VisionMeasurement3d measurement) {
 		// sadge!
@@ -161,9 +241,9 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 
 	private void configureAutoBuilder() {
 		AutoBuilder.configureHolonomic(
-			() -> getState().Pose,
+			this::getPose,
 			this::seedFieldRelative,
-			() -> m_kinematics.toChassisSpeeds(getState().ModuleStates),
+			this::getSpeeds,
 			(speeds) -> setControl(m_autoRequest.withSpeeds(speeds)),
 			kPathFollowerConfig,
 			() -> {
@@ -177,7 +257,8 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 	}
 
 	public Swerve(SwerveDrivetrainConstants driveTrainConstants, SwerveModuleConstants... modules) {
-		super(driveTrainConstants, modules);
+		super(driveTrainConstants, DriveK.kOdometryFrequency, modules);
+		super.registerTelemetry(this::recordState);
 		configureAutoBuilder();
 		if (Utils.isSimulation()) {
 			startSimThread();
@@ -188,6 +269,12 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 			module.getDriveMotor().getConfigurator().apply(openLoopConfig);
 		}
 
+		for (int i = 0; i < Modules.length; i++) {
+			var driveMotor = getModule(i).getDriveMotor();
+			m_drivePositionSigs[i] = SignalRegistry.register(driveMotor, driveMotor.getPosition());
+			m_drivePositionKeys[i] = "Module " + i + "/position";
+		}
+
 		m_gyroYawRadsSupplier = () -> Units.degreesToRadians(getPigeon2().getAngle());
 		m_thetaController.enableContinuousInput(0, 2 * Math.PI);
 		m_visYawTimer.reset();
@@ -286,7 +373,7 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 		return applyRequest(() -> {
 			return m_facingAngle
 				.withRotationalDeadband(0)
-				.withTargetDirection(new Rotation2d(Degrees.of(AllianceFlipUtil.shouldFlip() ? 30 : -30)))
+				.withTargetDirection(AllianceFlipUtil.shouldFlip() ? kAmpHeadingRed : kAmpHeadingBlue)
 				.withVelocityX(xRate.getAsDouble() * maxSpeed)
 				.withVelocityY(yRate.getAsDouble() * maxSpeed)
 				.withDeadband(maxSpeed * 0.1);
@@ -297,7 +384,7 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 		return applyRequest(() -> {
 			return m_facingAngle
 				.withRotationalDeadband(0)
-				.withTargetDirection(new Rotation2d(Degrees.of(AllianceFlipUtil.shouldFlip() ? 10 : -10)))
+				.withTargetDirection(AllianceFlipUtil.shouldFlip() ? kAmpDefenceHeadingRed : kAmpDefenceHeadingBlue)
 				.withVelocityX(xRate.getAsDouble() * maxSpeed)
 				.withVelocityY(yRate.getAsDouble() * maxSpeed)
 				.withDeadband(maxSpeed * 0.1);
@@ -306,7 +393,8 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 
 	public void calculateYawErr(Optional<VisionMeasurement3d> measOpt, boolean tagsPresent) {
 		if (measOpt.isPresent()) {
-			var pose = measOpt.get().estimate().estimatedPose;
+			var estimate = measOpt.get().estimate();
+			var pose = compensateLatency(estimate.estimatedPose, estimate.timestampSeconds);
 			var speakerTrans = AllianceFlipUtil.apply(SpeakerK.kBlueCenterOpening);
 			var dist = speakerTrans.minus(pose.getTranslation());
 			var desiredYaw = Math.atan2(dist.getY(), dist.getX());
@@ -316,7 +404,7 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 			m_hasVisionYaw = true;
 			m_visYawTimer.restart();
 			m_visionYaw = Radians.of(yawErr);
-			log_desiredPose.accept(getState().Pose.rotateBy(Rotation2d.fromRadians(yawErr)));
+			log_desiredPose.accept(getPose().rotateBy(Rotation2d.fromRadians(yawErr)));
 		}
 		m_hasVisionYaw = tagsPresent && !m_visYawTimer.hasElapsed(0.1);
 		log_yawErr.accept(m_visionYaw.in(Degrees));
@@ -331,11 +419,12 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 	}
 
 	private void startSimThread() {
-		m_lastSimTime = Utils.getCurrentTimeSeconds();
+		// HAL time rather than Phoenix time, so the headless sim can step it
+		m_lastSimTime = Timer.getFPGATimestamp();
 
 		/* Run simulation at a faster rate so PID gains behave more reasonably */
 		m_simNotifier = new Notifier(() -> {
-			final double currentTime = Utils.getCurrentTimeSeconds();
+			final double currentTime = Timer.getFPGATimestamp();
 			double deltaTime = currentTime - m_lastSimTime;
 			m_lastSimTime = currentTime;
 
@@ -347,8 +436,7 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 
 	public void logModulePositions() {
 		for (int i = 0; i < Modules.length; i++) {
-			SmartDashboard.putNumber("Module " + i + "/position",
-				getModule(i).getDriveMotor().getPosition().getValueAsDouble());
+			SmartDashboard.putNumber(m_drivePositionKeys[i], m_drivePositionSigs[i].get());
 		}
 	}
 
@@ -374,66 +462,81 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 		});
 	}
 
+	/** Drives to the chosen auton's starting pose and holds it until interrupted, does nothing if it doesn't have one */
 	public Command goToAutonPose() {
-		return run(() -> {
-			var bluePose = AutonChooser.getChosenAutonInitPose();
-			if (bluePose.isPresent()) {
-				Pose2d pose;
+		return Commands.either(
+			driveToPose(true, () -> {
+				var pose = AutonChooser.getChosenAutonInitPose().get();
+				// mirrored across the field's width, not rotated like AllianceFlipUtil
 				if (DriverStation.getAlliance().get() == Alliance.Red) {
-					Translation2d redTranslation = new Translation2d(bluePose.get().getX(),
-						kFieldWidth.magnitude() - bluePose.get().getY());
-					Rotation2d redRotation = bluePose.get().getRotation().times(-1);
-					pose = new Pose2d(redTranslation, redRotation);
-				} else {
-					pose = bluePose.get();
+					return new Pose2d(pose.getX(), kFieldWidth.magnitude() - pose.getY(), pose.getRotation().unaryMinus());
 				}
-
-				SmartDashboard.putNumberArray("desiredPose", AdvantageScopeUtil.toDoubleArr(pose));
-
-				var curPose = getState().Pose;
-				var xSpeed = m_xController.calculate(curPose.getX(), pose.getX());
-				var ySpeed = m_yController.calculate(curPose.getY(), pose.getY());
-				var thetaSpeed = m_thetaController.calculate(curPose.getRotation().getRadians(),
-					pose.getRotation().getRadians());
-				var speeds = ChassisSpeeds.fromFieldRelativeSpeeds(xSpeed, ySpeed, thetaSpeed, pose.getRotation());
-
-				setControl(m_autoRequest.withSpeeds(speeds));
-			}
-		});
+				return pose;
+			}),
+			Commands.none(),
+			() -> AutonChooser.getChosenAutonInitPose().isPresent());
 	}
 
+	/** Drives to the pose and holds it until interrupted, like it always has */
 	public Command goToPose(Pose2d pose) {
-		return run(() -> {
-			SmartDashboard.putNumberArray("desiredPose", AdvantageScopeUtil.toDoubleArr(pose));
+		return driveToPose(true, () -> pose);
+	}
 
-			var curPose = getState().Pose;
-			var xSpeed = m_xController.calculate(curPose.getX(), pose.getX());
-			var ySpeed = m_yController.calculate(curPose.getY(), pose.getY());
-			var thetaSpeed = m_thetaController.calculate(curPose.getRotation().getRadians(),
-				pose.getRotation().getRadians());
-			var speeds = ChassisSpeeds.fromFieldRelativeSpeeds(xSpeed, ySpeed, thetaSpeed, pose.getRotation());
+	/**
+	 * Drives straight to a pose on trapezoid profiles, see {@link DriveToPoseController}.
+	 * Ends once the robot is within tolerance of it.
+	 * @param goal - Read once when the command starts
+	 */
+	public Command driveToPose(Supplier<Pose2d> goal) {
+		return driveToPose(false, goal);
+	}
 
-			setControl(m_autoRequest.withSpeeds(speeds));
+	/** @param hold - Keep correcting at the goal until interrupted instead of ending there, for whileTrue bindings */
+	public Command driveToPose(boolean hold, Supplier<Pose2d> goal) {
+		var resetCmd = runOnce(() -> {
+			var pose = getPose();
+			var goalPose = goal.get();
+			m_driveToPose.reset(pose, ChassisSpeeds.fromRobotRelativeSpeeds(getSpeeds(), pose.getRotation()), goalPose);
+			log_driveToPoseGoal.accept(goalPose);
+			m_driveToPoseTimer.restart();
+			m_driveToPoseReached = false;
 		});
+
+		var driveCmd = run(() -> {
+			setControl(m_autoRequest.withSpeeds(m_driveToPose.calculate(getPose())));
+			log_driveToPoseDistErr.accept(m_driveToPose.getDistanceError());
+			log_driveToPoseRotErr.accept(Units.radiansToDegrees(m_driveToPose.getRotationError()));
+			// only the first time, holding it doesn't count
+			if (!m_driveToPoseReached && m_driveToPose.atGoal()) {
+				m_driveToPoseReached = true;
+				log_driveToPoseTime.accept(m_driveToPoseTimer.get());
+			}
+		});
+		if (hold) {
+			return Commands.sequence(resetCmd, driveCmd).withName("DriveToPoseAndHold");
+		}
+
+		var stopCmd = runOnce(() -> setControl(m_autoRequest.withSpeeds(kStopped)));
+		return Commands.sequence(resetCmd, driveCmd.until(m_driveToPose::atGoal), stopCmd).withName("DriveToPose");
 	}
 
 	public Command aim(double radians) {
 		return run(() -> {
 			m_desiredRot = AllianceFlipUtil.apply(Rotation2d.fromRadians(radians));
-			var curPose = getState().Pose;
+			var curPose = getPose();
 			var thetaSpeed = m_thetaController.calculate(curPose.getRotation().getRadians(),
 				m_desiredRot.getRadians());
 			var speeds = ChassisSpeeds.fromFieldRelativeSpeeds(0, 0, thetaSpeed, m_desiredRot);
 
 			setControl(m_autoRequest.withSpeeds(speeds));
 		}).until(() -> {
-			boolean check = MathUtil.isNear(m_desiredRot.getDegrees(), getState().Pose.getRotation().getDegrees(), 1);
+			boolean check = MathUtil.isNear(m_desiredRot.getDegrees(), getPose().getRotation().getDegrees(), 1);
 			return check;
 		});
 	}
 
 	public Pose3d getPose3d() {
-		var txr2d = getState().Pose.getTranslation();
+		var txr2d = getPose().getTranslation();
 		// we're on the floor. I hope. (i'm going to make the robot fly! >:D)
 		return new Pose3d(txr2d.getX(), txr2d.getY(), 0, getRotation3d());
 	}
@@ -441,13 +544,15 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 	public Command resetPose(PathPlannerPath path) {
 		return Commands.runOnce(() -> {
 			var alliance = DriverStation.getAlliance();
-			var correctedPath = path;
-			if (alliance.isPresent() && alliance.get() == Alliance.Red) {
-				correctedPath = path.flipPath();
+			boolean isRed = alliance.isPresent() && alliance.get() == Alliance.Red;
+			var cached = TrajectoryCache.find(path);
+			if (cached != null) {
+				seedFieldRelative(cached.getInitPose(isRed));
+				return;
 			}
+			var correctedPath = isRed ? path.flipPath() : path;
 			var correctedTraj = correctedPath.getTrajectory(new ChassisSpeeds(), new Rotation2d());
-			var correctedPose = correctedTraj.getInitialTargetHolonomicPose();
-			seedFieldRelative(correctedPose);
+			seedFieldRelative(correctedTraj.getInitialTargetHolonomicPose());
 		});
 	}
 
@@ -458,23 +563,42 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 		};
 
 		var resetPoseCmd = runOnce(() -> {
+			var cached = TrajectoryCache.find(traj);
+			if (cached != null) {
+				seedFieldRelative(cached.getInitPose(shouldMirror.getAsBoolean()));
+				return;
+			}
 			var properTraj = shouldMirror.getAsBoolean() ? traj.flipped() : traj;
 			seedFieldRelative(properTraj.getInitialPose());
 		});
 
-		var choreoFollowCmd = Choreo.choreoSwerveCommand(
+		// follow the cached flip when there is one instead of having Choreo flip every sample as it goes
+		var cached = TrajectoryCache.find(traj);
+		Command choreoFollowCmd;
+		if (cached != null) {
+			choreoFollowCmd = Commands.either(
+				choreoFollow(cached.red(), () -> false),
+				choreoFollow(cached.blue(), () -> false),
+				shouldMirror);
+		} else {
+			choreoFollowCmd = choreoFollow(traj, shouldMirror);
+		}
+
+		var brakeCmd = runOnce(() -> setControl(m_brake));
+
+		return Commands.sequence(resetPoseCmd, choreoFollowCmd, brakeCmd).withName("ChoreoFollower");
+	}
+
+	private Command choreoFollow(ChoreoTrajectory traj, BooleanSupplier shouldMirror) {
+		return Choreo.choreoSwerveCommand(
 			traj,
-			() -> getState().Pose,
+			this::getPose,
 			m_xController,
 			m_yController,
 			m_thetaController,
 			(speeds) -> setControl(m_autoRequest.withSpeeds(speeds)),
 			shouldMirror,
 			this);
-
-		var brakeCmd = runOnce(() -> setControl(m_brake));
-
-		return Commands.sequence(resetPoseCmd, choreoFollowCmd, brakeCmd).withName("ChoreoFollower");
 	}
 
 	public Command sysIdQuasistatic(SysIdRoutine.Direction direction) {
@@ -486,15 +610,16 @@ public class Swerve extends SwerveDrivetrain implements Subsystem {
 	}
 
 	public void periodic() {
-		var swerveState = getState();
-		log_rotationSpeed.accept(Units.radiansToRotations(swerveState.speeds.omegaRadiansPerSecond));
+		log_rotationSpeed.accept(Units.radiansToRotations(getSpeeds().omegaRadiansPerSecond));
 		log_desiredRot.accept(m_desiredRot.getDegrees());
-		log_rot.accept(swerveState.Pose.getRotation().getDegrees());
+		log_rot.accept(getPose().getRotation().getDegrees());
 		m_poseError[0] = m_xController.getPositionError();
 		m_poseError[1] = m_yController.getPositionError();
 		m_poseError[2] = Units.radiansToDegrees(m_thetaController.getPositionError());
 		log_poseError.accept(m_poseError);
 
+		// the module states aren't buffered, they're only logged once a loop
+		var swerveState = getState();
 		for (int i = 0; i < Modules.length; i++) {
 			m_wheelVelos[i] = Math.abs(swerveState.ModuleStates[i].speedMetersPerSecond);
 			m_wheelVeloTargets[i] = Math.abs(swerveState.ModuleTargets[i].speedMetersPerSecond);
@@ -1,5 +1,6 @@
 package frc.robot.subsystems.shooter;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.SignalLogger;
 import com.ctre.phoenix6.Utils;
 import com.ctre.phoenix6.controls.CoastOut;
@@ -12,6 +13,7 @@ import com.ctre.phoenix6.signals.NeutralModeValue;
 
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.util.Units;
@@ -21,11 +23,9 @@ import edu.wpi.first.units.Measure;
 import edu.wpi.first.units.Voltage;
 import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
-import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import edu.wpi.first.wpilibj.smartdashboard.Mechanism2d;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismLigament2d;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismRoot2d;
@@ -42,10 +42,14 @@ import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants.FieldK;
 import frc.robot.Constants.RobotK;
 import frc.robot.Constants.AimK.AimConfigs;
-import frc.robot.Vision.VisionMeasurement3d;
 import frc.util.AllianceFlipUtil;
+import frc.util.CanRateManager;
+import frc.util.CanRateProfile;
+import frc.util.SignalRegistry.CachedSignal;
+import frc.util.SignalRegistry.SignalGroup;
 import frc.util.WaltRangeChecker;
 import frc.util.logging.LoggedTunableNumber;
+import frc.util.logging.TelemetryRouter;
 import frc.util.logging.WaltLogger;
 import frc.util.logging.WaltLogger.*;
 
@@ -53,7 +57,6 @@ import static edu.wpi.first.units.Units.*;
 import static frc.robot.Constants.kCanbus;
 import static frc.robot.Constants.AimK.*;
 import static frc.robot.Constants.AimK.AimConfigs.*;
-import static frc.robot.Constants.RobotK.kSimInterval;
 import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
@@ -62,12 +65,24 @@ public class Aim extends SubsystemBase {
     private final CANcoder m_cancoder = new CANcoder(15, kCanbus);
     private final DigitalInput m_coastSwitch = new DigitalInput(kCoastSwitchId);
 
+    // the Superstructure's fast loop reads the angle, so these get refreshed there instead of once a robot loop
+    private final SignalGroup m_fastSignals = new SignalGroup();
+    private final CachedSignal sig_cancoderPos = m_fastSignals.add(m_cancoder.getPosition());
+    private final CachedSignal sig_cancoderVelo = m_fastSignals.add(m_cancoder.getVelocity());
+    private final CachedSignal sig_rotorPos = m_fastSignals.add(m_motor.getRotorPosition());
+    private final CachedSignal sig_rotorVelo = m_fastSignals.add(m_motor.getRotorVelocity());
+    private final CachedSignal sig_motorVoltage = m_fastSignals.add(m_motor.getMotorVoltage());
+
+    private final AimStateEstimator m_estimator = new AimStateEstimator();
+    private double m_lastEstimateTime = 0;
+    private double m_lastFrameTime = 0;
+
     private final Trigger trg_coastSwitch = new Trigger(m_coastSwitch::get);
     private final Trigger trg_autonAngleOk = new Trigger(() -> 
-        MathUtil.isNear(kSubwooferAngle.plus(Degrees.of(5)).in(Rotations), m_motor.getPosition().getValueAsDouble(), Units.degreesToRotations(1))
+        MathUtil.isNear(kSubwooferAngle.plus(Degrees.of(5)).in(Rotations), m_estimator.getAngleRotations(), Units.degreesToRotations(1))
         && RobotK.kStopCoast);
 
-    public final DynamicMotionMagicVoltage m_dynamicRequest = new DynamicMotionMagicVoltage(0, 20, 40, 200);
+    private final DynamicMotionMagicVoltage m_dynamicRequest = new DynamicMotionMagicVoltage(0, 20, 40, 200);
     private final CoastOut m_coastRequest = new CoastOut();
     private final StaticBrake m_brakeRequest = new StaticBrake();
 
@@ -76,9 +91,7 @@ public class Aim extends SubsystemBase {
     private final DoubleLogger log_tunableTest = WaltLogger.logDouble("Test", "tunableTest");
 
     private final DCMotor m_aimGearbox = DCMotor.getFalcon500(1);
-    private final SingleJointedArmSim m_aimSim = new SingleJointedArmSim(
-        m_aimGearbox, kGearRatio, 0.761, Units.inchesToMeters(19.75),
-        kMinAngle.in(Radians), kMaxAngle.in(Radians), true, kInitAngle.in(Radians));
+    private final AimSim m_aimSim;
 
     private final Mechanism2d m_mech2d = new Mechanism2d(60, 60);
     private final MechanismRoot2d m_aimPivot = m_mech2d.getRoot("aimPivot", 30, 30);
@@ -86,12 +99,21 @@ public class Aim extends SubsystemBase {
         new MechanismLigament2d(
             "Aim2d",
             30,
-            Units.radiansToDegrees(m_aimSim.getAngleRads()),
+            kInitAngle.in(Degrees),
             10,
             new Color8Bit(Color.kHotPink)));
 
     private Measure<Angle> m_targetAngle = Rotations.of(0);
 
+    /* what was last sent to the motor, so requests only go out when something changed */
+    private boolean m_motionActive = false;
+    private boolean m_lastSendVision = false;
+    private boolean m_ampFast = false;
+    private AimProfile m_sentProfile = null;
+    private double m_sentTarget = Double.NaN;
+    private double m_sentFeedforward = Double.NaN;
+    private int m_motionRequests = 0;
+
     private final LinearFilter m_filter = LinearFilter.singlePoleIIR(0.06, 0.02);
 
     private double m_pitchToSpeaker = 0;
@@ -102,24 +124,15 @@ public class Aim extends SubsystemBase {
     private Translation3d m_centerPos;
 
 
-    private final DoubleLogger log_targetAngle = WaltLogger.logDouble(kDbTabName, "targetAngle");
-    private final DoubleLogger log_motorSpeed = WaltLogger.logDouble(kDbTabName, "motorSpeed");
-    private final DoubleLogger log_motorPos = WaltLogger.logDouble(kDbTabName, "motorPos");
-    private final DoubleLogger log_cancoderPos = WaltLogger.logDouble(kDbTabName, "cancoderPos");
-
-    private final DoubleLogger log_error = WaltLogger.logDouble(kDbTabName, "error");
-    private final DoubleLogger log_reference = WaltLogger.logDouble(kDbTabName, "reference");
-    private final DoubleLogger log_output = WaltLogger.logDouble(kDbTabName, "output");
-    private final DoubleLogger log_ff = WaltLogger.logDouble(kDbTabName, "feedforward");
-
-    private final DoubleLogger log_statorCurrent = WaltLogger.logDouble(kDbTabName, "statorCurrent");
-    private final DoubleLogger log_supplyCurrent = WaltLogger.logDouble(kDbTabName, "supplyCurrent");
-    private final DoubleLogger log_tqCurrent = WaltLogger.logDouble(kDbTabName, "torqueCurrent");
+    private final DoubleLogger log_targetAngle = TelemetryRouter.wpilog(kDbTabName, "targetAngle");
+    private final DoubleLogger log_error = TelemetryRouter.wpilog(kDbTabName, "error");
 
     private final DoubleLogger log_simVoltage = WaltLogger.logDouble(kDbTabName + "/Sim", "motorVoltage");
     private final DoubleLogger log_simVelo = WaltLogger.logDouble(kDbTabName + "/Sim", "motorVelo");
     private final DoubleLogger log_simAngle = WaltLogger.logDouble(kDbTabName + "/Sim", "curAngle");
     private final DoubleLogger log_simTarget = WaltLogger.logDouble(kDbTabName + "/Sim", "targetAngle");
+    private final DoubleLogger log_simCurrent = WaltLogger.logDouble(kDbTabName + "/Sim", "statorCurrent");
+    private final DoubleLogger log_simBeltGap = WaltLogger.logDouble(kDbTabName + "/Sim", "beltGap");
 
     private final Pose3dLogger log_pivotPos = WaltLogger.logPose3d(kDbTabName, "pivotPos");
     private final Pose3dLogger log_speakerPos = WaltLogger.logPose3d(kDbTabName, "speakerPos");
@@ -131,6 +144,15 @@ public class Aim extends SubsystemBase {
 
     private final BooleanLogger log_coastSwitch = WaltLogger.logBoolean(kDbTabName, "coastSwitch");
     private final BooleanLogger log_autonAngleOk = WaltLogger.logBoolean(kDbTabName, "autonAngleOk");
+    private final IntLogger log_profile = WaltLogger.logInt(kDbTabName, "profile");
+    private final IntLogger log_motionRequests = WaltLogger.logInt(kDbTabName, "motionRequests");
+
+    private final DoubleLogger log_estAngle = WaltLogger.logDouble(kDbTabName + "/Estimator", "angle");
+    private final DoubleLogger log_estVelo = WaltLogger.logDouble(kDbTabName + "/Estimator", "velocity");
+    private final DoubleLogger log_estLoad = WaltLogger.logDouble(kDbTabName + "/Estimator", "loadVolts");
+    private final DoubleLogger log_estResidual = WaltLogger.logDouble(kDbTabName + "/Estimator", "sensorResidual");
+    private final BooleanLogger log_estSlipping = WaltLogger.logBoolean(kDbTabName + "/Estimator", "slipping");
+    private final IntLogger log_estSlips = WaltLogger.logInt(kDbTabName + "/Estimator", "slips");
 
     private final GenericEntry nte_isCoast;
 
@@ -148,6 +170,7 @@ public class Aim extends SubsystemBase {
             Seconds.of(15),
             (state) -> SignalLogger.writeString("state", state.toString())),
         new SysIdRoutine.Mechanism((Measure<Voltage> volts) -> {
+            m_motionActive = false;
             m_motor.setControl(m_voltage.withOutput(volts.in(Volts)));
         }, null, this));
 
@@ -155,11 +178,44 @@ public class Aim extends SubsystemBase {
         m_motor.getConfigurator().apply(motorConfig);
         m_cancoder.getConfigurator().apply(cancoderConfig);
 
+        // position stays fast while disabled for the coast switch, closed loop telemetry is only useful when enabled
+        CanRateManager.register(CanRateProfile.of("Aim", m_motor)
+            .signal(m_motor.getPosition(), 50, 100, 100)
+            .signal(m_motor.getVelocity(), 50, 100, 100)
+            .signal(m_motor.getRotorPosition(), 50, 100, 100)
+            .signal(m_motor.getRotorVelocity(), 50, 100, 100)
+            .signal(m_motor.getMotorVoltage(), 10, 100, 100)
+            .signal(m_motor.getDutyCycle(), 10, 50, 50)
+            .signal(m_motor.getClosedLoopReference(), 4, 100, 100)
+            .signal(m_motor.getClosedLoopOutput(), 4, 50, 50)
+            .signal(m_motor.getClosedLoopFeedForward(), 4, 50, 50)
+            .signal(m_motor.getStatorCurrent(), 10, 50, 50)
+            .signal(m_motor.getSupplyCurrent(), 10, 50, 50)
+            .signal(m_motor.getTorqueCurrent(), 10, 50, 50));
+        // fused into the TalonFX, keep it fast in every mode
+        CanRateManager.register(CanRateProfile.of("AimCancoder", m_cancoder)
+            .signal(m_cancoder.getPosition(), 100)
+            .signal(m_cancoder.getVelocity(), 100)
+            .signal(m_cancoder.getAbsolutePosition(), 50));
+
+        // raw motor values are in the hoot, only derived values go through WaltLogger
+        TelemetryRouter.hoot(kDbTabName, m_motor,
+            new String[] {"motorSpeed", "motorPos", "reference", "output", "feedforward",
+                "statorCurrent", "supplyCurrent", "torqueCurrent"},
+            m_motor.getDutyCycle(), m_motor.getPosition(), m_motor.getClosedLoopReference(),
+            m_motor.getClosedLoopOutput(), m_motor.getClosedLoopFeedForward(),
+            m_motor.getStatorCurrent(), m_motor.getSupplyCurrent(), m_motor.getTorqueCurrent());
+        TelemetryRouter.hoot(kDbTabName, m_cancoder, new String[] {"cancoderPos"}, m_cancoder.getPosition());
+
         SmartDashboard.putData("Mech2d", m_mech2d);
 
         if (Utils.isSimulation()) {
             // In simulation, make sure the CANcoder starts at the correct position
-            m_cancoder.setPosition(Units.radiansToRotations(m_aimSim.getAngleRads()) * 1.69);
+            m_cancoder.setPosition(kInitAngle.in(Rotations) * kCancoderToMechanism);
+            m_aimSim = new AimSim(m_motor, m_cancoder, kInitAngle.in(Radians));
+            m_aimSim.start();
+        } else {
+            m_aimSim = null;
         }
 
         nte_isCoast = Shuffleboard.getTab(kDbTabName)
@@ -176,31 +232,88 @@ public class Aim extends SubsystemBase {
         m_measurementTimer.reset();
     }
 
-    private void determineMotionMagicValues(boolean vision) {
-        if (vision && MathUtil.isNear(m_targetAngle.in(Rotations), m_motor.getPosition().getValueAsDouble(), Units.degreesToRotations(2))) {
-            m_dynamicRequest.Velocity = 0.1;
-            m_dynamicRequest.Acceleration = 0.5;
-            m_dynamicRequest.Jerk = 7.5;
-            m_dynamicRequest.Slot = 0;
-        } else if (m_targetAngle.lt(Rotations.of(m_motor.getPosition().getValueAsDouble())) && m_motor.getPosition().getValueAsDouble() <= 0.2) {
-            m_dynamicRequest.Velocity = 0.3;
-            m_dynamicRequest.Acceleration = 0.75;
-            m_dynamicRequest.Jerk = 0;
-            m_dynamicRequest.Slot = 0;
-        } else {
-            m_dynamicRequest.Velocity = 0.3 * 1.25;
-            m_dynamicRequest.Acceleration = 1;
-            m_dynamicRequest.Jerk = 0;
-            m_dynamicRequest.Slot = 0;
+    private AimProfile selectProfile(boolean vision, boolean ampFast, double target, double position) {
+        if (vision && MathUtil.isNear(target, position, Units.degreesToRotations(2))) {
+            return AimProfile.VISION_FINE;
+        } else if (ampFast && !vision) {
+            return AimProfile.AMP_FAST;
+        } else if (target < position && position <= 0.2) {
+            return AimProfile.DOWN_MOVE;
         }
+        return AimProfile.NORMAL;
     }
 
+    /**
+     * Predicts how long a non-vision move to the target takes from the estimated angle: the trapezoid profile Motion
+     * Magic will run, with the acceleration capped by what the stator current limit can do at the arm
+     * @param amp - Whether it would be an amp move, like {@link #toAngleUntilAt(Supplier, Measure, boolean)}
+     */
+    public double predictTimeToAngle(Measure<Angle> target, boolean amp) {
+        double position = m_estimator.getAngleRotations();
+        double distance = Math.abs(target.in(Rotations) - position);
+        var profile = selectProfile(false, amp, target.in(Rotations), position);
+
+        double currentLimitedAccel = Units.radiansToRotations(
+            m_aimGearbox.KtNMPerAmp * motorConfig.CurrentLimits.StatorCurrentLimit * kGearRatio / kMoi);
+        double accel = Math.min(profile.acceleration, currentLimitedAccel);
+        double velo = Math.min(profile.velocity, Units.radiansToRotations(m_aimGearbox.freeSpeedRadPerSec / kGearRatio));
+
+        // never reaches cruise velocity, triangle profile
+        if (distance < velo * velo / accel) {
+            return 2 * Math.sqrt(distance / accel);
+        }
+        return distance / velo + velo / accel;
+    }
+
+    /** Runs the estimator on this loop's signals, the positions are latency compensated to now */
+    private void updateEstimator() {
+        double now = Timer.getFPGATimestamp();
+        double dt = m_lastEstimateTime == 0 ? 0.02 : now - m_lastEstimateTime;
+        m_lastEstimateTime = now;
+
+        double cancoderRots = BaseStatusSignal.getLatencyCompensatedValue(
+            sig_cancoderPos.getSignal(), sig_cancoderVelo.getSignal());
+        double rotorRots = BaseStatusSignal.getLatencyCompensatedValue(
+            sig_rotorPos.getSignal(), sig_rotorVelo.getSignal());
+        m_estimator.update(cancoderRots, rotorRots, sig_motorVoltage.get(), dt);
+    }
+
+    private void logEstimator() {
+        log_estAngle.accept(Units.rotationsToDegrees(m_estimator.getAngleRotations()));
+        log_estVelo.accept(Units.rotationsToDegrees(m_estimator.getVelocityRotationsPerSec()));
+        log_estLoad.accept(m_estimator.getLoadVolts());
+        log_estResidual.accept(m_estimator.getSensorResidualDegrees());
+        log_estSlipping.accept(m_estimator.isSlipping());
+        log_estSlips.accept(m_estimator.getSlipCount());
+    }
+
+    /**
+     * Refreshes the arm's signals and runs the estimator on each new frame. Called from the Superstructure's fast loop,
+     * which checks the angle far more often than periodic() runs.
+     */
+    public void fastPeriodic() {
+        m_fastSignals.refresh();
+        // the loop is faster than the frames, only estimate on new ones
+        double frameTime = sig_rotorPos.getTimestamp();
+        if (frameTime != m_lastFrameTime) {
+            m_lastFrameTime = frameTime;
+            updateEstimator();
+        }
+    }
+
+    /** @return The angle {@link #aim()} would go to, from the last vision estimate */
+    public Measure<Angle> getPitchToSpeaker() {
+        return Radians.of(m_pitchToSpeaker);
+    }
+
+    /** @return The estimated arm angle, 0 at the hard stop */
     public Measure<Angle> getAngle() {
-        return Rotations.of(m_motor.getPosition().getValueAsDouble());
+        return Rotations.of(m_estimator.getAngleRotations());
     }
 
+    /** @return The estimated angle of the shooter above horizontal */
     private double getDegrees() {
-        return Units.rotationsToDegrees(m_motor.getPosition().getValueAsDouble()) + 28;
+        return Units.rotationsToDegrees(m_estimator.getAngleRotations()) + kHomeOffset.in(Degrees);
     }
 
     public BooleanSupplier aimFinished() {
@@ -208,7 +321,7 @@ public class Aim extends SubsystemBase {
             if ((m_targetAngle.in(Degrees) == 0 || m_targetAngle.in(Degrees) == 4) && !DriverStation.isAutonomous() && !m_usingVision) {
                 return false;
             }
-            var error = Rotations.of(Math.abs(m_targetAngle.in(Rotations) - m_motor.getPosition().getValueAsDouble()));
+            var error = Rotations.of(Math.abs(m_targetAngle.in(Rotations) - m_estimator.getAngleRotations()));
             log_error.accept(error.in(Degrees));
 
             if (m_targetAngle.baseUnitMagnitude() == kAmpAngle.baseUnitMagnitude()) {
@@ -221,7 +334,7 @@ public class Aim extends SubsystemBase {
 
     public BooleanSupplier aimFinished(double tolerance) {
         return () -> {
-            var error = Rotations.of(Math.abs(m_targetAngle.in(Rotations) - m_motor.getPosition().getValueAsDouble()));
+            var error = Rotations.of(Math.abs(m_targetAngle.in(Rotations) - m_estimator.getAngleRotations()));
             log_error.accept(error.in(Degrees));
 
             return error.lte(m_targetAngle.times(tolerance));
@@ -229,21 +342,44 @@ public class Aim extends SubsystemBase {
     }
 
     public Command coastOut() {
-        return runOnce(() -> m_motor.setControl(m_coastRequest));
+        return runOnce(() -> {
+            m_motionActive = false;
+            m_motor.setControl(m_coastRequest);
+        });
     }
 
+    /**
+     * Sends m_targetAngle to the motor with the right profile and gravity feedforward.
+     * Only actually talks to the motor when the target or profile changed, or the feedforward moved noticeably
+     */
     private void sendAngleRequestToMotor(boolean vision) {
         var target = m_targetAngle.in(Degrees);
         var safeAngle = MathUtil.clamp(target, 0, vision ? kSubwooferAngle.in(Degrees) : 120);
         m_targetAngle = Degrees.of(safeAngle);
+
+        var profile = selectProfile(vision, m_ampFast, m_targetAngle.in(Rotations), m_estimator.getAngleRotations());
         var ff = Math.cos(Units.degreesToRadians(getDegrees())) * kG;
-        m_motor.setControl(m_dynamicRequest
-            .withPosition(m_targetAngle.in(Rotations))
+        var targetRots = m_targetAngle.in(Rotations);
+        m_lastSendVision = vision;
+
+        if (m_motionActive && profile == m_sentProfile && targetRots == m_sentTarget
+            && Math.abs(ff - m_sentFeedforward) < kFeedforwardResendThreshold) {
+            return;
+        }
+
+        m_motor.setControl(profile.applyTo(m_dynamicRequest)
+            .withPosition(targetRots)
             .withFeedForward(ff));
+        m_motionActive = true;
+        m_sentProfile = profile;
+        m_sentTarget = targetRots;
+        m_sentFeedforward = ff;
+        m_motionRequests++;
     }
 
     public Command increaseAngle() {
         return Commands.runOnce(() -> {
+            m_ampFast = false;
             m_targetAngle = m_targetAngle.plus(Degrees.of(0.5));
             sendAngleRequestToMotor(false);
         });
@@ -251,6 +387,7 @@ public class Aim extends SubsystemBase {
 
     public Command decreaseAngle() {
         return Commands.runOnce(() -> {
+            m_ampFast = false;
             m_targetAngle = m_targetAngle.minus(Degrees.of(0.5));
             sendAngleRequestToMotor(false);
         });
@@ -258,6 +395,7 @@ public class Aim extends SubsystemBase {
 
     public Command amp() {
         return runOnce(() -> {
+            m_ampFast = false;
             m_targetAngle = kAmpAngle;
             sendAngleRequestToMotor(false);
         });
@@ -278,10 +416,12 @@ public class Aim extends SubsystemBase {
     public Command aim() {
         return runEnd(() -> {
             m_usingVision = true;
+            m_ampFast = false;
             m_targetAngle = Radians.of(m_pitchToSpeaker);
             sendAngleRequestToMotor(true);
         }, () -> {
             m_usingVision = false;
+            m_motionActive = false;
             m_motor.setControl(m_brakeRequest);
         }).withName("AimWithVision");
     }
@@ -293,13 +433,11 @@ public class Aim extends SubsystemBase {
     public Command toAngleUntilAt(Supplier<Measure<Angle>> angle, Measure<Angle> tolerance, boolean amp) {
         Runnable goThere = () -> {
             m_targetAngle = angle.get();
-             if(amp) {
-                m_dynamicRequest.Acceleration = 6;
-             }
+            m_ampFast = amp;
             sendAngleRequestToMotor(false);
         };
         BooleanSupplier isFinished = () -> {
-            var error = Rotations.of(Math.abs(m_targetAngle.in(Rotations) - m_motor.getPosition().getValueAsDouble()));
+            var error = Rotations.of(Math.abs(m_targetAngle.in(Rotations) - m_estimator.getAngleRotations()));
             log_error.accept(error.in(Degrees));
 
             boolean imThere = error.lte(tolerance);
@@ -361,11 +499,10 @@ public class Aim extends SubsystemBase {
         });
     }
 
-    public void calculatePitchToSpeaker(VisionMeasurement3d meas) {
+    /** @param pose - Robot pose from vision, compensated for latency */
+    public void calculatePitchToSpeaker(Pose3d pose) {
         m_measurementTimer.restart();
 
-        var pose = meas.estimate().estimatedPose;
-
         var pivotPose = pose.transformBy(kOriginToPivot);
         var pivotTrans = pivotPose.getTranslation();
 
@@ -390,28 +527,25 @@ public class Aim extends SubsystemBase {
         log_zDist.accept(Units.metersToInches(distance.getZ()));
         log_xDist.accept(Units.metersToInches(distance.getX()));
 
-        m_pitchToSpeaker = (m_filter.calculate(Math.atan2(distance.getZ(), Math.hypot(distance.getX(), distance.getY()))) - Units.degreesToRadians(28));
+        m_pitchToSpeaker = (m_filter.calculate(Math.atan2(distance.getZ(), Math.hypot(distance.getX(), distance.getY()))) - kHomeOffset.in(Radians));
         log_desiredPitch.accept(Units.radiansToDegrees(m_pitchToSpeaker));
     }
 
     @Override
     public void periodic() {
-        determineMotionMagicValues(m_usingVision);
+        logEstimator();
+
+        // keeps the profile and gravity feedforward current as the arm moves, doesn't send anything if nothing changed.
+        // only for the command that sent the request, so setTarget on its own doesn't move the arm
+        if (m_motionActive && DriverStation.isEnabled() && getCurrentCommand() != null) {
+            sendAngleRequestToMotor(m_lastSendVision);
+        }
+        log_profile.accept(m_sentProfile == null ? -1 : m_sentProfile.ordinal());
+        log_motionRequests.accept(m_motionRequests);
         log_measTimer.accept(m_measurementTimer.get());
 
         log_autonAngleOk.accept(trg_autonAngleOk.getAsBoolean());
-        log_motorSpeed.accept(m_motor.get());
-        log_motorPos.accept(Units.rotationsToDegrees(m_motor.getPosition().getValueAsDouble()));
         log_targetAngle.accept(getTargetAngle());
-        log_cancoderPos.accept(Units.rotationsToDegrees(m_cancoder.getPosition().getValueAsDouble()));
-
-        log_reference.accept(Units.rotationsToDegrees(m_motor.getClosedLoopReference().getValueAsDouble()));
-        log_output.accept(m_motor.getClosedLoopOutput().getValueAsDouble());
-        log_ff.accept(m_motor.getClosedLoopFeedForward().getValueAsDouble());
-
-        log_statorCurrent.accept(m_motor.getStatorCurrent().getValueAsDouble());
-        log_supplyCurrent.accept(m_motor.getSupplyCurrent().getValueAsDouble());
-        log_tqCurrent.accept(m_motor.getTorqueCurrent().getValueAsDouble());
 
         boolean dashCoast = nte_isCoast.getBoolean(false);
         if (dashCoast != m_isCoast && !trg_coastSwitch.getAsBoolean()) {
@@ -429,28 +563,16 @@ public class Aim extends SubsystemBase {
 
     @Override
     public void simulationPeriodic() {
-        m_motor.getSimState().setSupplyVoltage(RobotController.getBatteryVoltage());
-        m_cancoder.getSimState().setSupplyVoltage(RobotController.getBatteryVoltage());
-
-        var volts = m_motor.getSimState().getMotorVoltage();
-        m_aimSim.setInputVoltage(volts);
-        m_aimSim.update(kSimInterval);
-
-        double angle = Units.radiansToRotations(m_aimSim.getAngleRads());
-        double velocity = Units.radiansToRotations(m_aimSim.getVelocityRadPerSec());
-        // The values sent to the devices must be before gear ratios
-        m_motor.getSimState().setRawRotorPosition(angle * kGearRatio);
-        m_motor.getSimState().setRotorVelocity(velocity * kGearRatio);
-        m_cancoder.getSimState().setRawPosition(angle * 1.69);
-        m_cancoder.getSimState().setVelocity(velocity * 1.69);
-
+        // the physics runs on AimSim's own notifier, this just shows it
         m_aim2d.setAngle(Units.rotationsToDegrees(
-            m_motor.getPosition().getValueAsDouble())); // TODO: make this render correctly with the real robot too
+            m_estimator.getAngleRotations())); // TODO: make this render correctly with the real robot too
 
-        log_simVoltage.accept(volts);
-        log_simVelo.accept(m_aimSim.getVelocityRadPerSec());
-        log_simAngle.accept(angle);
+        log_simVoltage.accept(m_aimSim.getMotorVoltage());
+        log_simVelo.accept(m_aimSim.getArmVelocityRadPerSec());
+        log_simAngle.accept(Units.radiansToRotations(m_aimSim.getArmAngleRads()));
         log_simTarget.accept(m_targetAngle.in(Degrees));
+        log_simCurrent.accept(m_aimSim.getStatorCurrent());
+        log_simBeltGap.accept(Units.radiansToDegrees(m_aimSim.getBeltGapRads()));
     }
 
     public Command sysIdQuasistatic(SysIdRoutine.Direction direction) {
@@ -0,0 +1,37 @@
+package frc.robot.subsystems.shooter;
+
+import com.ctre.phoenix6.controls.DynamicMotionMagicVoltage;
+
+/**
+ * The Motion Magic constraints Aim switches between. Units are mechanism rotations, per second etc.
+ */
+public enum AimProfile {
+    /** Small corrections while tracking the speaker with vision */
+    VISION_FINE(0.1, 0.5, 7.5, 0),
+    /** Coming down onto the hard stop */
+    DOWN_MOVE(0.3, 0.75, 0, 0),
+    NORMAL(0.3 * 1.25, 1, 0, 0),
+    /** Getting up to the amp quickly */
+    AMP_FAST(0.3 * 1.25, 6, 0, 0);
+
+    public final double velocity;
+    public final double acceleration;
+    public final double jerk;
+    public final int slot;
+
+    AimProfile(double velocity, double acceleration, double jerk, int slot) {
+        this.velocity = velocity;
+        this.acceleration = acceleration;
+        this.jerk = jerk;
+        this.slot = slot;
+    }
+
+    /** Writes this profile's constraints into the request */
+    public DynamicMotionMagicVoltage applyTo(DynamicMotionMagicVoltage request) {
+        request.Velocity = velocity;
+        request.Acceleration = acceleration;
+        request.Jerk = jerk;
+        request.Slot = slot;
+        return request;
+    }
+}
@@ -0,0 +1,177 @@
+package frc.robot.subsystems.shooter;
+
+import static edu.wpi.first.units.Units.*;
+import static frc.robot.Constants.AimK.*;
+import static frc.robot.Constants.AimK.AimConfigs.motorConfig;
+import static frc.robot.Constants.AimK.AimSimK.*;
+
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.sim.CANcoderSimState;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Pivot physics for simulation, stepped at {@code kSimPeriod} on its own Notifier instead of the 20 ms robot loop.
+ * Runs on HAL time, so it keeps up with the headless sim.
+ * <p>
+ * Unlike SingleJointedArmSim this has the belt as a stiff spring with backlash between the motor side and the arm,
+ * Coulomb and viscous friction at the pivot, gravity about the real shooter angle (with {@code kHomeOffset}), the hard
+ * stops, and the stator/supply current limits and soft limits from {@link frc.robot.Constants.AimK.AimConfigs}. The
+ * rotor reads the motor side and the CANcoder reads the arm, so backlash shows up between them like on the robot.
+ * Angles are mechanism radians with 0 at the hard stop.
+ */
+class AimSim {
+    private static final double kGravityTorqueFactor = kMoi * 1.5 * 9.81 / kSimArmLength.in(Meters); // uniform rod
+
+    private final TalonFXSimState m_motorSim;
+    private final CANcoderSimState m_cancoderSim;
+    private final DCMotor m_gearbox = DCMotor.getFalcon500(1);
+    private final Notifier m_notifier;
+    private double m_lastTime;
+
+    private double m_driveAngle;
+    private double m_driveVelo = 0;
+    private double m_armAngle;
+    private double m_armVelo = 0;
+
+    // read by the robot loop for logging
+    private volatile double m_armAngleOut;
+    private volatile double m_armVeloOut = 0;
+    private volatile double m_voltsOut = 0;
+    private volatile double m_currentOut = 0;
+    private volatile double m_gapOut = 0;
+
+    AimSim(TalonFX motor, CANcoder cancoder, double initAngleRads) {
+        m_motorSim = motor.getSimState();
+        m_cancoderSim = cancoder.getSimState();
+        m_driveAngle = initAngleRads;
+        m_armAngle = initAngleRads;
+        m_armAngleOut = initAngleRads;
+        m_notifier = new Notifier(() -> {
+            double now = Timer.getFPGATimestamp();
+            double dt = now - m_lastTime;
+            m_lastTime = now;
+            // catch up in fixed steps if the notifier got held up, the belt spring doesn't like big steps
+            while (dt > kSimPeriod * 1.5) {
+                step(kSimPeriod);
+                dt -= kSimPeriod;
+            }
+            step(dt);
+        });
+        m_notifier.setName("AimSim");
+    }
+
+    void start() {
+        m_lastTime = Timer.getFPGATimestamp();
+        m_notifier.startPeriodic(kSimPeriod);
+    }
+
+    private double limitVolts(double volts) {
+        var softLimits = motorConfig.SoftwareLimitSwitch;
+        double position = Units.radiansToRotations(m_armAngle);
+        if (softLimits.ForwardSoftLimitEnable && position >= softLimits.ForwardSoftLimitThreshold && volts > 0) {
+            return 0;
+        }
+        if (softLimits.ReverseSoftLimitEnable && position <= softLimits.ReverseSoftLimitThreshold && volts < 0) {
+            return 0;
+        }
+        return volts;
+    }
+
+    private double limitCurrent(double statorCurrent, double volts, double battery) {
+        var limits = motorConfig.CurrentLimits;
+        double current = statorCurrent;
+        if (limits.StatorCurrentLimitEnable) {
+            current = Math.copySign(Math.min(Math.abs(current), limits.StatorCurrentLimit), current);
+        }
+        double dutyCycle = Math.abs(volts) / battery;
+        if (limits.SupplyCurrentLimitEnable && Math.abs(current) * dutyCycle > limits.SupplyCurrentLimit) {
+            current = Math.copySign(limits.SupplyCurrentLimit / dutyCycle, current);
+        }
+        return current;
+    }
+
+    private void step(double dt) {
+        if (dt <= 0) {
+            return;
+        }
+        double battery = RobotController.getBatteryVoltage();
+        m_motorSim.setSupplyVoltage(battery);
+        m_cancoderSim.setSupplyVoltage(battery);
+
+        double volts = limitVolts(m_motorSim.getMotorVoltage());
+        double motorVelo = m_driveVelo * kGearRatio;
+        double current = limitCurrent((volts - motorVelo / m_gearbox.KvRadPerSecPerVolt) / m_gearbox.rOhms, volts, battery);
+        double motorTorque = current * m_gearbox.KtNMPerAmp * kGearRatio;
+
+        // the belt only pushes once the slack is taken up
+        double gap = m_driveAngle - m_armAngle;
+        double halfBacklash = kBacklash.in(Radians) / 2;
+        double beltTorque = 0;
+        if (Math.abs(gap) > halfBacklash) {
+            beltTorque = kBeltStiffness * (gap - Math.copySign(halfBacklash, gap))
+                + kBeltDamping * (m_driveVelo - m_armVelo);
+        }
+
+        double gravityTorque = -kGravityTorqueFactor * Math.cos(m_armAngle + kHomeOffset.in(Radians));
+        double armTorque = beltTorque + gravityTorque - kViscousFriction * m_armVelo;
+        if (Math.abs(m_armVelo) < kStictionVelocity && Math.abs(armTorque) <= kCoulombFriction) {
+            armTorque = 0;
+            m_armVelo = 0;
+        } else {
+            armTorque -= Math.copySign(kCoulombFriction, m_armVelo != 0 ? m_armVelo : armTorque);
+        }
+
+        m_driveVelo += (motorTorque - beltTorque) / kDriveMoi * dt;
+        m_driveAngle += m_driveVelo * dt;
+        m_armVelo += armTorque / kMoi * dt;
+        m_armAngle += m_armVelo * dt;
+
+        if (m_armAngle < kMinAngle.in(Radians)) {
+            m_armAngle = kMinAngle.in(Radians);
+            m_armVelo = Math.max(m_armVelo, 0);
+        } else if (m_armAngle > kMaxAngle.in(Radians)) {
+            m_armAngle = kMaxAngle.in(Radians);
+            m_armVelo = Math.min(m_armVelo, 0);
+        }
+
+        // The values sent to the devices must be before gear ratios
+        m_motorSim.setRawRotorPosition(Units.radiansToRotations(m_driveAngle) * kGearRatio);
+        m_motorSim.setRotorVelocity(Units.radiansToRotations(m_driveVelo) * kGearRatio);
+        m_cancoderSim.setRawPosition(Units.radiansToRotations(m_armAngle) * kCancoderToMechanism);
+        m_cancoderSim.setVelocity(Units.radiansToRotations(m_armVelo) * kCancoderToMechanism);
+
+        m_armAngleOut = m_armAngle;
+        m_armVeloOut = m_armVelo;
+        m_voltsOut = volts;
+        m_currentOut = current;
+        m_gapOut = gap;
+    }
+
+    double getArmAngleRads() {
+        return m_armAngleOut;
+    }
+
+    double getArmVelocityRadPerSec() {
+        return m_armVeloOut;
+    }
+
+    double getMotorVoltage() {
+        return m_voltsOut;
+    }
+
+    double getStatorCurrent() {
+        return m_currentOut;
+    }
+
+    /** @return Motor side minus arm angle in radians, how far into the backlash the belt is */
+    double getBeltGapRads() {
+        return m_gapOut;
+    }
+}
@@ -0,0 +1,126 @@
+package frc.robot.subsystems.shooter;
+
+import static edu.wpi.first.units.Units.Radians;
+import static frc.robot.Constants.AimK.*;
+import static frc.robot.Constants.AimK.AimConfigs.kG;
+
+import edu.wpi.first.math.MatBuilder;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.KalmanFilter;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N2;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.system.LinearSystem;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Kalman filter for the arm on the same model as the SingleJointedArmSim, augmented with an input disturbance state.
+ * <p>
+ * States are angle (rad), angular velocity (rad/s) and load (volts the motor is losing to anything the model doesn't
+ * know about: friction, a note, a hand). The CANcoder on the pivot and the motor rotor are both measurements, so the
+ * estimate keeps the CANcoder's absolute accuracy and the rotor's resolution. Angles are mechanism angles with 0 at
+ * the hard stop, same as the TalonFX's fused position.
+ * <p>
+ * The rotor only knows where it is relative to boot, so it gets an offset to the CANcoder on the first update. When
+ * the two keep disagreeing the belt has slipped, which gets reported and the offset gets redone.
+ */
+class AimStateEstimator {
+    private final KalmanFilter<N3, N1, N2> m_observer;
+    private final Debouncer m_slipDebouncer = new Debouncer(kSlipDebounce, Debouncer.DebounceType.kRising);
+
+    private boolean m_initialized = false;
+    private double m_rotorOffsetRads = 0;
+    private double m_residualRads = 0;
+    private boolean m_slipping = false;
+    private int m_slips = 0;
+
+    AimStateEstimator() {
+        var arm = LinearSystemId.createSingleJointedArmSystem(DCMotor.getFalcon500(1), kMoi, kGearRatio);
+        double a = arm.getA().get(1, 1);
+        double b = arm.getB().get(1, 0);
+
+        // the load acts like an input, so it goes through B as well
+        Matrix<N3, N3> A = MatBuilder.fill(Nat.N3(), Nat.N3(),
+            0, 1, 0,
+            0, a, b,
+            0, 0, 0);
+        Matrix<N3, N1> B = MatBuilder.fill(Nat.N3(), Nat.N1(), 0, b, 0);
+        Matrix<N2, N3> C = MatBuilder.fill(Nat.N2(), Nat.N3(),
+            1, 0, 0,
+            1, 0, 0);
+        Matrix<N2, N1> D = MatBuilder.fill(Nat.N2(), Nat.N1(), 0, 0);
+        var system = new LinearSystem<>(A, B, C, D);
+
+        m_observer = new KalmanFilter<>(Nat.N3(), Nat.N2(), system,
+            VecBuilder.fill(kEstimatorAngleStdDev, kEstimatorVelocityStdDev, kEstimatorLoadStdDev),
+            VecBuilder.fill(kCancoderStdDev, kRotorStdDev),
+            0.02);
+    }
+
+    /**
+     * @param cancoderRots - Latency compensated CANcoder position, in CANcoder rotations
+     * @param rotorRots - Latency compensated rotor position, in rotor rotations
+     * @param appliedVolts - Motor output voltage, positive up
+     * @param dtSeconds - Time since the last update
+     */
+    void update(double cancoderRots, double rotorRots, double appliedVolts, double dtSeconds) {
+        double cancoderRads = Units.rotationsToRadians(cancoderRots / kCancoderToMechanism);
+        double rotorRads = Units.rotationsToRadians(rotorRots / kGearRatio);
+
+        if (!m_initialized) {
+            m_rotorOffsetRads = cancoderRads - rotorRads;
+            m_observer.setXhat(VecBuilder.fill(cancoderRads, 0, 0));
+            m_initialized = true;
+        }
+
+        m_residualRads = cancoderRads - (rotorRads + m_rotorOffsetRads);
+        boolean slipping = m_slipDebouncer.calculate(Math.abs(m_residualRads) > kSlipThreshold.in(Radians));
+        if (slipping && !m_slipping) {
+            m_slips++;
+            DriverStation.reportWarning("[AIM] Belt slip detected, rotor and CANcoder off by "
+                + Units.radiansToDegrees(m_residualRads) + " deg", false);
+            // the CANcoder sits on the pivot, trust it
+            m_rotorOffsetRads = cancoderRads - rotorRads;
+        }
+        m_slipping = slipping;
+
+        // the model doesn't have gravity, take out what the feedforward spends holding the arm up
+        double gravityVolts = kG * Math.cos(m_observer.getXhat(0) + kHomeOffset.in(Radians));
+        var u = VecBuilder.fill(appliedVolts - gravityVolts);
+        m_observer.predict(u, dtSeconds);
+        m_observer.correct(u, VecBuilder.fill(cancoderRads, rotorRads + m_rotorOffsetRads));
+    }
+
+    /** @return Mechanism angle in rotations, 0 at the hard stop */
+    double getAngleRotations() {
+        return Units.radiansToRotations(m_observer.getXhat(0));
+    }
+
+    double getVelocityRotationsPerSec() {
+        return Units.radiansToRotations(m_observer.getXhat(1));
+    }
+
+    /** @return Volts lost to unmodeled load, positive when something is pushing the arm down */
+    double getLoadVolts() {
+        return -m_observer.getXhat(2);
+    }
+
+    /** @return CANcoder minus rotor angle, in degrees */
+    double getSensorResidualDegrees() {
+        return Units.radiansToDegrees(m_residualRads);
+    }
+
+    boolean isSlipping() {
+        return m_slipping;
+    }
+
+    int getSlipCount() {
+        return m_slips;
+    }
+}
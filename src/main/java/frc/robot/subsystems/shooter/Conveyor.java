@@ -4,11 +4,14 @@ import static frc.robot.Constants.ConveyorK.*;
 
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 
 import edu.wpi.first.networktables.PubSubOption;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.util.CanRateManager;
+import frc.util.CanRateProfile;
 import frc.util.logging.WaltLogger;
 import frc.util.logging.WaltLogger.BooleanLogger;
 import frc.util.logging.WaltLogger.DoubleLogger;
@@ -25,6 +28,15 @@ public class Conveyor extends SubsystemBase {
     }).debounce(0.085);
 
     private final BooleanLogger log_currentSpike = WaltLogger.logBoolean("Conveyor", "currentSpike", PubSubOption.sendAll(true));
+
+    public Conveyor() {
+        // Status1 carries the output current the current spike trigger reads
+        CanRateManager.register(CanRateProfile.of("Conveyor", m_conveyor)
+            .frame(PeriodicFrame.kStatus0, 100, 20, 20)
+            .frame(PeriodicFrame.kStatus1, 100, 10, 10)
+            .frame(PeriodicFrame.kStatus2, 500)
+            .unusedFrames());
+    }
     
     public Command runFast() {
         var go = runEnd(() -> {
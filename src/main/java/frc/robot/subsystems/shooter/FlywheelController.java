@@ -0,0 +1,114 @@
+package frc.robot.subsystems.shooter;
+
+import static frc.robot.Constants.ShooterK.kGearRatio;
+import static frc.robot.Constants.ShooterK.FlywheelControlK.*;
+import static frc.robot.Constants.ShooterK.FlywheelSimK.kMoi;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.controller.LinearQuadraticRegulator;
+import edu.wpi.first.math.estimator.KalmanFilter;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.system.LinearSystem;
+import edu.wpi.first.math.system.LinearSystemLoop;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.util.Units;
+import frc.robot.Constants.ShooterK.ShooterConfigs;
+
+/**
+ * LQR + Kalman filter velocity controller for one side of the shooter, on the same model the FlywheelSim uses.
+ * Everything in and out is in flywheel rotations per second and volts.
+ */
+class FlywheelController {
+    private final LinearSystem<N1, N1, N1> m_plant =
+        LinearSystemId.createFlywheelSystem(DCMotor.getFalcon500(1), kMoi, kGearRatio);
+    private final KalmanFilter<N1, N1, N1> m_observer = new KalmanFilter<>(
+        Nat.N1(), Nat.N1(), m_plant,
+        VecBuilder.fill(kKalmanModelStdDev),
+        VecBuilder.fill(kKalmanMeasurementStdDev),
+        kLoopPeriod);
+    private final LinearQuadraticRegulator<N1, N1, N1> m_lqr = new LinearQuadraticRegulator<>(
+        m_plant,
+        VecBuilder.fill(kLqrVelocityTolerance),
+        VecBuilder.fill(kMaxVoltage),
+        kLoopPeriod);
+    private final LinearSystemLoop<N1, N1, N1> m_loop;
+
+    private final boolean m_bangBangEnabled;
+    private double m_targetRadPerSec = 0;
+    private double m_errorRps = 0;
+    private boolean m_inBangBang = false;
+
+    FlywheelController(boolean bangBang) {
+        m_bangBangEnabled = bangBang;
+        m_lqr.latencyCompensate(m_plant, kLoopPeriod, kMeasurementDelay);
+        m_loop = new LinearSystemLoop<>(m_plant, m_lqr, m_observer, kMaxVoltage, kLoopPeriod);
+    }
+
+    void setTarget(double rps) {
+        m_targetRadPerSec = Units.rotationsToRadians(rps);
+    }
+
+    /**
+     * Runs one step of the loop, call every {@code kLoopPeriod}
+     * @param measuredRps - Flywheel velocity
+     * @return The voltage to apply. 0 if there's no target, the caller should coast the motor then
+     */
+    double calculate(double measuredRps) {
+        double measured = Units.rotationsToRadians(measuredRps);
+        m_errorRps = Units.radiansToRotations(m_targetRadPerSec - measured);
+
+        if (m_targetRadPerSec == 0) {
+            m_inBangBang = false;
+            m_loop.reset(VecBuilder.fill(measured));
+            return 0;
+        }
+
+        // far below the target nothing beats full voltage, keep the observer on the measurement meanwhile
+        if (m_bangBangEnabled && Math.abs(measured) < Math.abs(m_targetRadPerSec) * (1 - kBangBangThreshold)) {
+            m_inBangBang = true;
+            m_loop.reset(VecBuilder.fill(measured));
+            return Math.copySign(kMaxVoltage, m_targetRadPerSec);
+        }
+        m_inBangBang = false;
+
+        m_loop.setNextR(m_targetRadPerSec);
+        m_loop.correct(VecBuilder.fill(measured));
+        m_loop.predict(kLoopPeriod);
+        return MathUtil.clamp(m_loop.getU(0) + Math.copySign(kS, m_targetRadPerSec), -kMaxVoltage, kMaxVoltage);
+    }
+
+    /**
+     * Integrates the model at full voltage, with the stator and supply current limits from {@link ShooterConfigs},
+     * until the flywheel is within tolerance of the target. Bang-bang and the LQR both spend nearly all of a spin-up at
+     * full voltage, so this is close for every mode but a little early, none of them can beat it
+     * @return Seconds until within tolerance, at most {@code kMaxPrediction}
+     */
+    static double predictSpinUpSeconds(double fromRps, double toRps, double toleranceRps) {
+        var motor = DCMotor.getFalcon500(1);
+        var limits = ShooterConfigs.kLeftConfigs.CurrentLimits;
+        // full voltage is full duty cycle, so the supply limit caps the stator current too
+        double maxCurrent = Math.min(limits.StatorCurrentLimit, limits.SupplyCurrentLimit * 12.0 / kMaxVoltage);
+
+        double omega = Units.rotationsToRadians(Math.abs(fromRps));
+        double target = Units.rotationsToRadians(Math.abs(toRps) - toleranceRps);
+        double time = 0;
+        while (omega < target && time < kMaxPrediction) {
+            double current = (kMaxVoltage - kS - omega * kGearRatio / motor.KvRadPerSecPerVolt) / motor.rOhms;
+            omega += kGearRatio * motor.KtNMPerAmp * Math.min(current, maxCurrent) / kMoi * kPredictionStep;
+            time += kPredictionStep;
+        }
+        return time;
+    }
+
+    /** @return Target minus measured as of the last {@link #calculate}, positive when too slow */
+    double getErrorRps() {
+        return m_errorRps;
+    }
+
+    boolean inBangBang() {
+        return m_inBangBang;
+    }
+}
@@ -1,31 +1,46 @@
 package frc.robot.subsystems.shooter;
 
-import static frc.robot.Constants.RobotK.kSimInterval;
 import static frc.robot.Constants.ShooterK.*;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.SignalLogger;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.Utils;
 import com.ctre.phoenix6.controls.CoastOut;
 import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.sim.ChassisReference;
 import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.Angle;
 import edu.wpi.first.units.Measure;
 import edu.wpi.first.units.Velocity;
 import edu.wpi.first.units.Voltage;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.simulation.FlywheelSim;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import frc.robot.Constants.ShooterK.FlywheelControlMode;
 import frc.robot.Constants.ShooterK.ShooterConfigs;
+import frc.util.CanRateManager;
+import frc.util.RollingStats;
+import frc.util.CanRateProfile;
+import frc.util.SignalRegistry;
+import frc.util.SignalRegistry.CachedSignal;
+import frc.util.logging.TelemetryRouter;
 import frc.util.logging.WaltLogger;
 import frc.util.logging.WaltLogger.BooleanLogger;
 import frc.util.logging.WaltLogger.DoubleLogger;
 
 import static frc.robot.Constants.ShooterK.FlywheelSimK.*;
+import static frc.robot.Constants.ShooterK.FlywheelControlK.*;
+import static frc.robot.Constants.ShooterK.ShotRecoveryK.*;
 import static edu.wpi.first.units.Units.*;
 import static frc.robot.Constants.RotationsPerMinute;
 import static frc.robot.Constants.kCanbus;
@@ -39,6 +54,35 @@ public class Shooter extends SubsystemBase {
     private final VelocityVoltage m_request = new VelocityVoltage(0);
     private final VoltageOut m_voltage = new VoltageOut(0);
     private final CoastOut m_coast = new CoastOut();
+    private final VoltageOut m_modelRequest = new VoltageOut(0);
+
+    // read straight from the devices by the fast loop, not through the SignalRegistry
+    private final StatusSignal<Double> m_leftVelocity = m_left.getVelocity().clone();
+    private final StatusSignal<Double> m_rightVelocity = m_right.getVelocity().clone();
+    private final StatusSignal<Double> m_leftStatorCurrent = m_left.getStatorCurrent().clone();
+    private final StatusSignal<Double> m_rightStatorCurrent = m_right.getStatorCurrent().clone();
+    private final FlywheelController m_leftController =
+        new FlywheelController(kControlMode == FlywheelControlMode.LQR_BANG_BANG);
+    private final FlywheelController m_rightController =
+        new FlywheelController(kControlMode == FlywheelControlMode.LQR_BANG_BANG);
+    private boolean m_modelActive = false;
+
+    private final Timer m_spinUpTimer = new Timer();
+    private boolean m_timingSpinUp = false;
+    private int m_slot = 0;
+
+    /* shot recovery */
+    private final Timer m_shotTimer = new Timer();
+    private boolean m_recovering = false;
+    private boolean m_dipSeen = false;
+    private boolean m_boosting = false;
+    private double m_lastLeftCurrent = 0;
+    private double m_lastRightCurrent = 0;
+    private final RollingStats m_recoveryStats = new RollingStats(kRecoveryWindow);
+    private int m_shotCount = 0;
+
+    private final CachedSignal sig_leftError = SignalRegistry.register(m_left, m_left.getClosedLoopError());
+    private final CachedSignal sig_rightError = SignalRegistry.register(m_right, m_right.getClosedLoopError());
 
     private double m_spinAmt = kSpinAmt;
     private double m_shotTime = 1.5;
@@ -58,18 +102,25 @@ public class Shooter extends SubsystemBase {
     private final DoubleLogger log_spinAmt = WaltLogger.logDouble(kDbTabName, "spinAmt");
     private final DoubleLogger log_shotTime = WaltLogger.logDouble(kDbTabName, "shotTime");
 
-    private final DoubleLogger log_leftTarget = WaltLogger.logDouble(kDbTabName, "leftTarget");
-    private final DoubleLogger log_rightTarget = WaltLogger.logDouble(kDbTabName, "rightTarget");
-
-    private final DoubleLogger log_leftError = WaltLogger.logDouble(kDbTabName, "leftError");
-    private final DoubleLogger log_rightError = WaltLogger.logDouble(kDbTabName, "rightError");
-
     private final BooleanLogger log_spunUp = WaltLogger.logBoolean(kDbTabName, "spunUp");
     private final BooleanLogger log_leftOk = WaltLogger.logBoolean(kDbTabName, "leftOk");
     private final BooleanLogger log_rightOk = WaltLogger.logBoolean(kDbTabName, "rightOk");
 
-    private boolean found = false;
-    private final FlywheelSim m_flywheelSim = new FlywheelSim(DCMotor.getFalcon500(1), kGearRatio, kMoi);
+    private final DoubleLogger log_spinUpTime = WaltLogger.logDouble(kDbTabName, "spinUpTime");
+    private final DoubleLogger log_leftModelVolts = WaltLogger.logDouble(kDbTabName, "leftModelVolts");
+    private final DoubleLogger log_rightModelVolts = WaltLogger.logDouble(kDbTabName, "rightModelVolts");
+    private final BooleanLogger log_bangBang = WaltLogger.logBoolean(kDbTabName, "bangBang");
+
+    private final BooleanLogger log_shotBoost = WaltLogger.logBoolean(kDbTabName + "/ShotRecovery", "boost");
+    private final DoubleLogger log_lastRecovery = WaltLogger.logDouble(kDbTabName + "/ShotRecovery", "lastRecoveryTime");
+    private final DoubleLogger log_meanRecovery = WaltLogger.logDouble(kDbTabName + "/ShotRecovery", "meanRecoveryTime");
+    private final DoubleLogger log_maxRecovery = WaltLogger.logDouble(kDbTabName + "/ShotRecovery", "maxRecoveryTime");
+
+    private double m_leftModelVolts = 0;
+    private double m_rightModelVolts = 0;
+
+    private final FlywheelSim m_leftSim = new FlywheelSim(DCMotor.getFalcon500(1), kGearRatio, kMoi);
+    private final FlywheelSim m_rightSim = new FlywheelSim(DCMotor.getFalcon500(1), kGearRatio, kMoi);
 
     // private final SysIdRoutine m_currentSysId = makeTorqueCurrentSysIdRoutine(
     // Amps.of(8).per(Second),
@@ -111,6 +162,23 @@ public class Shooter extends SubsystemBase {
         m_right.getConfigurator().apply(ShooterConfigs.kRightConfigs);
         m_left.getConfigurator().apply(ShooterConfigs.kLeftConfigs);
         m_left.setInverted(true);
+        m_left.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+
+        for (var motor : new TalonFX[] {m_left, m_right}) {
+            CanRateManager.register(CanRateProfile.of(motor == m_left ? "ShooterLeft" : "ShooterRight", motor)
+                .signal(motor.getVelocity(), 10, 1 / kLoopPeriod, 1 / kLoopPeriod)
+                .signal(motor.getMotorVoltage(), 10, 100, 100)
+                .signal(motor.getClosedLoopError(), 4, 100, 100)
+                .signal(motor.getClosedLoopReference(), 4, 50, 50)
+                .signal(motor.getStatorCurrent(), 4, 1 / kLoopPeriod, 1 / kLoopPeriod)
+                .signal(motor.getSupplyCurrent(), 4, 50, 50));
+        }
+
+        // closed loop reference and error are in the hoot, only the requested targets go through WaltLogger
+        TelemetryRouter.hoot(kDbTabName, m_left, new String[] {"leftTarget", "leftError"},
+            m_left.getClosedLoopReference(), m_left.getClosedLoopError());
+        TelemetryRouter.hoot(kDbTabName, m_right, new String[] {"rightTarget", "rightError"},
+            m_right.getClosedLoopReference(), m_right.getClosedLoopError());
     }
 
     public Command stop() {
@@ -124,14 +192,10 @@ public class Shooter extends SubsystemBase {
     public Command toVelo(Supplier<Measure<Velocity<Angle>>> velo, BooleanSupplier idle) {
         Runnable spin = () -> {
             var velMeas = velo.get();
-            m_rightTarget = velMeas.times(0.6);
+            m_rightTarget = velMeas.times(kSpeakerSpinAmt);
             m_leftTarget = velMeas;
-            var right = m_rightTarget.in(RotationsPerSecond);
-            var left = m_leftTarget.in(RotationsPerSecond);
-
-            // withSlot(0) to use slot 0 PIDFF gains for powerful shots
-            m_right.setControl(m_request.withVelocity(right).withSlot(0));
-            m_left.setControl(m_request.withVelocity(left).withSlot(0));
+            // slot 0 PIDFF gains for powerful shots
+            applyTargets(0);
         };
 
         Consumer<Boolean> stopSpin = (interrupted) -> {
@@ -139,8 +203,7 @@ public class Shooter extends SubsystemBase {
             System.out.println("toVelo STOPPED. int: " + interrupted + ", auton: " + isAuton);
             m_rightTarget = RotationsPerSecond.of(0);
             m_leftTarget = RotationsPerSecond.of(0);
-            m_right.setControl(m_request.withVelocity(0).withSlot(0));
-            m_left.setControl(m_request.withVelocity(0).withSlot(0));
+            applyTargets(0);
             m_right.setControl(m_coast);
             m_left.setControl(m_coast);
         };
@@ -157,12 +220,7 @@ public class Shooter extends SubsystemBase {
             var velMeas = velo.get();
             m_rightTarget = velMeas.times(spinAmt);
             m_leftTarget = velMeas;
-            var right = m_rightTarget.in(RotationsPerSecond);
-            var left = m_leftTarget.in(RotationsPerSecond);
-
-            // withSlot(0) to use slot 0 PIDFF gains for powerful shots
-            m_right.setControl(m_request.withVelocity(right).withSlot(slot));
-            m_left.setControl(m_request.withVelocity(left).withSlot(slot));
+            applyTargets(slot);
         };
 
         Consumer<Boolean> stopSpin = (interrupted) -> {
@@ -170,8 +228,7 @@ public class Shooter extends SubsystemBase {
             System.out.println("toVelo STOPPED. int: " + interrupted + ", auton: " + isAuton);
             m_rightTarget = RotationsPerSecond.of(0);
             m_leftTarget = RotationsPerSecond.of(0);
-            m_right.setControl(m_request.withVelocity(0).withSlot(slot));
-            m_left.setControl(m_request.withVelocity(0).withSlot(slot));
+            applyTargets(slot);
             m_right.setControl(m_coast);
             m_left.setControl(m_coast);
         };
@@ -180,6 +237,99 @@ public class Shooter extends SubsystemBase {
             .withName("ShooterToVelo");
     }
 
+    /**
+     * Sends m_leftTarget/m_rightTarget to the motors, or to the model based controllers which the fast loop then runs
+     * @param slot - Gains to use in ONBOARD_PID mode
+     */
+    private void applyTargets(int slot) {
+        var right = m_rightTarget.in(RotationsPerSecond);
+        var left = m_leftTarget.in(RotationsPerSecond);
+
+        if (left != 0 || right != 0) {
+            m_spinUpTimer.restart();
+            m_timingSpinUp = true;
+        } else {
+            m_timingSpinUp = false;
+            m_recovering = false;
+            m_boosting = false;
+        }
+        m_slot = slot;
+
+        if (kControlMode == FlywheelControlMode.ONBOARD_PID) {
+            sendOnboardRequest(0);
+            return;
+        }
+        m_rightController.setTarget(right);
+        m_leftController.setTarget(left);
+        m_modelActive = left != 0 || right != 0;
+    }
+
+    private void sendOnboardRequest(double feedforwardVolts) {
+        m_right.setControl(m_request.withVelocity(m_rightTarget.in(RotationsPerSecond))
+            .withSlot(m_slot).withFeedForward(feedforwardVolts));
+        m_left.setControl(m_request.withVelocity(m_leftTarget.in(RotationsPerSecond))
+            .withSlot(m_slot).withFeedForward(feedforwardVolts));
+    }
+
+    /**
+     * Tells the shooter a note just went through, from the shooter beam break.
+     * Starts the feedforward boost for the RPM dip and the recovery timer
+     */
+    public void notifyShot() {
+        if (m_leftTarget.baseUnitMagnitude() == 0) {
+            return;
+        }
+        if (m_recovering && m_shotTimer.get() < kShotLockout) {
+            return;
+        }
+        m_shotTimer.restart();
+        m_recovering = true;
+        m_dipSeen = false;
+        m_shotCount++;
+    }
+
+    /** Detects shots from the current spike, boosts and times the recovery. Runs from fastPeriodic() */
+    private void updateShotRecovery(double leftErr, double rightErr, double tolerance) {
+        double leftCurrent = m_leftStatorCurrent.getValueAsDouble();
+        double rightCurrent = m_rightStatorCurrent.getValueAsDouble();
+        boolean inTolerance = leftErr <= tolerance && rightErr <= tolerance;
+        // spinning up, and the loop pulling the wheels back up after a shot, draw plenty of current too.
+        // only look for spikes once at speed with the last shot's recovery done
+        boolean armed = !m_timingSpinUp && !m_recovering && inTolerance;
+        boolean spike = leftCurrent - m_lastLeftCurrent > kCurrentJump || rightCurrent - m_lastRightCurrent > kCurrentJump;
+        if (spike && armed) {
+            notifyShot();
+        }
+        m_lastLeftCurrent = leftCurrent;
+        m_lastRightCurrent = rightCurrent;
+
+        if (!m_recovering) {
+            return;
+        }
+
+        if (!inTolerance) {
+            m_dipSeen = true;
+        } else if (m_dipSeen) {
+            m_recovering = false;
+            m_recoveryStats.add(m_shotTimer.get());
+            log_lastRecovery.accept(m_recoveryStats.getLast());
+            log_meanRecovery.accept(m_recoveryStats.getMean());
+            log_maxRecovery.accept(m_recoveryStats.getMax());
+        } else if (m_shotTimer.get() > kShotLockout) {
+            // never dipped out of tolerance, nothing to recover from
+            m_recovering = false;
+        }
+    }
+
+    public RollingStats getRecoveryStats() {
+        return m_recoveryStats;
+    }
+
+    /** @return How many shots {@link #notifyShot} has seen since boot */
+    public int getShotCount() {
+        return m_shotCount;
+    }
+
     private Command toVeloNoSpin(Supplier<Measure<Velocity<Angle>>> velo) {
         return toVelo(velo, () -> false, 1);
     }
@@ -236,6 +386,42 @@ public class Shooter extends SubsystemBase {
         return toVeloNoSpin(() -> RotationsPerMinute.of(kTrapRpm));
     }
 
+    private Measure<Velocity<Angle>> getTolerance() {
+        if (DriverStation.isAutonomous()) {
+            return RotationsPerSecond.of(50);
+        }
+        return m_leftTargetSupp.get().gte(RotationsPerSecond.of(40)) ? kBigShootTolerance : kAmpTolerance;
+    }
+
+    private double getLeftErrorRps() {
+        return kControlMode == FlywheelControlMode.ONBOARD_PID ? sig_leftError.get() : m_leftController.getErrorRps();
+    }
+
+    private double getRightErrorRps() {
+        return kControlMode == FlywheelControlMode.ONBOARD_PID ? sig_rightError.get() : m_rightController.getErrorRps();
+    }
+
+    /**
+     * Predicts how long spinning up to the target takes from the current speed, see
+     * {@link FlywheelController#predictSpinUpSeconds}. The slower side decides
+     * @param spinAmt - Right side target as a fraction of the left, like {@link #toVelo}
+     */
+    public double predictSpinUpSeconds(Measure<Velocity<Angle>> velo, double spinAmt) {
+        return predictSpinUpSeconds(velo.in(RotationsPerSecond), velo.in(RotationsPerSecond) * spinAmt);
+    }
+
+    /** Like {@link #predictSpinUpSeconds(Measure, double)}, to the targets the flywheels already have */
+    public double predictSpinUpSeconds() {
+        return predictSpinUpSeconds(m_leftTarget.in(RotationsPerSecond), m_rightTarget.in(RotationsPerSecond));
+    }
+
+    private double predictSpinUpSeconds(double leftRps, double rightRps) {
+        var tolerance = getTolerance().in(RotationsPerSecond);
+        var left = FlywheelController.predictSpinUpSeconds(m_leftVelocity.getValueAsDouble(), leftRps, tolerance);
+        var right = FlywheelController.predictSpinUpSeconds(m_rightVelocity.getValueAsDouble(), rightRps, tolerance);
+        return Math.max(left, right);
+    }
+
     public BooleanSupplier spinUpFinished() {
         return () -> {
             if (m_leftTarget.baseUnitMagnitude() == 0) {
@@ -243,17 +429,10 @@ public class Shooter extends SubsystemBase {
                 m_rightOk = false;
                 return false;
             }
-            var leftMeas = m_leftTargetSupp.get();
-            Measure<Velocity<Angle>> tolerance;
-            
-            if (DriverStation.isAutonomous()) {
-                tolerance = RotationsPerSecond.of(50);
-            } else {
-                tolerance = leftMeas.gte(RotationsPerSecond.of(40)) ? kBigShootTolerance : kAmpTolerance;
-            }
+            var tolerance = getTolerance();
 
-            var leftCleMeas = RotationsPerSecond.of(m_left.getClosedLoopError().getValueAsDouble());
-            var rightCleMeas = RotationsPerSecond.of(m_right.getClosedLoopError().getValueAsDouble());
+            var leftCleMeas = RotationsPerSecond.of(getLeftErrorRps());
+            var rightCleMeas = RotationsPerSecond.of(getRightErrorRps());
 
             m_leftOk = leftCleMeas.lte(tolerance);
             m_rightOk = rightCleMeas.lte(tolerance);
@@ -282,27 +461,70 @@ public class Shooter extends SubsystemBase {
         log_rightTargetRpm.accept(m_rightTarget.in(RotationsPerMinute));
         log_spinAmt.accept(m_spinAmt);
         log_shotTime.accept(m_shotTime);
-        log_leftTarget.accept(m_left.getClosedLoopReference().getValueAsDouble());
-        log_rightTarget.accept(m_right.getClosedLoopReference().getValueAsDouble());
-
-        log_leftError.accept(m_left.getClosedLoopError().getValueAsDouble());
-        log_rightError.accept(m_right.getClosedLoopError().getValueAsDouble());
         log_spunUp.accept(m_spunUp);
         log_leftOk.accept(m_leftOk);
         log_rightOk.accept(m_rightOk);
+        log_leftModelVolts.accept(m_leftModelVolts);
+        log_rightModelVolts.accept(m_rightModelVolts);
+        log_bangBang.accept(m_leftController.inBangBang() || m_rightController.inBangBang());
+        log_shotBoost.accept(m_boosting);
     }
 
-    public void simulationPeriodic() {
-        m_right.getSimState().setSupplyVoltage(12);
-        var volts = m_right.getSimState().getMotorVoltage();
-        // TODO: check voltage
-        m_flywheelSim.setInputVoltage(volts);
+    /** Runs the flywheel controllers (and the sim) every {@code kLoopPeriod}, from the LoopScheduler */
+    public void fastPeriodic() {
+        if (Utils.isSimulation()) {
+            stepSim(kLoopPeriod);
+        }
 
-        if (m_flywheelSim.getAngularVelocityRPM() >= m_leftTarget.in(RotationsPerMinute) && !found) {
-            found = true;
+        BaseStatusSignal.refreshAll(m_leftVelocity, m_rightVelocity, m_leftStatorCurrent, m_rightStatorCurrent);
+        double left = m_leftVelocity.getValueAsDouble();
+        double right = m_rightVelocity.getValueAsDouble();
+        double leftErr = m_leftTarget.in(RotationsPerSecond) - left;
+        double rightErr = m_rightTarget.in(RotationsPerSecond) - right;
+        var tolerance = getTolerance().in(RotationsPerSecond);
+
+        updateShotRecovery(leftErr, rightErr, tolerance);
+        boolean boost = m_recovering && m_shotTimer.get() < kBoostDuration;
+        double boostVolts = boost ? kBoostVolts : 0;
+
+        if (kControlMode != FlywheelControlMode.ONBOARD_PID) {
+            m_leftModelVolts = m_leftController.calculate(left);
+            m_rightModelVolts = m_rightController.calculate(right);
+            if (m_modelActive) {
+                m_left.setControl(m_modelRequest.withOutput(Math.min(m_leftModelVolts + boostVolts, kMaxVoltage)));
+                m_right.setControl(m_modelRequest.withOutput(Math.min(m_rightModelVolts + boostVolts, kMaxVoltage)));
+            }
+        } else if (boost != m_boosting && m_leftTarget.baseUnitMagnitude() != 0) {
+            // the onboard loop keeps running on its own, only resend when the boost starts or ends
+            sendOnboardRequest(boostVolts);
         }
+        m_boosting = boost;
+
+        if (m_timingSpinUp) {
+            boolean leftOk = leftErr <= tolerance;
+            boolean rightOk = rightErr <= tolerance;
+            if (leftOk && rightOk) {
+                m_timingSpinUp = false;
+                log_spinUpTime.accept(m_spinUpTimer.get());
+            }
+        }
+    }
 
-        m_flywheelSim.update(kSimInterval);
+    private void stepSim(double dt) {
+        var battery = RobotController.getBatteryVoltage();
+        m_left.getSimState().setSupplyVoltage(battery);
+        m_right.getSimState().setSupplyVoltage(battery);
+
+        m_leftSim.setInputVoltage(m_left.getSimState().getMotorVoltage());
+        m_rightSim.setInputVoltage(m_right.getSimState().getMotorVoltage());
+        m_leftSim.update(dt);
+        m_rightSim.update(dt);
+
+        // the sim state wants rotor velocity, before the sensor to mechanism ratio
+        var leftRps = Units.radiansToRotations(m_leftSim.getAngularVelocityRadPerSec());
+        var rightRps = Units.radiansToRotations(m_rightSim.getAngularVelocityRadPerSec());
+        m_left.getSimState().setRotorVelocity(leftRps * kGearRatio);
+        m_right.getSimState().setRotorVelocity(rightRps * kGearRatio);
     }
 
     public Command sysIdQuasistatic(SysIdRoutine.Direction direction) {
@@ -0,0 +1,158 @@
+package frc.robot.subsystems.shooter;
+
+import static frc.robot.Constants.ShooterK.kReadyReportWindow;
+
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.units.Angle;
+import edu.wpi.first.units.Measure;
+import edu.wpi.first.units.Velocity;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.util.RollingStats;
+import frc.util.logging.WaltLogger;
+import frc.util.logging.WaltLogger.DoubleLogger;
+
+/**
+ * Aims and spins up at the same time, so the shot is ready as soon as the slower of the two is. Every shot is prepared
+ * through here: the subwoofer, podium and amp bindings, the autons' aims, and the vision autons' wrapper.
+ * The shot itself is still gated by the Superstructure, which only goes to SHOOT_OK once it's spun up and at angle.
+ * <p>
+ * The models' predicted ready time is logged against the actual one for every shot, which is what tells us whether
+ * they can be trusted.
+ */
+public class ShotCoordinator {
+    private static final String kDbTabName = "ShotCoordinator";
+
+    private final Aim m_aim;
+    private final Shooter m_shooter;
+    private final BooleanSupplier m_aimReady;
+    private final BooleanSupplier m_spunUp;
+
+    private final Timer m_readyTimer = new Timer();
+    /** Predicted ready time of the shot being prepared, NaN once it's been reported */
+    private double m_pendingReadyTime = Double.NaN;
+    private final RollingStats m_predictionErrors = new RollingStats(kReadyReportWindow);
+
+    private final DoubleLogger log_predictedAim = WaltLogger.logDouble(kDbTabName, "predictedAimTime");
+    private final DoubleLogger log_predictedSpinUp = WaltLogger.logDouble(kDbTabName, "predictedSpinUpTime");
+    private final DoubleLogger log_predictedReady = WaltLogger.logDouble(kDbTabName, "predictedReadyTime");
+    private final DoubleLogger log_actualReady = WaltLogger.logDouble(kDbTabName, "actualReadyTime");
+    private final DoubleLogger log_meanError = WaltLogger.logDouble(kDbTabName, "meanPredictionError");
+
+    public ShotCoordinator(Aim aim, Shooter shooter) {
+        m_aim = aim;
+        m_shooter = shooter;
+        m_aimReady = aim.aimFinished();
+        m_spunUp = shooter.spinUpFinished();
+    }
+
+    /**
+     * Predicts the ready time the moment it's scheduled, from where the arm and flywheels are then.
+     * Keeps the flywheels spinning until interrupted, like {@link Shooter#toVelo}
+     * @param spinAmt - Right side speed as a fraction of the left
+     */
+    public Command prepare(Measure<Angle> angle, Measure<Velocity<Angle>> velo, double spinAmt) {
+        return Commands.defer(() -> {
+            predict(m_aim.predictTimeToAngle(angle, false), m_shooter.predictSpinUpSeconds(velo, spinAmt));
+            return Commands.parallel(
+                m_aim.toAngleUntilAt(angle),
+                m_shooter.toVelo(() -> velo, () -> false, spinAmt),
+                reportWhenReady()
+            );
+        }, Set.of(m_aim, m_shooter)).withName("ShotCoordinatorPrepare");
+    }
+
+    /**
+     * Like {@link #prepare(Measure, Measure, double)}, but only aims once {@code beforeAim} is done, e.g. once the note
+     * is far enough in for the arm to move. The flywheels start right away. The ready time is predicted and timed from
+     * when the aim starts, since how long {@code beforeAim} takes is up to the driver
+     */
+    public Command prepareAfter(
+        Command beforeAim, Measure<Angle> angle, Measure<Angle> tolerance, Measure<Velocity<Angle>> velo, double spinAmt
+    ) {
+        var aimAndReport = Commands.defer(() -> {
+            predict(m_aim.predictTimeToAngle(angle, false), m_shooter.predictSpinUpSeconds(velo, spinAmt));
+            return Commands.parallel(m_aim.toAngleUntilAt(angle, tolerance), reportWhenReady());
+        }, Set.of(m_aim));
+
+        return Commands.parallel(
+            m_shooter.toVelo(() -> velo, () -> false, spinAmt),
+            // the arm is only taken once it's needed, so the other aim bindings can't cancel the spin up meanwhile
+            beforeAim.andThen(aimAndReport.asProxy())
+        ).withName("ShotCoordinatorPrepareAfter");
+    }
+
+    /**
+     * Aims at the speaker with vision while spinning up, for as long as it runs. The ready time is predicted from the
+     * pitch vision wants when it's scheduled
+     * @param idle - Stops the flywheels once true, like {@link Shooter#toVelo}
+     */
+    public Command prepareVision(Measure<Velocity<Angle>> velo, double spinAmt, BooleanSupplier idle) {
+        return Commands.defer(() -> {
+            predict(m_aim.predictTimeToAngle(m_aim.getPitchToSpeaker(), false),
+                m_shooter.predictSpinUpSeconds(velo, spinAmt));
+            return Commands.parallel(
+                m_aim.aim(),
+                m_shooter.toVelo(() -> velo, idle, spinAmt),
+                reportWhenReady()
+            );
+        }, Set.of(m_aim, m_shooter)).withName("ShotCoordinatorPrepareVision");
+    }
+
+    /**
+     * Only aims, for when something else already holds the flywheels at speed (the auton wrappers).
+     * Ends as soon as the arm is there, if the flywheels aren't by then that shot goes unreported
+     */
+    public Command prepareAim(Measure<Angle> angle) {
+        return prepareAim(angle, () -> m_aim.toAngleUntilAt(angle));
+    }
+
+    /** See {@link #prepareAim(Measure)} */
+    public Command prepareAim(Measure<Angle> angle, Measure<Angle> tolerance) {
+        return prepareAim(angle, () -> m_aim.toAngleUntilAt(angle, tolerance));
+    }
+
+    private Command prepareAim(Measure<Angle> angle, Supplier<Command> aimCmd) {
+        return Commands.defer(() -> {
+            predict(m_aim.predictTimeToAngle(angle, false), m_shooter.predictSpinUpSeconds());
+            // the aim ending ends this, so check once more on the way out in case that tick made it ready
+            return Commands.deadline(aimCmd.get(), Commands.run(this::reportIfReady).finallyDo(this::reportIfReady));
+        }, Set.of(m_aim)).withName("ShotCoordinatorPrepareAim");
+    }
+
+    private void predict(double aimTime, double spinUpTime) {
+        double readyTime = Math.max(aimTime, spinUpTime);
+        log_predictedAim.accept(aimTime);
+        log_predictedSpinUp.accept(spinUpTime);
+        log_predictedReady.accept(readyTime);
+        m_pendingReadyTime = readyTime;
+        m_readyTimer.restart();
+    }
+
+    private Command reportWhenReady() {
+        return Commands.run(this::reportIfReady).until(() -> Double.isNaN(m_pendingReadyTime));
+    }
+
+    private void reportIfReady() {
+        if (!Double.isNaN(m_pendingReadyTime) && m_aimReady.getAsBoolean() && m_spunUp.getAsBoolean()) {
+            report(m_pendingReadyTime);
+            m_pendingReadyTime = Double.NaN;
+        }
+    }
+
+    private void report(double predicted) {
+        double actual = m_readyTimer.get();
+        m_predictionErrors.add(actual - predicted);
+        log_actualReady.accept(actual);
+        log_meanError.accept(m_predictionErrors.getMean());
+    }
+
+    /** @return Actual minus predicted ready time over the last few shots */
+    public RollingStats getPredictionErrors() {
+        return m_predictionErrors;
+    }
+}
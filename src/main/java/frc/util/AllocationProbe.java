@@ -0,0 +1,77 @@
+package frc.util;
+
+import java.lang.management.ManagementFactory;
+
+import frc.util.logging.WaltLogger;
+import frc.util.logging.WaltLogger.DoubleLogger;
+
+/**
+ * Counts the bytes a thread allocates between {@link #begin} and {@link #end}, e.g. around one robot loop's work.
+ * Garbage on the roboRIO means GC pauses in the middle of a match, so steady loops should read 0 here.
+ * Only what runs between the two calls is counted, so other work on the same thread (the LoopScheduler tasks share
+ * the main thread with robotPeriodic) doesn't end up in the number.
+ * Always call from the same thread. Reads nothing on JVMs that can't count per thread allocations.
+ */
+public class AllocationProbe {
+    private final com.sun.management.ThreadMXBean m_threads;
+    private final RollingStats m_bytes;
+    private long m_beginBytes = -1;
+
+    private final DoubleLogger log_bytes;
+    private final DoubleLogger log_meanBytes;
+
+    /** @param window - Samples to keep stats over */
+    public AllocationProbe(String name, int window) {
+        var threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean sunThreads
+            && sunThreads.isThreadAllocatedMemorySupported()) {
+            sunThreads.setThreadAllocatedMemoryEnabled(true);
+            m_threads = sunThreads;
+        } else {
+            System.out.println("[ALLOC] Per thread allocation counting not supported, " + name + " won't report");
+            m_threads = null;
+        }
+        m_bytes = new RollingStats(window);
+
+        var table = "Alloc/" + name;
+        log_bytes = WaltLogger.logDouble(table, "bytes");
+        log_meanBytes = WaltLogger.logDouble(table, "meanBytes");
+    }
+
+    /** Starts a measured section */
+    public void begin() {
+        if (m_threads == null) {
+            return;
+        }
+        m_beginBytes = m_threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /** Ends the section started by {@link #begin} and adds what it allocated as one sample */
+    public void end() {
+        if (m_threads == null || m_beginBytes < 0) {
+            return;
+        }
+        m_bytes.add(m_threads.getCurrentThreadAllocatedBytes() - m_beginBytes);
+        m_beginBytes = -1;
+    }
+
+    /** Publishes the last sample and the mean. Call it outside the measured section, it isn't counted */
+    public void log() {
+        if (m_bytes.getCount() == 0) {
+            return;
+        }
+        log_bytes.accept(m_bytes.getLast());
+        log_meanBytes.accept(m_bytes.getMean());
+    }
+
+    /** Starts the stats over, e.g. when the robot changes mode */
+    public void reset() {
+        m_bytes.reset();
+        m_beginBytes = -1;
+    }
+
+    /** @return Bytes allocated per section */
+    public RollingStats getStats() {
+        return m_bytes;
+    }
+}
@@ -0,0 +1,98 @@
+package frc.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ctre.phoenix6.CANBus;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.util.CanRateProfile.Mode;
+import frc.util.logging.WaltLogger;
+import frc.util.logging.WaltLogger.DoubleLogger;
+
+/**
+ * Owns every {@link CanRateProfile} and switches them between robot modes.
+ */
+public final class CanRateManager {
+    private CanRateManager() {}
+
+    /** Classic CAN frame with an extended ID and 8 data bytes, worst case bit stuffing */
+    private static final double kBitsPerFrame = 160;
+    private static final double kBitrate = 1_000_000;
+
+    private static final List<CanRateProfile> m_profiles = new ArrayList<>();
+    private static final Map<String, DoubleLogger> log_estimatedLoad = new LinkedHashMap<>();
+    private static final Map<String, DoubleLogger> log_measuredLoad = new LinkedHashMap<>();
+    private static Mode m_mode = null;
+
+    public static void register(CanRateProfile profile) {
+        m_profiles.add(profile);
+        if (!log_estimatedLoad.containsKey(profile.bus)) {
+            log_estimatedLoad.put(profile.bus, WaltLogger.logDouble("CAN/" + profile.bus, "estimatedLoadPct"));
+            log_measuredLoad.put(profile.bus, WaltLogger.logDouble("CAN/" + profile.bus, "measuredLoadPct"));
+        }
+        // anything registered late still gets the current mode
+        if (m_mode != null) {
+            profile.apply(m_mode);
+        }
+    }
+
+    public static void apply(Mode mode) {
+        m_mode = mode;
+        for (var profile : m_profiles) {
+            if (!profile.apply(mode)) {
+                DriverStation.reportWarning("[CAN] Failed to apply " + mode + " rates to " + profile.name, false);
+            }
+        }
+    }
+
+    /** @return Estimated bus utilization in percent (0-100), from the declared rates only */
+    public static double estimateLoad(String bus, Mode mode) {
+        double fps = 0;
+        for (var profile : m_profiles) {
+            if (profile.bus.equals(bus)) {
+                fps += profile.estimateFramesPerSecond(mode);
+            }
+        }
+        return fps * kBitsPerFrame / kBitrate * 100;
+    }
+
+    /** @return Measured bus utilization in percent (0-100) as reported by the roboRIO or CANivore */
+    public static double measureLoad(String bus) {
+        if (bus.equals("rio")) {
+            return RobotController.getCANStatus().percentBusUtilization * 100;
+        }
+        return CANBus.getStatus(bus).BusUtilization * 100;
+    }
+
+    /** Logs estimated and measured load per bus. Meant to be a LOW priority scheduler task */
+    public static void logBusLoad() {
+        if (m_mode == null) {
+            return;
+        }
+        for (var entry : log_estimatedLoad.entrySet()) {
+            var bus = entry.getKey();
+            entry.getValue().accept(estimateLoad(bus, m_mode));
+            log_measuredLoad.get(bus).accept(measureLoad(bus));
+        }
+    }
+
+    /** Prints the declared load for every bus in every mode. Not for use in the loop */
+    public static String report() {
+        var sb = new StringBuilder("[CAN] device | bus | disabled fps | auto fps | teleop fps\n");
+        for (var profile : m_profiles) {
+            sb.append(String.format("%s | %s | %.0f | %.0f | %.0f%n", profile.name, profile.bus,
+                profile.estimateFramesPerSecond(Mode.DISABLED),
+                profile.estimateFramesPerSecond(Mode.AUTO),
+                profile.estimateFramesPerSecond(Mode.TELEOP)));
+        }
+        for (var bus : log_estimatedLoad.keySet()) {
+            sb.append(String.format("[CAN] %s estimated load: disabled %.1f%%, auto %.1f%%, teleop %.1f%%%n", bus,
+                estimateLoad(bus, Mode.DISABLED), estimateLoad(bus, Mode.AUTO), estimateLoad(bus, Mode.TELEOP)));
+        }
+        return sb.toString();
+    }
+}
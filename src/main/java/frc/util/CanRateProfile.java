@@ -0,0 +1,160 @@
+package frc.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+
+/**
+ * Declares which status signals (Phoenix) or periodic frames (REV) a device sends, and how often, per robot mode.
+ * Build one per device next to where the device is made and hand it to {@link CanRateManager#register}.
+ * <p>
+ * Phoenix devices get {@code optimizeBusUtilization()} at startup, so any signal not listed here is turned off.
+ * REV frames not listed keep their defaults, use {@link #unusedFrames()} to turn the ones nothing reads down.
+ */
+public class CanRateProfile {
+    public enum Mode {
+        DISABLED, AUTO, TELEOP
+    }
+
+    /** Longest period a SparkMax frame can have, effectively off */
+    public static final int kDisabledFrameMs = 65535;
+
+    private static final class PhoenixEntry {
+        private final BaseStatusSignal signal;
+        private final double[] hz;
+
+        private PhoenixEntry(BaseStatusSignal signal, double[] hz) {
+            this.signal = signal;
+            this.hz = hz;
+        }
+    }
+
+    private static final class RevEntry {
+        private final PeriodicFrame frame;
+        private final int[] ms;
+
+        private RevEntry(PeriodicFrame frame, int[] ms) {
+            this.frame = frame;
+            this.ms = ms;
+        }
+    }
+
+    public final String name;
+    public final String bus;
+    private final ParentDevice m_phoenix;
+    private final CANSparkMax m_spark;
+    private final List<PhoenixEntry> m_signals = new ArrayList<>();
+    private final List<RevEntry> m_frames = new ArrayList<>();
+    private Mode m_applied = null;
+
+    private CanRateProfile(String name, String bus, ParentDevice phoenix, CANSparkMax spark) {
+        this.name = name;
+        this.bus = bus;
+        m_phoenix = phoenix;
+        m_spark = spark;
+    }
+
+    public static CanRateProfile of(String name, ParentDevice device) {
+        var bus = device.getNetwork();
+        return new CanRateProfile(name, bus.isEmpty() ? "rio" : bus, device, null);
+    }
+
+    public static CanRateProfile of(String name, CANSparkMax spark) {
+        return new CanRateProfile(name, "rio", null, spark);
+    }
+
+    /** Sends the signal at the given rates. 0 Hz turns it off, otherwise Phoenix allows 4-1000 Hz */
+    public CanRateProfile signal(BaseStatusSignal signal, double disabledHz, double autoHz, double teleopHz) {
+        if (m_phoenix == null) {
+            throw new IllegalStateException("[CAN] " + name + " isn't a Phoenix device");
+        }
+        m_signals.add(new PhoenixEntry(signal, new double[] {disabledHz, autoHz, teleopHz}));
+        return this;
+    }
+
+    public CanRateProfile signal(BaseStatusSignal signal, double hz) {
+        return signal(signal, hz, hz, hz);
+    }
+
+    public CanRateProfile frame(PeriodicFrame frame, int disabledMs, int autoMs, int teleopMs) {
+        if (m_spark == null) {
+            throw new IllegalStateException("[CAN] " + name + " isn't a SparkMax");
+        }
+        m_frames.add(new RevEntry(frame, new int[] {disabledMs, autoMs, teleopMs}));
+        return this;
+    }
+
+    public CanRateProfile frame(PeriodicFrame frame, int ms) {
+        return frame(frame, ms, ms, ms);
+    }
+
+    /** Turns down the analog sensor, alternate encoder and absolute encoder frames (Status 3-6) */
+    public CanRateProfile unusedFrames() {
+        frame(PeriodicFrame.kStatus3, kDisabledFrameMs);
+        frame(PeriodicFrame.kStatus4, kDisabledFrameMs);
+        frame(PeriodicFrame.kStatus5, kDisabledFrameMs);
+        frame(PeriodicFrame.kStatus6, kDisabledFrameMs);
+        return this;
+    }
+
+    /**
+     * Applies the rates for the mode. The first call also strips every unlisted Phoenix signal.
+     * Later calls only touch signals/frames whose rate actually changes, and don't wait for the device to ack
+     * @return False if any device call failed
+     */
+    boolean apply(Mode mode) {
+        if (mode == m_applied) {
+            return true;
+        }
+        boolean first = m_applied == null;
+        boolean ok = true;
+        int idx = mode.ordinal();
+        int prevIdx = first ? -1 : m_applied.ordinal();
+
+        for (var entry : m_signals) {
+            if (!first && entry.hz[idx] == entry.hz[prevIdx]) {
+                continue;
+            }
+            var status = first
+                ? entry.signal.setUpdateFrequency(entry.hz[idx])
+                : entry.signal.setUpdateFrequency(entry.hz[idx], 0);
+            ok &= status.isOK();
+        }
+        if (first && m_phoenix != null) {
+            ok &= m_phoenix.optimizeBusUtilization().isOK();
+        }
+
+        for (var entry : m_frames) {
+            if (!first && entry.ms[idx] == entry.ms[prevIdx]) {
+                continue;
+            }
+            ok &= m_spark.setPeriodicFramePeriod(entry.frame, entry.ms[idx]) == REVLibError.kOk;
+        }
+
+        m_applied = mode;
+        return ok;
+    }
+
+    /**
+     * Upper bound on the frames per second this device sends in the given mode.
+     * Counts one frame per Phoenix signal, in reality several signals share a frame
+     */
+    public double estimateFramesPerSecond(Mode mode) {
+        int idx = mode.ordinal();
+        double fps = 0;
+        for (var entry : m_signals) {
+            fps += entry.hz[idx];
+        }
+        for (var entry : m_frames) {
+            if (entry.ms[idx] < kDisabledFrameMs) {
+                fps += 1000.0 / entry.ms[idx];
+            }
+        }
+        return fps;
+    }
+}
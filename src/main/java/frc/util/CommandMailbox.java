@@ -0,0 +1,24 @@
+package frc.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free, allocation-free mailbox for one-shot requests going the other way, from command-based code to a control thread.
+ * Requests are bits, posting the same request twice before it's taken only delivers it once.
+ */
+public final class CommandMailbox {
+    private final AtomicInteger m_requests = new AtomicInteger();
+
+    public void post(int request) {
+        m_requests.accumulateAndGet(request, (cur, req) -> cur | req);
+    }
+
+    /** @return Every request posted since the last call, and clears them */
+    public int take() {
+        return m_requests.getAndSet(0);
+    }
+
+    public static boolean has(int requests, int request) {
+        return (requests & request) != 0;
+    }
+}
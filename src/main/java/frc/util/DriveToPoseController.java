@@ -0,0 +1,235 @@
+package frc.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
+import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Drives a holonomic drivetrain to a pose along a straight line, with trapezoid profiles on the distance left and on
+ * the heading.
+ * <p>
+ * The profiled velocities go out as feedforward with a P term on the profile setpoints, so the robot follows a
+ * velocity limited plan instead of a P controller that saturates far away and creeps at the end. At {@link #reset} the
+ * faster of the two profiles is slowed down to finish with the slower one. That way the robot doesn't spin in place
+ * at the end of a long drive or drift sideways while it finishes turning.
+ * Speeds come out robot relative, converted with the robot's current heading.
+ */
+public class DriveToPoseController {
+    private static final State kDriveGoal = new State(0, 0);
+    // halves the range each time, 30 gets f to about 1e-9
+    private static final int kStretchIterations = 30;
+
+    private final Constraints m_driveConstraints;
+    private final Constraints m_turnConstraints;
+    private final double m_kPDrive;
+    private final double m_kPTurn;
+    private final double m_translationTolerance;
+    private final double m_rotationTolerance;
+
+    // the constraints after the time matching in reset, the profiles are stepped in place with these
+    private Constraints m_driveLimits;
+    private Constraints m_turnLimits;
+    // the drive profile runs on the distance left to the goal, so it always ends at 0
+    private State m_driveSetpoint = new State();
+    private State m_turnSetpoint = new State();
+    private State m_turnGoal = new State();
+    private Pose2d m_goal = new Pose2d();
+    private double m_lastTime = 0;
+
+    private double m_distanceError = 0;
+    private double m_rotationError = 0;
+    private final ChassisSpeeds m_speeds = new ChassisSpeeds();
+
+    /**
+     * @param driveConstraints - Meters per second (squared) along the line to the goal
+     * @param turnConstraints - Radians per second (squared)
+     * @param translationTolerance - Meters
+     * @param rotationTolerance - Radians
+     */
+    public DriveToPoseController(
+        Constraints driveConstraints, Constraints turnConstraints, double kPDrive, double kPTurn,
+        double translationTolerance, double rotationTolerance) {
+        m_driveConstraints = driveConstraints;
+        m_turnConstraints = turnConstraints;
+        m_kPDrive = kPDrive;
+        m_kPTurn = kPTurn;
+        m_translationTolerance = translationTolerance;
+        m_rotationTolerance = rotationTolerance;
+        m_driveLimits = driveConstraints;
+        m_turnLimits = turnConstraints;
+    }
+
+    /**
+     * Plans both profiles from where the robot is now.
+     * @param fieldSpeeds - The robot's current field relative speeds, so a moving start stays smooth
+     */
+    public void reset(Pose2d current, ChassisSpeeds fieldSpeeds, Pose2d goal) {
+        m_goal = goal;
+        m_lastTime = Timer.getFPGATimestamp();
+
+        double dx = goal.getX() - current.getX();
+        double dy = goal.getY() - current.getY();
+        double distance = Math.hypot(dx, dy);
+        double veloTowards = distance > 1e-6
+            ? (fieldSpeeds.vxMetersPerSecond * dx + fieldSpeeds.vyMetersPerSecond * dy) / distance
+            : 0;
+        m_driveSetpoint = new State(distance, -veloTowards);
+        double heading = current.getRotation().getRadians();
+        m_distanceError = distance;
+        m_rotationError = MathUtil.angleModulus(goal.getRotation().getRadians() - heading);
+        m_turnSetpoint = new State(heading, fieldSpeeds.omegaRadiansPerSecond);
+        m_turnGoal = new State(heading + MathUtil.angleModulus(goal.getRotation().getRadians() - heading), 0);
+
+        double driveTime = totalTime(m_driveConstraints, m_driveSetpoint, kDriveGoal);
+        double turnTime = totalTime(m_turnConstraints, m_turnSetpoint, m_turnGoal);
+        m_driveLimits = m_driveConstraints;
+        m_turnLimits = m_turnConstraints;
+        if (driveTime > turnTime && turnTime > 0) {
+            m_turnLimits = stretch(m_turnConstraints, m_turnSetpoint, m_turnGoal, driveTime);
+        } else if (turnTime > driveTime && driveTime > 0) {
+            m_driveLimits = stretch(m_driveConstraints, m_driveSetpoint, kDriveGoal, turnTime);
+        }
+    }
+
+    private static double totalTime(Constraints constraints, State start, State goal) {
+        var profile = new TrapezoidProfile(constraints);
+        profile.calculate(0, start, goal);
+        return profile.totalTime();
+    }
+
+    /**
+     * Slows the constraints down so the profile from {@code start} takes {@code time}.
+     * Scaling velocity by f and acceleration by f² stretches a trapezoid's time by exactly 1/f only when it starts
+     * at rest. reset() seeds the robot's current speed, so f is searched for instead. Slower always takes longer,
+     * so bisection works.
+     */
+    static Constraints stretch(Constraints constraints, State start, State goal, double time) {
+        double lo = 0;
+        double hi = 1;
+        for (int i = 0; i < kStretchIterations; i++) {
+            double mid = (lo + hi) / 2;
+            if (totalTime(scale(constraints, mid), start, goal) > time) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        // hi never takes longer than asked, so this one doesn't finish after the other
+        return scale(constraints, hi);
+    }
+
+    private static Constraints scale(Constraints constraints, double factor) {
+        return new Constraints(constraints.maxVelocity * factor, constraints.maxAcceleration * factor * factor);
+    }
+
+    /** @return Robot relative speeds. The same object every call, so copy it if it needs to be kept */
+    public ChassisSpeeds calculate(Pose2d current) {
+        double now = Timer.getFPGATimestamp();
+        double dt = MathUtil.clamp(now - m_lastTime, 0, 0.1);
+        m_lastTime = now;
+
+        double dx = m_goal.getX() - current.getX();
+        double dy = m_goal.getY() - current.getY();
+        double distance = Math.hypot(dx, dy);
+        step(m_driveLimits, dt, m_driveSetpoint, kDriveGoal);
+        double veloTowards = -m_driveSetpoint.velocity + m_kPDrive * (distance - m_driveSetpoint.position);
+
+        double vx = 0;
+        double vy = 0;
+        // the direction to the goal is noise once we're basically on top of it
+        if (distance > m_translationTolerance / 4) {
+            vx = veloTowards * dx / distance;
+            vy = veloTowards * dy / distance;
+        }
+
+        double heading = current.getRotation().getRadians();
+        step(m_turnLimits, dt, m_turnSetpoint, m_turnGoal);
+        double omega = m_turnSetpoint.velocity
+            + m_kPTurn * MathUtil.angleModulus(m_turnSetpoint.position - heading);
+
+        m_distanceError = distance;
+        m_rotationError = MathUtil.angleModulus(m_goal.getRotation().getRadians() - heading);
+
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        m_speeds.vxMetersPerSecond = vx * cos + vy * sin;
+        m_speeds.vyMetersPerSecond = -vx * sin + vy * cos;
+        m_speeds.omegaRadiansPerSecond = omega;
+        return m_speeds;
+    }
+
+    /**
+     * Same math as {@link TrapezoidProfile#calculate}, but writes the result into {@code state} instead of making
+     * new States every loop.
+     * @param state - Where the profile is now, moved {@code t} seconds along it
+     * @param goal - Not modified
+     */
+    static void step(Constraints constraints, double t, State state, State goal) {
+        double maxVelocity = constraints.maxVelocity;
+        double maxAccel = constraints.maxAcceleration;
+        // work as if the goal is always ahead, like TrapezoidProfile does
+        double direction = state.position > goal.position ? -1 : 1;
+        double position = state.position * direction;
+        double velocity = Math.min(state.velocity * direction, maxVelocity);
+        double goalPosition = goal.position * direction;
+        double goalVelocity = goal.velocity * direction;
+
+        double cutoffBegin = velocity / maxAccel;
+        double cutoffDistBegin = cutoffBegin * cutoffBegin * maxAccel / 2.0;
+        double cutoffEnd = goalVelocity / maxAccel;
+        double cutoffDistEnd = cutoffEnd * cutoffEnd * maxAccel / 2.0;
+        double fullTrapezoidDist = cutoffDistBegin + (goalPosition - position) + cutoffDistEnd;
+        double accelTime = maxVelocity / maxAccel;
+        double fullSpeedDist = fullTrapezoidDist - accelTime * accelTime * maxAccel;
+        if (fullSpeedDist < 0) {
+            accelTime = Math.sqrt(fullTrapezoidDist / maxAccel);
+            fullSpeedDist = 0;
+        }
+        double endAccel = accelTime - cutoffBegin;
+        double endFullSpeed = endAccel + fullSpeedDist / maxVelocity;
+        double endDecel = endFullSpeed + accelTime - cutoffEnd;
+
+        if (t < endAccel) {
+            position += (velocity + t * maxAccel / 2.0) * t;
+            velocity += t * maxAccel;
+        } else if (t < endFullSpeed) {
+            position += (velocity + endAccel * maxAccel / 2.0) * endAccel + maxVelocity * (t - endAccel);
+            velocity = maxVelocity;
+        } else if (t <= endDecel) {
+            double timeLeft = endDecel - t;
+            velocity = goalVelocity + timeLeft * maxAccel;
+            position = goalPosition - (goalVelocity + timeLeft * maxAccel / 2.0) * timeLeft;
+        } else {
+            position = goalPosition;
+            velocity = goalVelocity;
+        }
+        state.position = position * direction;
+        state.velocity = velocity * direction;
+    }
+
+    /** @return Whether both profiles are done and the robot is within tolerance of the goal */
+    public boolean atGoal() {
+        return m_driveSetpoint.position <= m_translationTolerance
+            && Math.abs(m_turnSetpoint.position - m_turnGoal.position) <= m_rotationTolerance
+            && m_distanceError <= m_translationTolerance
+            && Math.abs(m_rotationError) <= m_rotationTolerance;
+    }
+
+    public Pose2d getGoal() {
+        return m_goal;
+    }
+
+    /** @return Meters from the goal as of the last {@link #calculate} */
+    public double getDistanceError() {
+        return m_distanceError;
+    }
+
+    /** @return Radians from the goal heading as of the last {@link #calculate} */
+    public double getRotationError() {
+        return m_rotationError;
+    }
+}
@@ -0,0 +1,219 @@
+package frc.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Threads;
+
+/**
+ * Multi-rate scheduler for everything that used to be a bare addPeriodic() in Robot.
+ * <p>
+ * Main loop tasks are multiplexed on one base tick (driven by a single TimedRobot addPeriodic) and run in priority order.
+ * If the tick starts late or the tick's budget is already used up, LOW priority tasks get deferred to a later tick
+ * instead of making it worse. A LOW task that has been deferred for a whole period runs anyway, so it's never dropped.
+ * Tasks that can't share a thread can be moved onto their own Notifier thread, optionally at RT priority.
+ * Every task gets its own {@link AllocationProbe} around just its runnable, so garbage can be pinned on a task.
+ */
+public class LoopScheduler {
+    public enum Priority {
+        /** Control loops. Never deferred */
+        CRITICAL,
+        /** Sensor processing and the main thread half of threaded work. Never deferred, but runs after CRITICAL */
+        NORMAL,
+        /** Logging and telemetry. Deferred when the loop is late */
+        LOW
+    }
+
+    public static final class Task {
+        public final String name;
+        public final Priority priority;
+        public final LoopTimingStats stats;
+        public final AllocationProbe alloc;
+
+        private final Runnable m_runnable;
+        private final long m_periodUs;
+        private long m_nextRunUs = 0;
+
+        private Task(String name, Runnable runnable, double periodSeconds, Priority priority) {
+            this.name = name;
+            this.priority = priority;
+            this.stats = new LoopTimingStats(name, periodSeconds);
+            this.alloc = new AllocationProbe("Task/" + name, kAllocWindow);
+            m_runnable = runnable;
+            m_periodUs = (long) (periodSeconds * 1e6);
+        }
+    }
+
+    /** Runs per task to keep allocation stats over */
+    private static final int kAllocWindow = 250;
+
+    private final long m_basePeriodUs;
+    /** How late a tick may start before LOW tasks are deferred */
+    private final long m_lateThresholdUs;
+    /** How much of the base tick may be spent before LOW tasks are deferred */
+    private final long m_budgetUs;
+
+    private final List<Task> m_tasks = new ArrayList<>();
+    private final List<Task> m_threadedTasks = new ArrayList<>();
+    private final List<Notifier> m_notifiers = new ArrayList<>();
+    private long m_nextTickUs = 0;
+
+    /**
+     * @param basePeriodSeconds - Period of the base tick. Every main loop task must be a multiple of it
+     * @param lateThresholdSeconds - How late a tick can start before LOW priority tasks get deferred
+     */
+    public LoopScheduler(double basePeriodSeconds, double lateThresholdSeconds) {
+        m_basePeriodUs = (long) (basePeriodSeconds * 1e6);
+        m_lateThresholdUs = (long) (lateThresholdSeconds * 1e6);
+        m_budgetUs = (long) (basePeriodSeconds * 1e6 * 0.8);
+    }
+
+    public double getBasePeriod() {
+        return m_basePeriodUs / 1e6;
+    }
+
+    /**
+     * Adds a task to the main loop. Tasks run in priority order, ties run in the order they were added.
+     * @param name - Name used for the timing logs
+     * @param runnable - The work
+     * @param periodSeconds - How often to run it. Rounded to the base period
+     * @param priority - Whether it can be deferred when the loop is late
+     */
+    public Task addTask(String name, Runnable runnable, double periodSeconds, Priority priority) {
+        var task = new Task(name, runnable, periodSeconds, priority);
+        m_tasks.add(task);
+        // stable sort, keeps insertion order within a priority
+        m_tasks.sort(Comparator.comparing((Task t) -> t.priority));
+        return task;
+    }
+
+    /**
+     * Moves a task onto its own Notifier thread so nothing on the main loop can delay it.
+     * The task must be thread safe with respect to everything on the main loop.
+     * @param name - Name used for the thread and the timing logs
+     * @param runnable - The work
+     * @param periodSeconds - How often to run it
+     * @param rtPriority - RT priority for the thread (1-99, the main robot thread is 15 on the roboRIO). 0 leaves it non-RT
+     */
+    public Task addThreadedTask(String name, Runnable runnable, double periodSeconds, int rtPriority) {
+        var task = new Task(name, runnable, periodSeconds, Priority.CRITICAL);
+        var notifier = new Notifier(new Runnable() {
+            private boolean m_prioritySet = false;
+
+            @Override
+            public void run() {
+                if (!m_prioritySet) {
+                    m_prioritySet = true;
+                    if (rtPriority > 0 && RobotBase.isReal()
+                        && !Threads.setCurrentThreadPriority(true, rtPriority)) {
+                        DriverStation.reportWarning("[SCHEDULER] Couldn't set RT priority for " + name, false);
+                    }
+                }
+                long start = RobotController.getFPGATime();
+                task.alloc.begin();
+                task.m_runnable.run();
+                task.alloc.end();
+                task.stats.record(start, RobotController.getFPGATime());
+            }
+        });
+        notifier.setName(name);
+        notifier.startPeriodic(periodSeconds);
+        m_threadedTasks.add(task);
+        m_notifiers.add(notifier);
+        return task;
+    }
+
+    /** Base tick. Call this (and only this) from addPeriodic() at the base period */
+    public void run() {
+        long tickStart = RobotController.getFPGATime();
+        if (m_nextTickUs == 0) {
+            m_nextTickUs = tickStart;
+        }
+        boolean late = tickStart - m_nextTickUs > m_lateThresholdUs;
+        m_nextTickUs += m_basePeriodUs;
+        // if we fell a whole tick behind, don't try to catch up on the ticks we missed
+        if (m_nextTickUs < tickStart) {
+            m_nextTickUs = tickStart + m_basePeriodUs;
+        }
+
+        for (int i = 0; i < m_tasks.size(); i++) {
+            var task = m_tasks.get(i);
+            long now = RobotController.getFPGATime();
+            if (now < task.m_nextRunUs) {
+                continue;
+            }
+
+            // still due, so it gets another go next tick. once it's a whole period behind it runs regardless
+            boolean overBudget = now - tickStart > m_budgetUs;
+            if (task.priority == Priority.LOW && (late || overBudget)
+                && now - task.m_nextRunUs < task.m_periodUs) {
+                task.stats.recordDeferred();
+                continue;
+            }
+
+            task.m_nextRunUs += task.m_periodUs;
+            if (task.m_nextRunUs <= now) {
+                task.m_nextRunUs = now + task.m_periodUs;
+            }
+
+            task.alloc.begin();
+            task.m_runnable.run();
+            task.alloc.end();
+            task.stats.record(now, RobotController.getFPGATime());
+        }
+    }
+
+    /** Publishes the timing and allocation stats for every task. Meant to be added as a LOW priority task itself */
+    public void logStats() {
+        for (var task : m_tasks) {
+            task.stats.log();
+            task.alloc.log();
+        }
+        for (var task : m_threadedTasks) {
+            task.stats.log();
+            task.alloc.log();
+        }
+    }
+
+    /** Clears max jitter/exec time and the allocation stats, e.g. at the start of a match period */
+    public void resetMaxes() {
+        for (var task : m_tasks) {
+            task.stats.resetMaxes();
+            task.alloc.reset();
+        }
+        for (var task : m_threadedTasks) {
+            task.stats.resetMaxes();
+            task.alloc.reset();
+        }
+    }
+
+    public List<Task> getTasks() {
+        var all = new ArrayList<Task>(m_tasks);
+        all.addAll(m_threadedTasks);
+        return all;
+    }
+
+    /** Prints a one line summary per task. Not for use in the loop */
+    public String report() {
+        var sb = new StringBuilder("[SCHEDULER] task | runs | avg jitter ms | max jitter ms | max exec ms | overruns | deferred | mean alloc B | max alloc B\n");
+        for (var task : getTasks()) {
+            var s = task.stats;
+            var a = task.alloc.getStats();
+            sb.append(String.format("%s | %d | %.3f | %.3f | %.3f | %d | %d | %.0f | %.0f%n",
+                task.name, s.getRuns(), s.getAvgJitterSeconds() * 1e3, s.getMaxJitterSeconds() * 1e3,
+                s.getMaxExecSeconds() * 1e3, s.getOverruns(), s.getDeferred(), a.getMean(), a.getMax()));
+        }
+        return sb.toString();
+    }
+
+    public void stopThreads() {
+        for (var notifier : m_notifiers) {
+            notifier.stop();
+        }
+    }
+}
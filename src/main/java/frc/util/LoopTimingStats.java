@@ -0,0 +1,120 @@
+package frc.util;
+
+import frc.util.logging.WaltLogger;
+import frc.util.logging.WaltLogger.DoubleLogger;
+import frc.util.logging.WaltLogger.IntLogger;
+
+/**
+ * Per-task timing bookkeeping for the {@link LoopScheduler}.
+ * Everything is stored in microseconds (FPGA time) and only ever written by the thread that runs the task.
+ */
+public class LoopTimingStats {
+    private final long m_periodUs;
+
+    private long m_lastStartUs = -1;
+    private long m_lastPeriodUs = 0;
+    private long m_lastExecUs = 0;
+    private long m_maxExecUs = 0;
+    private long m_maxJitterUs = 0;
+    private double m_avgJitterUs = 0;
+    private int m_runs = 0;
+    private int m_overruns = 0;
+    private boolean m_lastOverran = false;
+    private int m_deferred = 0;
+
+    private final DoubleLogger log_periodMs;
+    private final DoubleLogger log_execMs;
+    private final DoubleLogger log_maxExecMs;
+    private final DoubleLogger log_jitterMs;
+    private final DoubleLogger log_maxJitterMs;
+    private final IntLogger log_overruns;
+    private final IntLogger log_deferred;
+
+    public LoopTimingStats(String name, double periodSeconds) {
+        m_periodUs = (long) (periodSeconds * 1e6);
+
+        var table = "Scheduler/" + name;
+        log_periodMs = WaltLogger.logDouble(table, "periodMs");
+        log_execMs = WaltLogger.logDouble(table, "execMs");
+        log_maxExecMs = WaltLogger.logDouble(table, "maxExecMs");
+        log_jitterMs = WaltLogger.logDouble(table, "jitterMs");
+        log_maxJitterMs = WaltLogger.logDouble(table, "maxJitterMs");
+        log_overruns = WaltLogger.logInt(table, "overruns");
+        log_deferred = WaltLogger.logInt(table, "deferred");
+    }
+
+    /**
+     * Records one execution of the task. A run counts as one overrun if it started late or ran longer than its period,
+     * but a late start right after a run that already overran is the same overrun and isn't counted again.
+     * @param startUs - FPGA time the task started running
+     * @param endUs - FPGA time the task finished running
+     */
+    public void record(long startUs, long endUs) {
+        if (m_lastStartUs >= 0) {
+            m_lastPeriodUs = startUs - m_lastStartUs;
+            long jitter = Math.abs(m_lastPeriodUs - m_periodUs);
+            m_maxJitterUs = Math.max(m_maxJitterUs, jitter);
+            // cheap running average, no history needed
+            m_avgJitterUs += (jitter - m_avgJitterUs) * 0.05;
+        }
+        boolean startedLate = m_lastStartUs >= 0 && m_lastPeriodUs > 2 * m_periodUs && !m_lastOverran;
+        m_lastStartUs = startUs;
+        m_lastExecUs = endUs - startUs;
+        m_maxExecUs = Math.max(m_maxExecUs, m_lastExecUs);
+        boolean ranLong = m_lastExecUs > m_periodUs;
+        if (startedLate || ranLong) {
+            m_overruns++;
+        }
+        m_lastOverran = ranLong;
+        m_runs++;
+    }
+
+    /** The task was due but got pushed to a later tick because the loop was late */
+    public void recordDeferred() {
+        m_deferred++;
+    }
+
+    /** Clears the max values so they represent the current mode/match instead of all time */
+    public void resetMaxes() {
+        m_maxExecUs = 0;
+        m_maxJitterUs = 0;
+    }
+
+    public double getAvgJitterSeconds() {
+        return m_avgJitterUs / 1e6;
+    }
+
+    public double getMaxJitterSeconds() {
+        return m_maxJitterUs / 1e6;
+    }
+
+    public double getLastExecSeconds() {
+        return m_lastExecUs / 1e6;
+    }
+
+    public double getMaxExecSeconds() {
+        return m_maxExecUs / 1e6;
+    }
+
+    public int getRuns() {
+        return m_runs;
+    }
+
+    public int getOverruns() {
+        return m_overruns;
+    }
+
+    public int getDeferred() {
+        return m_deferred;
+    }
+
+    public void log() {
+        log_periodMs.accept(m_lastPeriodUs / 1e3);
+        log_execMs.accept(m_lastExecUs / 1e3);
+        log_maxExecMs.accept(m_maxExecUs / 1e3);
+        log_jitterMs.accept(m_avgJitterUs / 1e3);
+        log_maxJitterMs.accept(m_maxJitterUs / 1e3);
+        log_overruns.accept(m_overruns);
+        log_deferred.accept(m_deferred);
+    }
+}
@@ -0,0 +1,71 @@
+package frc.util;
+
+/**
+ * Mean/min/max over the last N samples. Fixed size, nothing gets allocated after construction.
+ */
+public class RollingStats {
+    private final double[] m_samples;
+    private int m_next = 0;
+    private int m_count = 0;
+    private long m_total = 0;
+
+    public RollingStats(int window) {
+        m_samples = new double[window];
+    }
+
+    public void add(double sample) {
+        m_samples[m_next] = sample;
+        m_next = (m_next + 1) % m_samples.length;
+        m_count = Math.min(m_count + 1, m_samples.length);
+        m_total++;
+    }
+
+    /** @return How many samples are in the window */
+    public int getCount() {
+        return m_count;
+    }
+
+    /** @return How many samples were ever added */
+    public long getTotal() {
+        return m_total;
+    }
+
+    public double getLast() {
+        if (m_count == 0) {
+            return 0;
+        }
+        return m_samples[(m_next - 1 + m_samples.length) % m_samples.length];
+    }
+
+    public double getMean() {
+        if (m_count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < m_count; i++) {
+            sum += m_samples[i];
+        }
+        return sum / m_count;
+    }
+
+    public double getMax() {
+        double max = 0;
+        for (int i = 0; i < m_count; i++) {
+            max = i == 0 ? m_samples[i] : Math.max(max, m_samples[i]);
+        }
+        return max;
+    }
+
+    public double getMin() {
+        double min = 0;
+        for (int i = 0; i < m_count; i++) {
+            min = i == 0 ? m_samples[i] : Math.min(min, m_samples[i]);
+        }
+        return min;
+    }
+
+    public void reset() {
+        m_next = 0;
+        m_count = 0;
+    }
+}
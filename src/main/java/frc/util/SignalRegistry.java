@@ -0,0 +1,140 @@
+package frc.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+/**
+ * Every Phoenix 6 StatusSignal the robot code reads goes through here.
+ * <p>
+ * Calling e.g. {@code m_motor.getPosition().getValueAsDouble()} looks the signal up and refreshes it over JNI every time,
+ * and most subsystems did that several times a loop. Instead, signals get registered once, {@link #refreshAll()} refreshes
+ * each CAN bus's signals in one {@link BaseStatusSignal#refreshAll} call at the top of the loop, and everyone reads the
+ * cached primitive value.
+ * <p>
+ * Signals read from a loop faster than robotPeriodic(), like the Superstructure's, go in a {@link SignalGroup} instead,
+ * which its owner refreshes at its own rate.
+ * <p>
+ * Only meant to be used from the main robot thread.
+ */
+public final class SignalRegistry {
+    private SignalRegistry() {}
+
+    public static final class CachedSignal {
+        private final StatusSignal<Double> m_signal;
+        private double m_value;
+        private double m_timestamp;
+
+        private CachedSignal(StatusSignal<Double> signal) {
+            m_signal = signal;
+            update();
+        }
+
+        private void update() {
+            m_value = m_signal.getValueAsDouble();
+            m_timestamp = m_signal.getTimestamp().getTime();
+        }
+
+        /** @return The value as of the last {@link SignalRegistry#refreshAll()}, or {@link SignalGroup#refresh()} */
+        public double get() {
+            return m_value;
+        }
+
+        /** @return The timestamp (seconds, Phoenix timebase) of the value returned by {@link #get()} */
+        public double getTimestamp() {
+            return m_timestamp;
+        }
+
+        /** For the few places that need the signal itself, e.g. to set its update frequency */
+        public StatusSignal<Double> getSignal() {
+            return m_signal;
+        }
+    }
+
+    /** Signals kept out of {@link #refreshAll()} and refreshed together, in one call, by whoever owns them */
+    public static final class SignalGroup {
+        private final List<CachedSignal> m_cached = new ArrayList<>();
+        private BaseStatusSignal[] m_signals = new BaseStatusSignal[0];
+        private int m_failures = 0;
+
+        /** @return A handle whose value is refreshed by {@link #refresh()} */
+        public CachedSignal add(StatusSignal<Double> signal) {
+            var cached = new CachedSignal(signal);
+            m_cached.add(cached);
+            // only at startup, same as register()
+            m_signals = new BaseStatusSignal[m_cached.size()];
+            for (int i = 0; i < m_signals.length; i++) {
+                m_signals[i] = m_cached.get(i).m_signal;
+            }
+            return cached;
+        }
+
+        /** Signals in a group should all be on one CAN bus, it's a single refreshAll */
+        public void refresh() {
+            var status = BaseStatusSignal.refreshAll(m_signals);
+            if (!status.isOK()) {
+                m_failures++;
+            }
+            for (int i = 0; i < m_cached.size(); i++) {
+                m_cached.get(i).update();
+            }
+        }
+
+        public int getFailures() {
+            return m_failures;
+        }
+    }
+
+    private static final class BusGroup {
+        private final List<CachedSignal> m_cached = new ArrayList<>();
+        private BaseStatusSignal[] m_signals = new BaseStatusSignal[0];
+        private int m_failures = 0;
+    }
+
+    private static final Map<String, BusGroup> m_groups = new LinkedHashMap<>();
+    private static BusGroup[] m_groupArr = new BusGroup[0];
+
+    /**
+     * @param device - The device the signal belongs to, used to group signals by CAN bus
+     * @param signal - e.g. {@code m_motor.getPosition()}
+     * @return A handle whose value is refreshed by {@link #refreshAll()}
+     */
+    public static CachedSignal register(ParentDevice device, StatusSignal<Double> signal) {
+        var group = m_groups.computeIfAbsent(device.getNetwork(), bus -> new BusGroup());
+        var cached = new CachedSignal(signal);
+        group.m_cached.add(cached);
+
+        // registration only happens at startup, so just rebuild the arrays
+        group.m_signals = new BaseStatusSignal[group.m_cached.size()];
+        for (int i = 0; i < group.m_signals.length; i++) {
+            group.m_signals[i] = group.m_cached.get(i).m_signal;
+        }
+        m_groupArr = m_groups.values().toArray(new BusGroup[0]);
+
+        return cached;
+    }
+
+    /** Refreshes every registered signal, one JNI call per CAN bus. Call once at the top of robotPeriodic() */
+    public static void refreshAll() {
+        for (var group : m_groupArr) {
+            var status = BaseStatusSignal.refreshAll(group.m_signals);
+            if (!status.isOK()) {
+                group.m_failures++;
+            }
+            for (int i = 0; i < group.m_cached.size(); i++) {
+                group.m_cached.get(i).update();
+            }
+        }
+    }
+
+    /** @return How many refreshes have failed on the given bus, e.g. from CAN timeouts */
+    public static int getFailures(String bus) {
+        var group = m_groups.get(bus);
+        return group == null ? 0 : group.m_failures;
+    }
+}
@@ -0,0 +1,35 @@
+package frc.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, allocation-free single writer mailbox for up to 16 boolean flags plus the FPGA timestamp they were sampled at.
+ * Both are packed into one long so a reader can never see flags from one sample and the timestamp of another.
+ */
+public final class StateMailbox {
+    private static final int kFlagBits = 16;
+    private static final long kFlagMask = (1L << kFlagBits) - 1;
+
+    private final AtomicLong m_state = new AtomicLong();
+
+    /**
+     * @param flags - Bitfield, only the low 16 bits are kept
+     * @param timestampUs - FPGA time of the sample in microseconds
+     */
+    public void publish(int flags, long timestampUs) {
+        m_state.set((timestampUs << kFlagBits) | (flags & kFlagMask));
+    }
+
+    /** @return The latest packed snapshot. Use {@link #has(long, int)} and {@link #timestampUs(long)} to unpack it */
+    public long read() {
+        return m_state.get();
+    }
+
+    public static boolean has(long snapshot, int flag) {
+        return (snapshot & flag) != 0;
+    }
+
+    public static long timestampUs(long snapshot) {
+        return snapshot >>> kFlagBits;
+    }
+}
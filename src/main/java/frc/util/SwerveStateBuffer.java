@@ -0,0 +1,158 @@
+package frc.util;
+
+import java.lang.invoke.VarHandle;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Lock-free single writer ring buffer of timestamped drivetrain states, filled from the odometry thread and read from
+ * anywhere without waiting on it.
+ * <p>
+ * Samples are stored as primitives, each slot guarded by its own sequence number: the writer marks the slot busy,
+ * writes it, then stamps it with the sample's index. A reader that sees the same index before and after reading knows
+ * it got one whole sample. Readers never allocate unless they ask for a {@link Pose2d} back.
+ */
+public final class SwerveStateBuffer {
+    private static final long kBusy = -1;
+
+    private final int m_mask;
+    private final double[] m_timestamps;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final double[] m_theta;
+    private final AtomicLongArray m_slotSeq;
+    private final AtomicLong m_count = new AtomicLong();
+
+    // Pose2d and ChassisSpeeds are never mutated after Phoenix hands them over, so sharing the latest ones is safe
+    private volatile Pose2d m_latestPose = new Pose2d();
+    private volatile ChassisSpeeds m_latestSpeeds = new ChassisSpeeds();
+    private volatile double m_latestTimestamp = 0;
+
+    /** @param capacity - Samples kept, rounded up to a power of two */
+    public SwerveStateBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        m_mask = size - 1;
+        m_timestamps = new double[size];
+        m_x = new double[size];
+        m_y = new double[size];
+        m_theta = new double[size];
+        m_slotSeq = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            m_slotSeq.set(i, kBusy);
+        }
+    }
+
+    /**
+     * Only ever call from one thread.
+     * @param speeds - Robot relative
+     * @param timestamp - FPGA time of the sample in seconds
+     */
+    public void add(Pose2d pose, ChassisSpeeds speeds, double timestamp) {
+        long index = m_count.get();
+        int slot = (int) (index & m_mask);
+
+        m_slotSeq.set(slot, kBusy);
+        VarHandle.releaseFence(); // keep the data writes below after the busy mark
+        m_timestamps[slot] = timestamp;
+        m_x[slot] = pose.getX();
+        m_y[slot] = pose.getY();
+        m_theta[slot] = pose.getRotation().getRadians();
+        m_slotSeq.set(slot, index);
+
+        m_latestPose = pose;
+        m_latestSpeeds = speeds;
+        m_latestTimestamp = timestamp;
+        m_count.set(index + 1);
+    }
+
+    public Pose2d getLatestPose() {
+        return m_latestPose;
+    }
+
+    /** @return Robot relative speeds */
+    public ChassisSpeeds getLatestSpeeds() {
+        return m_latestSpeeds;
+    }
+
+    public double getLatestTimestamp() {
+        return m_latestTimestamp;
+    }
+
+    /** @return How many samples were ever added */
+    public long getCount() {
+        return m_count.get();
+    }
+
+    /**
+     * Interpolates the pose at a past time, clamped to the oldest and newest samples still in the buffer.
+     * Nothing gets allocated.
+     * @param timestamp - FPGA time in seconds
+     * @param out - Filled with x, y (meters) and heading (radians)
+     * @return False if there are no samples yet or the writer lapped this read, {@code out} is untouched then
+     */
+    public boolean samplePose(double timestamp, double[] out) {
+        long newest = m_count.get() - 1;
+        if (newest < 0) {
+            return false;
+        }
+        // leave a couple of slots of headroom so the writer can't lap the samples we bracket with mid-read
+        long oldest = Math.max(0, newest - m_mask + 2);
+
+        long lo = oldest;
+        long hi = newest;
+        if (timestamp <= m_timestamps[(int) (lo & m_mask)]) {
+            hi = lo;
+        } else if (timestamp >= m_timestamps[(int) (hi & m_mask)]) {
+            lo = hi;
+        } else {
+            // find the pair of samples either side of the timestamp
+            while (hi - lo > 1) {
+                long mid = (lo + hi) >>> 1;
+                if (m_timestamps[(int) (mid & m_mask)] <= timestamp) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+        }
+
+        int loSlot = (int) (lo & m_mask);
+        int hiSlot = (int) (hi & m_mask);
+        if (m_slotSeq.get(loSlot) != lo || m_slotSeq.get(hiSlot) != hi) {
+            return false;
+        }
+        double t0 = m_timestamps[loSlot];
+        double t1 = m_timestamps[hiSlot];
+        double x0 = m_x[loSlot];
+        double x1 = m_x[hiSlot];
+        double y0 = m_y[loSlot];
+        double y1 = m_y[hiSlot];
+        double theta0 = m_theta[loSlot];
+        double theta1 = m_theta[hiSlot];
+        VarHandle.acquireFence(); // keep the data reads above before the second check
+        if (m_slotSeq.get(loSlot) != lo || m_slotSeq.get(hiSlot) != hi) {
+            return false;
+        }
+
+        double t = t1 > t0 ? MathUtil.clamp((timestamp - t0) / (t1 - t0), 0, 1) : 0;
+        out[0] = MathUtil.interpolate(x0, x1, t);
+        out[1] = MathUtil.interpolate(y0, y1, t);
+        out[2] = theta0 + MathUtil.angleModulus(theta1 - theta0) * t;
+        return true;
+    }
+
+    /** Like {@link #samplePose(double, double[])}, but allocates the result */
+    public Optional<Pose2d> getPoseAt(double timestamp) {
+        var out = new double[3];
+        if (!samplePose(timestamp, out)) {
+            return Optional.empty();
+        }
+        return Optional.of(new Pose2d(out[0], out[1], Rotation2d.fromRadians(out[2])));
+    }
+}
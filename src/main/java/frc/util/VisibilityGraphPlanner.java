@@ -0,0 +1,220 @@
+package frc.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Shortest paths around rectangular keep out zones, by A* over a visibility graph.
+ * <p>
+ * The graph's nodes are the zones' corners pushed out by a margin, and which corners can see each other is worked out
+ * once up front. A query only has to connect the start and goal to the corners, so with a handful of zones planning
+ * takes microseconds.
+ * <p>
+ * A start or goal inside a zone ignores that zone for its own edges, so the robot can still leave or reach it.
+ */
+public class VisibilityGraphPlanner {
+    /** Axis aligned rectangle, meters */
+    public record Zone(double minX, double minY, double maxX, double maxY) {
+        public boolean contains(double x, double y) {
+            return x > minX && x < maxX && y > minY && y < maxY;
+        }
+
+        /** @return Whether the segment passes through the inside, touching an edge or corner doesn't count */
+        public boolean blocks(double x0, double y0, double x1, double y1) {
+            // Liang-Barsky clip against the rectangle shrunk a hair, so segments along an edge stay clear
+            final double eps = 1e-6;
+            double dx = x1 - x0;
+            double dy = y1 - y0;
+            double[] p = {-dx, dx, -dy, dy};
+            double[] q = {x0 - minX - eps, maxX - eps - x0, y0 - minY - eps, maxY - eps - y0};
+            double t0 = 0;
+            double t1 = 1;
+            for (int i = 0; i < 4; i++) {
+                if (p[i] == 0) {
+                    if (q[i] < 0) {
+                        return false;
+                    }
+                } else {
+                    double r = q[i] / p[i];
+                    if (p[i] < 0) {
+                        t0 = Math.max(t0, r);
+                    } else {
+                        t1 = Math.min(t1, r);
+                    }
+                }
+            }
+            return t0 < t1;
+        }
+    }
+
+    private final List<Zone> m_zones;
+    private final double[] m_nodeX;
+    private final double[] m_nodeY;
+    private final boolean[][] m_visible;
+
+    // reused between queries, the last two slots are the start and goal
+    private final double[] m_gScore;
+    private final int[] m_cameFrom;
+    private final boolean[] m_closed;
+
+    /**
+     * @param margin - How far outside each zone its corner nodes sit, meters
+     * @param fieldLength - Corners off the field are dropped, meters
+     * @param fieldWidth - Meters
+     */
+    public VisibilityGraphPlanner(List<Zone> zones, double margin, double fieldLength, double fieldWidth) {
+        m_zones = List.copyOf(zones);
+
+        var xs = new ArrayList<Double>();
+        var ys = new ArrayList<Double>();
+        for (var zone : m_zones) {
+            double[] cornerX = {zone.minX() - margin, zone.maxX() + margin};
+            double[] cornerY = {zone.minY() - margin, zone.maxY() + margin};
+            for (double x : cornerX) {
+                for (double y : cornerY) {
+                    if (x > 0 && x < fieldLength && y > 0 && y < fieldWidth && !insideAny(x, y)) {
+                        xs.add(x);
+                        ys.add(y);
+                    }
+                }
+            }
+        }
+
+        int corners = xs.size();
+        m_nodeX = new double[corners + 2];
+        m_nodeY = new double[corners + 2];
+        for (int i = 0; i < corners; i++) {
+            m_nodeX[i] = xs.get(i);
+            m_nodeY[i] = ys.get(i);
+        }
+        m_visible = new boolean[corners][corners];
+        for (int i = 0; i < corners; i++) {
+            for (int j = i + 1; j < corners; j++) {
+                boolean visible = isClear(m_nodeX[i], m_nodeY[i], m_nodeX[j], m_nodeY[j], null, null);
+                m_visible[i][j] = visible;
+                m_visible[j][i] = visible;
+            }
+        }
+
+        m_gScore = new double[corners + 2];
+        m_cameFrom = new int[corners + 2];
+        m_closed = new boolean[corners + 2];
+    }
+
+    private boolean insideAny(double x, double y) {
+        for (var zone : m_zones) {
+            if (zone.contains(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Zone zoneAt(double x, double y) {
+        for (var zone : m_zones) {
+            if (zone.contains(x, y)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    private boolean isClear(double x0, double y0, double x1, double y1, Zone ignoreA, Zone ignoreB) {
+        for (var zone : m_zones) {
+            if (zone != ignoreA && zone != ignoreB && zone.blocks(x0, y0, x1, y1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Not thread safe, the search state is reused between calls.
+     * @return Waypoints from the start to the goal, both included. Just those two if the way is clear or there's no
+     *     way around
+     */
+    public List<Translation2d> plan(Translation2d start, Translation2d goal) {
+        int corners = m_visible.length;
+        int startIdx = corners;
+        int goalIdx = corners + 1;
+        m_nodeX[startIdx] = start.getX();
+        m_nodeY[startIdx] = start.getY();
+        m_nodeX[goalIdx] = goal.getX();
+        m_nodeY[goalIdx] = goal.getY();
+        var startZone = zoneAt(start.getX(), start.getY());
+        var goalZone = zoneAt(goal.getX(), goal.getY());
+
+        var path = new ArrayList<Translation2d>();
+        if (isClear(start.getX(), start.getY(), goal.getX(), goal.getY(), startZone, goalZone)) {
+            path.add(start);
+            path.add(goal);
+            return path;
+        }
+
+        Arrays.fill(m_gScore, Double.POSITIVE_INFINITY);
+        Arrays.fill(m_cameFrom, -1);
+        Arrays.fill(m_closed, false);
+        m_gScore[startIdx] = 0;
+
+        // few enough nodes that a linear scan beats keeping a priority queue
+        while (true) {
+            int current = -1;
+            double bestF = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < m_gScore.length; i++) {
+                if (!m_closed[i] && m_gScore[i] < Double.POSITIVE_INFINITY) {
+                    double f = m_gScore[i] + distance(i, goalIdx);
+                    if (f < bestF) {
+                        bestF = f;
+                        current = i;
+                    }
+                }
+            }
+            if (current == -1) {
+                // boxed in, let the follower deal with the straight line
+                path.add(start);
+                path.add(goal);
+                return path;
+            }
+            if (current == goalIdx) {
+                break;
+            }
+            m_closed[current] = true;
+
+            for (int next = 0; next < m_gScore.length; next++) {
+                if (m_closed[next] || next == current || !connected(current, next, startZone, goalZone)) {
+                    continue;
+                }
+                double g = m_gScore[current] + distance(current, next);
+                if (g < m_gScore[next]) {
+                    m_gScore[next] = g;
+                    m_cameFrom[next] = current;
+                }
+            }
+        }
+
+        for (int node = goalIdx; node != -1; node = m_cameFrom[node]) {
+            path.add(0, new Translation2d(m_nodeX[node], m_nodeY[node]));
+        }
+        path.set(0, start);
+        path.set(path.size() - 1, goal);
+        return path;
+    }
+
+    private boolean connected(int a, int b, Zone startZone, Zone goalZone) {
+        int corners = m_visible.length;
+        if (a < corners && b < corners) {
+            return m_visible[a][b];
+        }
+        // the start and goal only get to pass through their own zones
+        Zone ignoreA = a == corners ? startZone : a == corners + 1 ? goalZone : null;
+        Zone ignoreB = b == corners ? startZone : b == corners + 1 ? goalZone : null;
+        return isClear(m_nodeX[a], m_nodeY[a], m_nodeX[b], m_nodeY[b], ignoreA, ignoreB);
+    }
+
+    private double distance(int a, int b) {
+        return Math.hypot(m_nodeX[a] - m_nodeX[b], m_nodeY[a] - m_nodeY[b]);
+    }
+}
@@ -0,0 +1,151 @@
+package frc.util.logging;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+/**
+ * Offline tool that merges a robot .wpilog with a .hoot (converted to .wpilog by owlet first) into one timeline.
+ * <p>
+ * The offset between the two clocks comes from the {@link TelemetryRouter#kSyncEntry} markers, which carry the FPGA
+ * time as their value. Hoot entries get a "Hoot/" prefix, and the ones {@link TelemetryRouter#hoot} routed get renamed
+ * to the name they used to have in WaltLogger.
+ * <p>
+ * Usage: {@code LogMerger <robot.wpilog> <hoot.wpilog> <merged.wpilog>}
+ */
+public final class LogMerger {
+    private LogMerger() {}
+
+    private static final String kHootPrefix = "Hoot/";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: LogMerger <robot.wpilog> <hoot.wpilog> <merged.wpilog>");
+            System.exit(1);
+        }
+
+        var robotLog = new DataLogReader(args[0]);
+        var hootLog = new DataLogReader(args[1]);
+        if (!robotLog.isValid() || !hootLog.isValid()) {
+            System.err.println("[MERGE] not a valid wpilog: " + (robotLog.isValid() ? args[1] : args[0]));
+            System.exit(1);
+        }
+
+        long offsetUs = findOffset(hootLog);
+        var routes = new HashMap<String, String>();
+        int hootIdBase = readRobotLog(robotLog, routes) + 1;
+        System.out.println("[MERGE] hoot offset " + offsetUs / 1e6 + " s, " + routes.size() + " routed signals");
+
+        try (var out = new WpiLogWriter(args[2], robotLog.getExtraHeader())) {
+            merge(robotLog.iterator(), hootLog.iterator(), offsetUs, hootIdBase, routes, out);
+        }
+    }
+
+    /** @return FPGA time minus hoot time, in microseconds. The median over all markers, to ignore a bad one */
+    private static long findOffset(DataLogReader hootLog) {
+        var syncIds = new ArrayList<Integer>();
+        var offsets = new ArrayList<Long>();
+        for (var record : hootLog) {
+            if (record.isStart()) {
+                var start = record.getStartData();
+                if (start.name.endsWith(TelemetryRouter.kSyncEntry) && start.type.equals("double")) {
+                    syncIds.add(start.entry);
+                }
+            } else if (!record.isControl() && syncIds.contains(record.getEntry())) {
+                offsets.add((long) (record.getDouble() * 1e6) - record.getTimestamp());
+            }
+        }
+        if (offsets.isEmpty()) {
+            System.err.println("[MERGE] no " + TelemetryRouter.kSyncEntry + " markers in the hoot log");
+            System.exit(1);
+        }
+        var sorted = offsets.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Reads the hoot routes out of the robot log.
+     * @param routes - Filled with "TalonFX-13/StatorCurrent" to "Superstructure/statorCurrent"
+     * @return The highest entry id in the robot log
+     */
+    private static int readRobotLog(DataLogReader robotLog, Map<String, String> routes) {
+        int maxId = 0;
+        var routeIds = new ArrayList<Integer>();
+        for (var record : robotLog) {
+            if (record.isStart()) {
+                var start = record.getStartData();
+                maxId = Math.max(maxId, start.entry);
+                if (start.name.endsWith(TelemetryRouter.kRoutesEntry)) {
+                    routeIds.add(start.entry);
+                }
+            } else if (!record.isControl() && routeIds.contains(record.getEntry())) {
+                var route = record.getString().split("=", 2);
+                if (route.length == 2) {
+                    routes.put(route[1], route[0]);
+                }
+            }
+        }
+        return maxId;
+    }
+
+    private static String hootName(String name, Map<String, String> routes) {
+        for (var route : routes.entrySet()) {
+            if (name.endsWith(route.getKey())) {
+                return kHootPrefix + route.getValue();
+            }
+        }
+        return kHootPrefix + name;
+    }
+
+    private static void merge(Iterator<DataLogRecord> robot, Iterator<DataLogRecord> hoot, long offsetUs,
+        int hootIdBase, Map<String, String> routes, WpiLogWriter out) throws IOException {
+        var hootNames = new LinkedHashMap<Integer, String>();
+        DataLogRecord nextRobot = robot.hasNext() ? robot.next() : null;
+        DataLogRecord nextHoot = hoot.hasNext() ? hoot.next() : null;
+
+        while (nextRobot != null || nextHoot != null) {
+            long hootTime = nextHoot == null ? Long.MAX_VALUE : Math.max(0, nextHoot.getTimestamp() + offsetUs);
+            long robotTime = nextRobot == null ? Long.MAX_VALUE : nextRobot.getTimestamp();
+
+            if (robotTime <= hootTime) {
+                write(nextRobot, 0, robotTime, null, out);
+                nextRobot = robot.hasNext() ? robot.next() : null;
+            } else {
+                if (nextHoot.isStart()) {
+                    var start = nextHoot.getStartData();
+                    hootNames.put(start.entry, hootName(start.name, routes));
+                }
+                write(nextHoot, hootIdBase, hootTime, hootNames, out);
+                nextHoot = hoot.hasNext() ? hoot.next() : null;
+            }
+        }
+    }
+
+    /**
+     * @param idBase - Added to every entry id, keeps the hoot ids clear of the robot ids
+     * @param names - Renamed entries by original id, null to keep the names as they are
+     */
+    private static void write(DataLogRecord record, int idBase, long timestampUs, Map<Integer, String> names,
+        WpiLogWriter out) throws IOException {
+        if (record.isStart()) {
+            var start = record.getStartData();
+            var name = names == null ? start.name : names.get(start.entry);
+            out.writeStart(start.entry + idBase, name, start.type, start.metadata, timestampUs);
+        } else if (record.isFinish()) {
+            out.writeFinish(record.getFinishEntry() + idBase, timestampUs);
+        } else if (record.isSetMetadata()) {
+            var meta = record.getSetMetadataData();
+            out.writeSetMetadata(meta.entry + idBase, meta.metadata, timestampUs);
+        } else if (!record.isControl()) {
+            out.writeRecord(record.getEntry() + idBase, timestampUs, record.getRaw());
+        }
+    }
+}
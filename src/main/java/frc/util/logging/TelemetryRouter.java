@@ -0,0 +1,93 @@
+package frc.util.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.SignalLogger;
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.util.logging.WaltLogger.DoubleLogger;
+
+/**
+ * Decides where each piece of telemetry gets recorded, so nothing ends up in both logs.
+ * <p>
+ * Phoenix status signals are already captured by {@link SignalLogger} into the .hoot at the rate the device sends them,
+ * so they get claimed with {@link #hoot} and must not be republished through {@link WaltLogger}. Everything else
+ * (derived values, REV devices, sensors) goes through {@link #wpilog}. Claiming the same name for both throws.
+ * <p>
+ * The hoot routes and a periodic sync marker are written to the .wpilog so {@link LogMerger} can line the two logs up.
+ */
+public final class TelemetryRouter {
+    private TelemetryRouter() {}
+
+    public enum Sink {
+        HOOT, WPILOG
+    }
+
+    public static final String kSyncEntry = "Sync/FPGATime";
+    public static final String kRoutesEntry = "Telemetry/hootRoutes";
+
+    private static final Map<String, Sink> m_claims = new HashMap<>();
+    // straight to the DataLog instead of through NT, so the timestamp is the time of the call
+    private static StringLogEntry log_routes;
+    private static DoubleLogEntry log_sync;
+
+    private static void claim(String key, Sink sink) {
+        var prev = m_claims.putIfAbsent(key, sink);
+        if (prev != null && prev != sink) {
+            throw new IllegalStateException("[TELEMETRY] " + key + " is already logged to " + prev);
+        }
+    }
+
+    /**
+     * Claims Phoenix signals for the hoot. Nothing is logged here, SignalLogger records every enabled signal by itself,
+     * this just records the route so the names line up after merging.
+     * @param table - The WaltLogger table the values used to be published under, e.g. "Superstructure"
+     * @param names - One name per signal, e.g. "statorCurrent"
+     */
+    public static void hoot(String table, ParentDevice device, String[] names, BaseStatusSignal... signals) {
+        if (names.length != signals.length) {
+            throw new IllegalArgumentException("[TELEMETRY] need one name per signal");
+        }
+        if (log_routes == null) {
+            log_routes = new StringLogEntry(DataLogManager.getLog(), kRoutesEntry);
+        }
+        var deviceName = device.getClass().getSimpleName() + "-" + device.getDeviceID();
+        for (int i = 0; i < signals.length; i++) {
+            var key = table + "/" + names[i];
+            claim(key, Sink.HOOT);
+            log_routes.append(key + "=" + deviceName + "/" + signals[i].getName());
+        }
+    }
+
+    /** Claims a name for the wpilog and returns the WaltLogger for it */
+    public static DoubleLogger wpilog(String table, String name, PubSubOption... options) {
+        claim(table + "/" + name, Sink.WPILOG);
+        return WaltLogger.logDouble(table, name, options);
+    }
+
+    /** @return Where the value is recorded, or null if nothing claimed it */
+    public static Sink getSink(String table, String name) {
+        return m_claims.get(table + "/" + name);
+    }
+
+    /**
+     * Writes the current FPGA time to both logs. Each log stamps it with its own clock, so the difference
+     * between value and timestamp in the hoot is the offset between the two timelines. Run it about once a second
+     */
+    public static void writeSyncMarker() {
+        if (log_sync == null) {
+            log_sync = new DoubleLogEntry(DataLogManager.getLog(), kSyncEntry);
+        }
+        long now = RobotController.getFPGATime();
+        double nowSeconds = now / 1e6;
+        SignalLogger.writeDouble(kSyncEntry, nowSeconds);
+        log_sync.append(nowSeconds, now);
+    }
+}
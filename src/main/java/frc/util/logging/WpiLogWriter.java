@@ -0,0 +1,81 @@
+package frc.util.logging;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal pure Java .wpilog writer for offline tools.
+ * {@link edu.wpi.first.util.datalog.DataLog} needs the native libraries, which aren't around when running a tool
+ * off the robot. Always uses the widest field sizes, which the format allows.
+ */
+class WpiLogWriter implements AutoCloseable {
+    private static final byte kRecordHeader = (byte) (0x3 | (0x3 << 2) | (0x7 << 4)); // 4 byte id, 4 byte size, 8 byte timestamp
+
+    private final OutputStream m_out;
+    private final ByteBuffer m_header = ByteBuffer.allocate(17).order(ByteOrder.LITTLE_ENDIAN);
+
+    WpiLogWriter(String filename, String extraHeader) throws IOException {
+        m_out = new BufferedOutputStream(new FileOutputStream(filename), 1 << 16);
+        var extra = extraHeader.getBytes(StandardCharsets.UTF_8);
+        var header = ByteBuffer.allocate(12 + extra.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("WPILOG".getBytes(StandardCharsets.US_ASCII));
+        header.putShort((short) 0x0100);
+        header.putInt(extra.length);
+        header.put(extra);
+        m_out.write(header.array());
+    }
+
+    void writeRecord(int entry, long timestampUs, byte[] payload) throws IOException {
+        m_header.clear();
+        m_header.put(kRecordHeader);
+        m_header.putInt(entry);
+        m_header.putInt(payload.length);
+        m_header.putLong(timestampUs);
+        m_out.write(m_header.array());
+        m_out.write(payload);
+    }
+
+    void writeStart(int entry, String name, String type, String metadata, long timestampUs) throws IOException {
+        var nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        var typeBytes = type.getBytes(StandardCharsets.UTF_8);
+        var metaBytes = metadata.getBytes(StandardCharsets.UTF_8);
+        var payload = ByteBuffer.allocate(17 + nameBytes.length + typeBytes.length + metaBytes.length)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        payload.put((byte) 0);
+        payload.putInt(entry);
+        payload.putInt(nameBytes.length);
+        payload.put(nameBytes);
+        payload.putInt(typeBytes.length);
+        payload.put(typeBytes);
+        payload.putInt(metaBytes.length);
+        payload.put(metaBytes);
+        writeRecord(0, timestampUs, payload.array());
+    }
+
+    void writeFinish(int entry, long timestampUs) throws IOException {
+        var payload = ByteBuffer.allocate(5).order(ByteOrder.LITTLE_ENDIAN);
+        payload.put((byte) 1);
+        payload.putInt(entry);
+        writeRecord(0, timestampUs, payload.array());
+    }
+
+    void writeSetMetadata(int entry, String metadata, long timestampUs) throws IOException {
+        var metaBytes = metadata.getBytes(StandardCharsets.UTF_8);
+        var payload = ByteBuffer.allocate(9 + metaBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        payload.put((byte) 2);
+        payload.putInt(entry);
+        payload.putInt(metaBytes.length);
+        payload.put(metaBytes);
+        writeRecord(0, timestampUs, payload.array());
+    }
+
+    @Override
+    public void close() throws IOException {
+        m_out.close();
+    }
+}
@@ -0,0 +1,161 @@
+package frc.robot.auton;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.util.AllianceFlipUtil;
+
+/**
+ * Walks a pose along a straight 4 m path from (1, 1) to (5, 1) and checks when the events fire. The path's
+ * distances are x - 1, so an event at 1 m should fire once the robot is past x = 2.
+ */
+class TrajectoryEventsTest {
+    private static final double kStartX = 1;
+    private static final double kEndX = 5;
+    private static final double kY = 1;
+    // small enough that the forward search never loses the robot
+    private static final double kStep = 0.01;
+
+    private final List<String> m_fired = new ArrayList<>();
+    private Pose2d m_pose = new Pose2d(kStartX, kY, new Rotation2d());
+    private boolean m_followerDone = false;
+
+    @BeforeAll
+    static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @BeforeEach
+    void blue() {
+        setAlliance(AllianceStationID.Blue1);
+    }
+
+    private static void setAlliance(AllianceStationID station) {
+        DriverStationSim.setAllianceStationId(station);
+        DriverStationSim.notifyNewData();
+    }
+
+    private static PathPlannerPath straightPath() {
+        var bezier = PathPlannerPath.bezierFromPoses(
+            new Pose2d(kStartX, kY, new Rotation2d()), new Pose2d(kEndX, kY, new Rotation2d()));
+        return new PathPlannerPath(bezier,
+            new PathConstraints(3, 3, 2 * Math.PI, 4 * Math.PI), new GoalEndState(0, new Rotation2d()));
+    }
+
+    private TrajectoryEvents events() {
+        return TrajectoryEvents.along(straightPath(), () -> m_pose);
+    }
+
+    private Command mark(String name) {
+        return Commands.runOnce(() -> m_fired.add(name));
+    }
+
+    private Command start(TrajectoryEvents events) {
+        var command = events.follow(Commands.waitUntil(() -> m_followerDone));
+        command.initialize();
+        command.execute();
+        return command;
+    }
+
+    /** Steps the pose from where it is to {@code x} along the path's line, offset by {@code offsetY} */
+    private void driveTo(Command command, double x, double offsetY) {
+        double from = m_pose.getX();
+        int steps = (int) Math.ceil(Math.abs(x - from) / kStep);
+        for (int i = 1; i <= steps; i++) {
+            m_pose = new Pose2d(from + (x - from) * i / steps, kY + offsetY, new Rotation2d());
+            command.execute();
+        }
+    }
+
+    @Test
+    void firesByProgressProjectedOntoThePath() {
+        var command = start(events()
+            .atDistance(1, mark("1 m"))
+            .atDistance(3, mark("3 m")));
+
+        // well off to the side, only how far along the path it is counts
+        driveTo(command, kStartX + 0.95, 0.3);
+        assertEquals(List.of(), m_fired);
+        driveTo(command, kStartX + 1.05, 0.3);
+        assertEquals(List.of("1 m"), m_fired);
+        driveTo(command, kStartX + 2.95, -0.3);
+        assertEquals(List.of("1 m"), m_fired);
+        driveTo(command, kStartX + 3.05, -0.3);
+        assertEquals(List.of("1 m", "3 m"), m_fired);
+    }
+
+    @Test
+    void progressNeverGoesBack() {
+        var command = start(events()
+            .atDistance(1, mark("1 m"))
+            .atDistance(3, mark("3 m")));
+
+        driveTo(command, kStartX + 2, 0);
+        assertEquals(List.of("1 m"), m_fired);
+        // backing up past an event doesn't run it again, and doesn't bring the later one any closer
+        driveTo(command, kStartX + 0.5, 0);
+        driveTo(command, kStartX + 2, 0);
+        assertEquals(List.of("1 m"), m_fired);
+        driveTo(command, kStartX + 3.05, 0);
+        assertEquals(List.of("1 m", "3 m"), m_fired);
+    }
+
+    @Test
+    void followsTheFlippedPathOnRed() {
+        setAlliance(AllianceStationID.Red1);
+        m_pose = new Pose2d(AllianceFlipUtil.flip(kStartX), kY, new Rotation2d());
+        var command = start(events().atDistance(1, mark("1 m")));
+
+        // red drives towards -x, so the points have to be flipped for this to line up
+        driveTo(command, AllianceFlipUtil.flip(kStartX + 0.95), 0);
+        assertEquals(List.of(), m_fired);
+        driveTo(command, AllianceFlipUtil.flip(kStartX + 1.05), 0);
+        assertEquals(List.of("1 m"), m_fired);
+    }
+
+    @Test
+    void theFollowerFinishingFiresTheRest() {
+        var command = start(events()
+            .atDistance(1, mark("1 m"))
+            .beforeEnd(0.25, mark("near the end")));
+
+        driveTo(command, kStartX + 0.5, 0);
+        assertFalse(command.isFinished());
+        m_followerDone = true;
+        command.execute();
+        assertEquals(List.of("1 m", "near the end"), m_fired);
+        assertTrue(command.isFinished());
+    }
+
+    @Test
+    void notBeforeHoldsBackALeadLongerThanThePath() {
+        var command = start(events()
+            .beforeEnd(10, mark("clamped"))
+            .beforeEnd(10, 1.0, mark("not before 1 s")));
+
+        // 10 m before the end of a 4 m path is its start
+        assertEquals(List.of("clamped"), m_fired);
+        // from rest at 3 m/s², the timing is about 1.5 m in at 1 s
+        driveTo(command, kStartX + 1, 0);
+        assertEquals(List.of("clamped"), m_fired);
+        driveTo(command, kStartX + 2, 0);
+        assertEquals(List.of("clamped", "not before 1 s"), m_fired);
+    }
+}
@@ -0,0 +1,123 @@
+package frc.robot.subsystems.shooter;
+
+import static edu.wpi.first.units.Units.*;
+import static frc.robot.Constants.AimK.*;
+import static frc.robot.Constants.AimK.AimSimK.kSimPeriod;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.ctre.phoenix6.unmanaged.Unmanaged;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.units.Angle;
+import edu.wpi.first.units.Measure;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Steps the aim through the usual setpoints against AimSim and checks each move settles, and not much later than the
+ * Motion Magic profile says it should.
+ * <p>
+ * HAL time is stepped with SimHooks, one {@code kSimPeriod} at a time, so AimSim's notifier and the timings here see
+ * exact periods. The Talon's Motion Magic still runs on the wall clock inside Phoenix's sim, so each step also waits
+ * as long as it stepped for the Talon to keep up.
+ */
+class AimSettleTest {
+    private record Move(String name, Measure<Angle> target) {}
+
+    private static final double kLoopPeriod = 0.02;
+    /** How long after the predicted end of the profile a move can take to settle */
+    private static final double kSettleMargin = 0.5;
+
+    private static Aim aim;
+
+    @BeforeAll
+    static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        SimHooks.pauseTiming();
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        aim = new Aim();
+        // let the simulated devices start up and enable
+        Unmanaged.feedEnable(100);
+        advance(0.1);
+    }
+
+    @AfterAll
+    static void teardown() {
+        CommandScheduler.getInstance().cancelAll();
+        CommandScheduler.getInstance().unregisterAllSubsystems();
+        SimHooks.resumeTiming();
+    }
+
+    /** Steps HAL time by {@code seconds} in AimSim sized steps, and gives Phoenix the same wall time */
+    private static void advance(double seconds) {
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < Math.round(seconds / kSimPeriod); i++) {
+            SimHooks.stepTiming(kSimPeriod);
+        }
+        long waitNanos = (long) (seconds * 1e9) - (System.nanoTime() - startNanos);
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void step() {
+        Unmanaged.feedEnable(100);
+        aim.fastPeriodic();
+        CommandScheduler.getInstance().run();
+        advance(kLoopPeriod);
+    }
+
+    /** @return Seconds until the arm stayed within kSettleTolerance for kSettleHoldTime, NaN if it never did */
+    private static double moveAndTimeSettle(Measure<Angle> target) {
+        CommandScheduler.getInstance().schedule(aim.toAngleUntilAt(target));
+        double start = Timer.getFPGATimestamp();
+        double lastUnsettled = 0;
+        while (true) {
+            step();
+            double elapsed = Timer.getFPGATimestamp() - start;
+            var error = Rotations.of(Math.abs(target.in(Rotations) - aim.getAngle().in(Rotations)));
+            if (error.gt(kSettleTolerance)) {
+                lastUnsettled = elapsed;
+            }
+            if (elapsed - lastUnsettled >= kSettleHoldTime) {
+                return lastUnsettled;
+            }
+            if (elapsed >= kSettleTimeout) {
+                return Double.NaN;
+            }
+        }
+    }
+
+    @Test
+    void settlesAtTheUsualSetpoints() {
+        var moves = List.of(
+            new Move("hard stop", kMinAngle),
+            new Move("subwoofer", kSubwooferAngle),
+            new Move("amp", kAmpAngle),
+            new Move("trap", kTrapAngle),
+            new Move("climb", kClimbAngle),
+            new Move("hard stop", kMinAngle));
+
+        for (var move : moves) {
+            double predicted = aim.predictTimeToAngle(move.target(), false);
+            double settled = moveAndTimeSettle(move.target());
+
+            assertFalse(Double.isNaN(settled), move.name() + " didn't settle in " + kSettleTimeout + " s");
+            assertTrue(settled <= predicted + kSettleMargin,
+                move.name() + " settled in " + settled + " s, the profile should be done in " + predicted + " s");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package frc.robot.subsystems.shooter;
+
+import static frc.robot.Constants.ShooterK.*;
+import static frc.robot.Constants.ShooterK.FlywheelControlK.*;
+import static frc.robot.Constants.ShooterK.FlywheelSimK.kMoi;
+import static frc.robot.Constants.ShooterK.ShotRecoveryK.*;
+import static edu.wpi.first.units.Units.RotationsPerSecond;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import frc.robot.Constants.ShooterK.FlywheelControlMode;
+import frc.robot.Constants.ShooterK.ShooterConfigs;
+
+/**
+ * Spins one side of the shooter up in a FlywheelSim with each {@link FlywheelControlMode}, knocks some speed off it
+ * like a note going through, and checks the mode the robot runs is no slower than the others at either.
+ * <p>
+ * ONBOARD_PID is the TalonFX's VelocityVoltage with the left Slot0 gains, run every millisecond on fresh velocity
+ * like the Talon does. The model modes get the velocity {@code kMeasurementDelay} late and update every
+ * {@code kLoopPeriod}, like they do from the fast loop. All of them are held to the current limits the same way
+ * {@link FlywheelController#predictSpinUpSeconds} is. The note is a step drop in speed, the sim has no load torque.
+ * The shot boost is added on top for {@code kBoostDuration} after the drop like Shooter does.
+ */
+class FlywheelControlTest {
+    private record Result(double spinUp, double recovery) {}
+
+    private static final double kStep = 0.001;
+    private static final double kRunTime = 3.0;
+    /** Fraction of the speed a note takes off the wheels */
+    private static final double kShotDrop = 0.15;
+    /** How long it sits at speed before the shot */
+    private static final double kShotDelay = 0.5;
+
+    private static final DCMotor kMotor = DCMotor.getFalcon500(1);
+
+    /** Clamps to the voltage that keeps the motor within the current limits at this speed */
+    private static double limit(double volts, double rps) {
+        var limits = ShooterConfigs.kLeftConfigs.CurrentLimits;
+        double maxCurrent = Math.min(limits.StatorCurrentLimit, limits.SupplyCurrentLimit * 12.0 / kMaxVoltage);
+        double backEmf = Units.rotationsToRadians(rps) * kGearRatio / kMotor.KvRadPerSecPerVolt;
+        return MathUtil.clamp(volts, backEmf - maxCurrent * kMotor.rOhms, backEmf + maxCurrent * kMotor.rOhms);
+    }
+
+    /** @param boostVolts - Added for {@code kBoostDuration} after the shot, 0 for none */
+    private static Result run(FlywheelControlMode mode, double targetRps, double toleranceRps, double boostVolts) {
+        var sim = new FlywheelSim(kMotor, kGearRatio, kMoi);
+        var slot = ShooterConfigs.kLeftConfigs.Slot0;
+        var controller = new FlywheelController(mode == FlywheelControlMode.LQR_BANG_BANG);
+        controller.setTarget(targetRps);
+        int stepsPerUpdate = (int) Math.round(kLoopPeriod / kStep);
+        var delayed = new ArrayDeque<Double>();
+        for (int i = 0; i < Math.round(kMeasurementDelay / kStep); i++) {
+            delayed.add(0.0);
+        }
+
+        double volts = 0;
+        double spinUp = Double.NaN;
+        double shotTime = Double.NaN;
+        double recovery = Double.NaN;
+        int steps = (int) Math.round(kRunTime / kStep);
+        for (int i = 0; i < steps; i++) {
+            double rps = Units.radiansToRotations(sim.getAngularVelocityRadPerSec());
+            delayed.add(rps);
+            double delayedRps = delayed.remove();
+            if (mode == FlywheelControlMode.ONBOARD_PID) {
+                volts = slot.kS + slot.kV * targetRps + slot.kP * (targetRps - rps);
+            } else if (i % stepsPerUpdate == 0) {
+                volts = controller.calculate(delayedRps);
+            }
+            double t = i * kStep;
+            double boost = !Double.isNaN(shotTime) && t - shotTime < kBoostDuration ? boostVolts : 0;
+            sim.setInputVoltage(limit(MathUtil.clamp(volts + boost, -kMaxVoltage, kMaxVoltage), rps));
+            sim.update(kStep);
+
+            t += kStep;
+            double error = targetRps - Units.radiansToRotations(sim.getAngularVelocityRadPerSec());
+            if (Double.isNaN(spinUp)) {
+                if (error <= toleranceRps) {
+                    spinUp = t;
+                }
+            } else if (Double.isNaN(shotTime)) {
+                if (t >= spinUp + kShotDelay) {
+                    sim.setState(VecBuilder.fill(sim.getAngularVelocityRadPerSec() * (1 - kShotDrop)));
+                    shotTime = t;
+                }
+            } else if (Double.isNaN(recovery) && error <= toleranceRps) {
+                recovery = t - shotTime;
+            }
+        }
+        return new Result(spinUp, recovery);
+    }
+
+    @Test
+    void runsTheFastestMode() {
+        var tolerance = kBigShootTolerance.in(RotationsPerSecond);
+        for (var rpm : List.of(kLobRpm, kSubwooferRpm, kPodiumRpm)) {
+            double targetRps = rpm / 60;
+            var chosen = run(kControlMode, targetRps, tolerance, 0);
+            assertFalse(Double.isNaN(chosen.spinUp()), kControlMode + " never spun up to " + rpm + " rpm");
+            assertFalse(Double.isNaN(chosen.recovery()), kControlMode + " never recovered at " + rpm + " rpm");
+
+            for (var mode : FlywheelControlMode.values()) {
+                var other = run(mode, targetRps, tolerance, 0);
+                // NaN never got there, so anything beats it
+                assertTrue(Double.isNaN(other.spinUp()) || chosen.spinUp() <= other.spinUp() + kLoopPeriod,
+                    kControlMode + " spun up to " + rpm + " rpm in " + chosen.spinUp() + " s, "
+                    + mode + " in " + other.spinUp() + " s");
+                assertTrue(Double.isNaN(other.recovery()) || chosen.recovery() <= other.recovery() + kLoopPeriod,
+                    kControlMode + " recovered at " + rpm + " rpm in " + chosen.recovery() + " s, "
+                    + mode + " in " + other.recovery() + " s");
+            }
+        }
+    }
+
+    @Test
+    void shotBoostRecoversNoSlower() {
+        var tolerance = kBigShootTolerance.in(RotationsPerSecond);
+        for (var rpm : List.of(kLobRpm, kSubwooferRpm, kPodiumRpm)) {
+            double targetRps = rpm / 60;
+            var plain = run(kControlMode, targetRps, tolerance, 0);
+            var boosted = run(kControlMode, targetRps, tolerance, kBoostVolts);
+            assertFalse(Double.isNaN(boosted.recovery()), "never recovered at " + rpm + " rpm with the boost");
+            assertTrue(boosted.recovery() <= plain.recovery(),
+                "the boost recovered at " + rpm + " rpm in " + boosted.recovery() + " s, without it in "
+                + plain.recovery() + " s");
+        }
+    }
+}
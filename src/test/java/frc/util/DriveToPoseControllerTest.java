@@ -0,0 +1,230 @@
+package frc.util;
+
+import static edu.wpi.first.units.Units.Radians;
+import static frc.robot.Constants.AutoK.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Robot;
+
+/**
+ * Drives the same moves with DriveToPoseController and with the P controllers goToPose used before it, against a
+ * simple drivetrain model, and compares how long each takes to settle at the goal.
+ * <p>
+ * The model is acceleration limited by the robot config in shosty.chor, the same numbers Choreo plans the autons
+ * with: 4 modules of 0.55 Nm at 6.12:1 on 4.98 cm wheels pushing 60.85 kg, and 6 kg m² of rotational inertia. It
+ * follows whatever speeds it's asked for as fast as that allows, so it says nothing about module steering or
+ * tracking lag. Time is stepped with SimHooks so the controller sees exact loop periods.
+ */
+class DriveToPoseControllerTest {
+    private record Move(String name, Pose2d start, Pose2d goal) {}
+
+    private static final double kStep = 0.02;
+    private static final double kRunTime = 8;
+    // force per module over mass, and times half the module diagonal over inertia
+    private static final double kMaxAccel = 4 * 0.55 * 6.122 / 0.04985 / 60.85; // m/s^2
+    private static final double kMaxAlpha = 4 * 0.55 * 6.122 / 0.04985 * Math.hypot(0.4762, 0.5778) / 2 / 6; // rad/s^2
+    private static final double kRotationTolerance = kDriveToPoseRotationTolerance.in(Radians);
+
+    /** Field relative pose and speeds, speeds slew toward what's asked for within the acceleration limits */
+    private static final class Plant {
+        private double m_x, m_y, m_theta;
+        private double m_vx, m_vy, m_omega;
+
+        private Plant(Pose2d start) {
+            m_x = start.getX();
+            m_y = start.getY();
+            m_theta = start.getRotation().getRadians();
+        }
+
+        private Pose2d getPose() {
+            return new Pose2d(m_x, m_y, new Rotation2d(m_theta));
+        }
+
+        /** @param speeds - Robot relative, like the drivetrain gets them */
+        private void step(ChassisSpeeds speeds) {
+            double cos = Math.cos(m_theta);
+            double sin = Math.sin(m_theta);
+            double vx = speeds.vxMetersPerSecond * cos - speeds.vyMetersPerSecond * sin;
+            double vy = speeds.vxMetersPerSecond * sin + speeds.vyMetersPerSecond * cos;
+            double speed = Math.hypot(vx, vy);
+            if (speed > Robot.kMaxSpeed) {
+                vx *= Robot.kMaxSpeed / speed;
+                vy *= Robot.kMaxSpeed / speed;
+            }
+            double omega = MathUtil.clamp(speeds.omegaRadiansPerSecond, -Robot.kMaxAngularRate, Robot.kMaxAngularRate);
+
+            double ex = vx - m_vx;
+            double ey = vy - m_vy;
+            double e = Math.hypot(ex, ey);
+            if (e > kMaxAccel * kStep) {
+                ex *= kMaxAccel * kStep / e;
+                ey *= kMaxAccel * kStep / e;
+            }
+            m_vx += ex;
+            m_vy += ey;
+            m_omega += MathUtil.clamp(omega - m_omega, -kMaxAlpha * kStep, kMaxAlpha * kStep);
+
+            m_x += m_vx * kStep;
+            m_y += m_vy * kStep;
+            m_theta = MathUtil.angleModulus(m_theta + m_omega * kStep);
+        }
+    }
+
+    private interface Controller {
+        ChassisSpeeds calculate(Pose2d pose);
+    }
+
+    /**
+     * @param settle - Seconds until it was last out of tolerance
+     * @param overshoot - Furthest it went past the goal along the line from the start, meters
+     * @param atGoal - Seconds until DriveToPoseController said it was there, NaN for the old controllers
+     */
+    private record Result(double settle, double overshoot, double atGoal) {}
+
+    @BeforeAll
+    static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        SimHooks.pauseTiming();
+    }
+
+    @AfterAll
+    static void teardown() {
+        SimHooks.resumeTiming();
+    }
+
+    private static Result run(Move move, Controller controller, DriveToPoseController profiled) {
+        var plant = new Plant(move.start());
+        var goal = move.goal();
+        double lineX = goal.getX() - move.start().getX();
+        double lineY = goal.getY() - move.start().getY();
+        double lineLength = Math.hypot(lineX, lineY);
+
+        double lastOut = 0;
+        double overshoot = 0;
+        double atGoal = Double.NaN;
+        for (double t = 0; t < kRunTime; t += kStep) {
+            var speeds = controller.calculate(plant.getPose());
+            if (profiled != null && Double.isNaN(atGoal) && profiled.atGoal()) {
+                atGoal = t;
+            }
+            plant.step(speeds);
+            SimHooks.stepTiming(kStep);
+
+            double dx = plant.m_x - goal.getX();
+            double dy = plant.m_y - goal.getY();
+            double rotError = Math.abs(MathUtil.angleModulus(goal.getRotation().getRadians() - plant.m_theta));
+            if (Math.hypot(dx, dy) > kDriveToPoseTranslationTolerance || rotError > kRotationTolerance) {
+                lastOut = t + kStep;
+            }
+            if (lineLength > 0) {
+                overshoot = Math.max(overshoot, (dx * lineX + dy * lineY) / lineLength);
+            }
+        }
+        return new Result(lastOut, overshoot, atGoal);
+    }
+
+    private static Result runOld(Move move) {
+        // the P controllers goToPose drove with before DriveToPoseController
+        var xController = new PIDController(kPTranslation, 0, 0);
+        var yController = new PIDController(kPTranslation, 0, 0);
+        var thetaController = new PIDController(kPTheta, 0, 0);
+        thetaController.enableContinuousInput(0, 2 * Math.PI);
+        var goal = move.goal();
+        double goalHeading = goal.getRotation().getRadians();
+
+        return run(move, pose -> {
+            double xSpeed = xController.calculate(pose.getX(), goal.getX());
+            double ySpeed = yController.calculate(pose.getY(), goal.getY());
+            double thetaSpeed = thetaController.calculate(pose.getRotation().getRadians(), goalHeading);
+            // it converted to robot relative with the goal's heading, not the robot's
+            return ChassisSpeeds.fromFieldRelativeSpeeds(xSpeed, ySpeed, thetaSpeed, goal.getRotation());
+        }, null);
+    }
+
+    private static Result runProfiled(Move move) {
+        var controller = new DriveToPoseController(
+            kDriveToPoseDriveConstraints, kDriveToPoseTurnConstraints,
+            kPDriveToPoseTranslation, kPDriveToPoseTheta,
+            kDriveToPoseTranslationTolerance, kRotationTolerance);
+        controller.reset(move.start(), new ChassisSpeeds(), move.goal());
+        return run(move, controller::calculate, controller);
+    }
+
+    private static Pose2d pose(double x, double y, double degrees) {
+        return new Pose2d(x, y, Rotation2d.fromDegrees(degrees));
+    }
+
+    @Test
+    void stepMatchesTrapezoidProfile() {
+        var constraints = kDriveToPoseDriveConstraints;
+        var profile = new TrapezoidProfile(constraints);
+        var goal = new State(0, 0);
+        // at rest, moving away from the goal, coming in too fast, and from the other side
+        var starts = List.of(new State(3, 0), new State(2, 1.5), new State(0.5, -4 * constraints.maxVelocity),
+            new State(-1, 0.5), new State(0.2, 0));
+
+        for (var start : starts) {
+            var expected = new State(start.position, start.velocity);
+            var actual = new State(start.position, start.velocity);
+            for (double t = 0; t < kRunTime; t += kStep) {
+                expected = profile.calculate(kStep, expected, goal);
+                DriveToPoseController.step(constraints, kStep, actual, goal);
+                assertEquals(expected.position, actual.position, 1e-9, "position from " + start + " at " + t + " s");
+                assertEquals(expected.velocity, actual.velocity, 1e-9, "velocity from " + start + " at " + t + " s");
+            }
+            assertEquals(0, goal.position);
+            assertEquals(0, goal.velocity);
+        }
+    }
+
+    @Test
+    void stretchMatchesTheTimeFromAMovingStart() {
+        var constraints = kDriveToPoseTurnConstraints;
+        var goal = new State(2, 0);
+        // still, already turning towards it, and turning the wrong way
+        for (var start : List.of(new State(0, 0), new State(0, 2), new State(0, -3))) {
+            var fast = new TrapezoidProfile(constraints);
+            fast.calculate(0, start, goal);
+            double time = fast.totalTime() * 2.5;
+
+            var stretched = new TrapezoidProfile(DriveToPoseController.stretch(constraints, start, goal, time));
+            stretched.calculate(0, start, goal);
+            assertEquals(time, stretched.totalTime(), 1e-6, "from " + start);
+        }
+    }
+
+    @Test
+    void settlesNoSlowerThanTheOldPControllers() {
+        var moves = List.of(
+            new Move("3 m straight", pose(2, 5, 0), pose(5, 5, 0)),
+            new Move("diagonal and a quarter turn", pose(2, 2, 0), pose(6, 6, 90)),
+            new Move("short and a half turn", pose(1, 1, 0), pose(1.5, 1.2, 180)),
+            new Move("across the wing", pose(8, 4, 17), pose(2, 7, -143)),
+            new Move("half a meter", pose(2, 5, 0), pose(2.5, 5, 0)));
+
+        for (var move : moves) {
+            var old = runOld(move);
+            var profiled = runProfiled(move);
+            assertFalse(Double.isNaN(profiled.atGoal()), move.name() + " never reached the goal");
+            assertTrue(profiled.overshoot() <= kDriveToPoseTranslationTolerance,
+                move.name() + " went " + profiled.overshoot() + " m past the goal");
+            assertTrue(profiled.settle() <= old.settle() + kStep,
+                move.name() + " settled in " + profiled.settle() + " s, the old controllers took " + old.settle() + " s");
+        }
+    }
+}